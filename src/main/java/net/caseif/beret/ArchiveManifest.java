@@ -0,0 +1,184 @@
+/*
+ * New BSD License (BSD-new)
+ *
+ * Copyright (c) 2015 Maxim Roncacé
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     - Neither the name of the copyright holder nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.caseif.beret;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipEntry;
+
+/**
+ * Records the CRC-32 and size of each class file entry in an archive that
+ * was processed, so that a later run over a new revision of the archive can
+ * tell which entries have been added or changed since.
+ *
+ * <p>A manifest is tied to the build of Beret and the options which the
+ * archive was processed with; loading a manifest written under different
+ * ones, or while the running build cannot be identified, yields an empty
+ * manifest, as if the archive had never been seen.</p>
+ *
+ * @author Max Roncacé
+ */
+public class ArchiveManifest {
+
+    private static final String HEADER = "beret-manifest";
+    private static final char SEPARATOR = '\t';
+
+    private final String options;
+    private final Map<String, Long> crcs = new ConcurrentHashMap<>();
+    private final Map<String, Long> sizes = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new empty {@link ArchiveManifest} for the given options.
+     *
+     * @param options A string identifying the options the archive is processed with (e.g. the command)
+     */
+    public ArchiveManifest(String options) {
+        this.options = options;
+    }
+
+    /**
+     * Loads the manifest stored in the given file.
+     *
+     * @param file    The file to load the manifest from
+     * @param options A string identifying the options the archive is processed with
+     * @return The loaded manifest, or an empty one if the file does not exist, is malformed, or was written by
+     *         another build of Beret or with other options
+     * @throws IOException If an exception occurs while reading the file
+     */
+    public static ArchiveManifest load(Path file, String options) throws IOException {
+        ArchiveManifest manifest = new ArchiveManifest(options);
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            if (Beret.getBuildId() == null || !getHeader(options).equals(reader.readLine())) {
+                return manifest;
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                // the name comes last since it is the only field which could conceivably contain the separator
+                int first = line.indexOf(SEPARATOR);
+                int second = line.indexOf(SEPARATOR, first + 1);
+                if (first == -1 || second == -1) {
+                    return new ArchiveManifest(options);
+                }
+                String name = line.substring(second + 1);
+                try {
+                    manifest.crcs.put(name, Long.parseLong(line.substring(0, first)));
+                    manifest.sizes.put(name, Long.parseLong(line.substring(first + 1, second)));
+                } catch (NumberFormatException ex) {
+                    return new ArchiveManifest(options);
+                }
+            }
+        } catch (NoSuchFileException ex) {
+            // the archive has not been processed before
+        }
+        return manifest;
+    }
+
+    /**
+     * Writes this manifest to the given file, replacing it atomically where
+     * possible.
+     *
+     * @param file The file to write the manifest to
+     * @throws IOException If an exception occurs while writing the file
+     */
+    public void save(Path file) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            writer.write(getHeader(options));
+            writer.newLine();
+            for (Map.Entry<String, Long> entry : crcs.entrySet()) {
+                writer.write(Long.toString(entry.getValue()));
+                writer.write(SEPARATOR);
+                writer.write(Long.toString(sizes.get(entry.getKey())));
+                writer.write(SEPARATOR);
+                writer.write(entry.getKey());
+                writer.newLine();
+            }
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Returns whether the given entry is recorded by this manifest with the
+     * same CRC-32 and size, i.e. whether it is unchanged since this manifest
+     * was written.
+     *
+     * @param entry The entry to check
+     * @return Whether the given entry is unchanged
+     */
+    public boolean isUnchanged(ZipEntry entry) {
+        if (entry.getCrc() == -1 || entry.getSize() == -1) {
+            return false; // not known without reading the entry, so assume the worst
+        }
+        Long crc = crcs.get(entry.getName());
+        return crc != null && crc == entry.getCrc() && sizes.get(entry.getName()) == entry.getSize();
+    }
+
+    /**
+     * Records the CRC-32 and size of the given entry in this manifest. This
+     * method may be called from multiple threads at once.
+     *
+     * @param entry The entry to record
+     */
+    public void record(ZipEntry entry) {
+        if (entry.getCrc() != -1 && entry.getSize() != -1) {
+            // sizes are put first so that a recorded CRC always has a size to go with it
+            sizes.put(entry.getName(), entry.getSize());
+            crcs.put(entry.getName(), entry.getCrc());
+        }
+    }
+
+    /**
+     * Returns the names of the entries recorded by this manifest.
+     *
+     * @return An unmodifiable view of the names of the entries recorded by this manifest
+     */
+    public Set<String> getEntryNames() {
+        return Collections.unmodifiableSet(crcs.keySet());
+    }
+
+    private static String getHeader(String options) {
+        return HEADER + SEPARATOR + Beret.getBuildId() + SEPARATOR + options;
+    }
+
+}
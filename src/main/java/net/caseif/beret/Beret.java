@@ -28,16 +28,36 @@
  */
 package net.caseif.beret;
 
+import net.caseif.beret.structures.constant.SymbolTable;
 import net.caseif.beret.wrapper.ClassInfo;
+import net.caseif.beret.wrapper.MemberFilter;
 
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.nio.charset.Charset;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * <strong>B</strong>eret <strong>E</strong>xtraordinary <strong>R</strong>everse <strong>E</strong>ngineering
@@ -48,6 +68,35 @@ import java.util.List;
  */
 public class Beret {
 
+    /**
+     * The version of Beret, as recorded in the manifest of its jar. Builds
+     * sharing a version may differ, so output is identified by
+     * {@link #getBuildId()} instead.
+     */
+    public static final String VERSION = getVersion();
+
+    /**
+     * The system property naming the directory to cache output for archives
+     * in. Output is not cached if it is unset.
+     */
+    private static final String CACHE_PROPERTY = "beret.cache";
+
+    /**
+     * The system property specifying the size limit of the cache in
+     * megabytes.
+     */
+    private static final String CACHE_SIZE_PROPERTY = "beret.cacheSize";
+
+    private static final long DEFAULT_CACHE_SIZE = 256;
+
+    private static final String CLASS_EXTENSION = ".class";
+
+    /**
+     * The name of the file within an output directory which records the
+     * archive entries that were processed into it.
+     */
+    private static final String MANIFEST_FILE = ".beret-manifest";
+
     public static void main(String[] args) {
         if (args.length < 3) {
             printUsage();
@@ -66,24 +115,44 @@ public class Beret {
             System.exit(1);
         }
         System.out.println("Reading from " + input.getAbsolutePath() + "...");
+        File output = new File(args[2]);
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        if (args.length > 3) {
+            try {
+                parallelism = Integer.parseInt(args[3]);
+            } catch (NumberFormatException ex) {
+                System.err.println("Invalid thread count!");
+                System.exit(1);
+            }
+            if (parallelism < 1) {
+                System.err.println("Thread count must be positive!");
+                System.exit(1);
+            }
+        }
+        if (JarAnalyzer.isArchive(input.getName())) {
+            processArchive(action, input, output, parallelism);
+            return;
+        }
         ClassInfo cf = null;
         try {
-            cf = new ClassInfo(new FileInputStream(input));
+            cf = ClassInfo.fromFile(input.toPath());
         } catch (IOException ex) {
             ex.printStackTrace();
             System.err.println("Invalid input file!");
             System.exit(1);
         }
-        File output = new File(args[2]);
         try (OutputStream os = new FileOutputStream(output)) {
             if (args.length > 2) {
                 System.out.println("Writing to " + output.getAbsolutePath() + "...");
             }
-            if (action.equalsIgnoreCase("dump")) {
-                cf.dump(os);
-            } else if (action.equalsIgnoreCase("decompile")) {
-                DecompileAgent da = new DecompileAgent(cf);
-                os.write(da.decompile().getBytes(Charset.forName("UTF-8")));
+            // methods are decompiled in parallel instead, since there is only the one class
+            ForkJoinPool pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+            try {
+                process(action, cf, os, pool);
+            } finally {
+                if (pool != null) {
+                    pool.shutdown();
+                }
             }
         } catch (IOException ex) {
             ex.printStackTrace();
@@ -92,11 +161,267 @@ public class Beret {
         }
     }
 
+    /**
+     * Processes every class in the given archive in parallel, writing the
+     * output for each to its own file within the given directory.
+     *
+     * <p>A manifest of the processed entries is kept in the output
+     * directory. If the same directory was used for an earlier revision of
+     * the archive, entries whose CRC-32 and size are unchanged since are
+     * skipped, and the output of entries which have since been removed is
+     * deleted.</p>
+     *
+     * <p>If a cache directory is configured, classes whose output is already
+     * cached are not parsed at all; the cached output is copied instead.</p>
+     *
+     * @param action      The command to process classes with
+     * @param input       The archive to read classes from
+     * @param outputDir   The directory to write output to
+     * @param parallelism The number of threads to process classes on
+     */
+    private static void processArchive(String action, File input, File outputDir, int parallelism) {
+        System.out.println("Writing to " + outputDir.getAbsolutePath() + "...");
+        String extension = action.equalsIgnoreCase("dump") ? ".txt" : ".java";
+        String options = action.toLowerCase();
+        Path manifestFile = outputDir.toPath().resolve(MANIFEST_FILE);
+        // output is only reused if it is known to have been produced by this very build
+        boolean identified = getBuildId() != null;
+        if (!identified) {
+            System.err.println("Failed to identify this build of Beret, processing every class without caching");
+        }
+        ArchiveManifest previous = identified ? loadManifest(manifestFile, options) : new ArchiveManifest(options);
+        ArchiveManifest current = new ArchiveManifest(options);
+        Set<String> present = new HashSet<>();
+        DecompileCache cache = identified ? openCache() : null;
+        // classes within an archive refer to one another heavily, so their strings are shared
+        SymbolTable symbols = new SymbolTable();
+        AtomicInteger processed = new AtomicInteger();
+        AtomicInteger unchanged = new AtomicInteger();
+        AtomicInteger cached = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        try {
+            JarAnalyzer.readAll(input.toPath(), parallelism, entry -> {
+                present.add(entry.getName());
+                File output = getOutputFile(outputDir, entry.getName(), extension);
+                if (output == null) {
+                    System.err.println("Failed to process " + entry.getName() + ": entry lies outside output directory");
+                    failed.incrementAndGet();
+                    return false;
+                }
+                if (previous.isUnchanged(entry) && output.exists()) {
+                    current.record(entry);
+                    unchanged.incrementAndGet();
+                    return false;
+                }
+                return true;
+            }, (entry, bytes) -> {
+                File output = getOutputFile(outputDir, entry.getName(), extension);
+                output.getParentFile().mkdirs();
+                String key = cache != null ? DecompileCache.getKey(bytes, options) : null;
+                boolean hit = false;
+                try (OutputStream os = new FileOutputStream(output)) {
+                    if (key != null && cache.copyTo(key, os)) {
+                        hit = true;
+                    } else {
+                        process(action, new ClassInfo(bytes, MemberFilter.ALL, symbols), os, null);
+                    }
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+                current.record(entry);
+                processed.incrementAndGet();
+                if (hit) {
+                    cached.incrementAndGet();
+                } else if (key != null) {
+                    try {
+                        cache.store(key, output.toPath());
+                    } catch (IOException ex) {
+                        System.err.println("Failed to cache output for " + entry.getName() + ": " + ex);
+                    }
+                }
+            }, (name, ex) -> {
+                System.err.println("Failed to process " + name + ": " + ex);
+                failed.incrementAndGet();
+            });
+        } catch (IOException ex) {
+            ex.printStackTrace();
+            System.err.println("Invalid input file!");
+            System.exit(1);
+        }
+        for (String name : previous.getEntryNames()) {
+            File output = getOutputFile(outputDir, name, extension);
+            if (!present.contains(name) && output != null) {
+                output.delete();
+            }
+        }
+        if (identified) {
+            try {
+                outputDir.mkdirs();
+                current.save(manifestFile);
+            } catch (IOException ex) {
+                System.err.println("Failed to write manifest: " + ex);
+            }
+        }
+        System.out.println("Processed " + processed.get() + " classes (" + failed.get() + " failed, "
+                + unchanged.get() + " unchanged" + (cache != null ? ", " + cached.get() + " from cache" : "") + ")");
+    }
+
+    /**
+     * Loads the manifest of a previous run from the given file.
+     *
+     * @param manifestFile The file to load the manifest from
+     * @param options      A string identifying the options the archive is processed with
+     * @return The loaded manifest, or an empty one if it could not be read
+     */
+    private static ArchiveManifest loadManifest(Path manifestFile, String options) {
+        try {
+            return ArchiveManifest.load(manifestFile, options);
+        } catch (IOException ex) {
+            System.err.println("Failed to read manifest, processing every class: " + ex);
+            return new ArchiveManifest(options);
+        }
+    }
+
+    /**
+     * Returns the file which the output for the given archive entry is
+     * written to.
+     *
+     * @param outputDir The directory output is written to
+     * @param entryName The name of the class file entry
+     * @param extension The extension of the output file
+     * @return The file which the output for the given entry is written to, or
+     *         <code>null</code> if it would lie outside the output directory
+     */
+    private static File getOutputFile(File outputDir, String entryName, String extension) {
+        Path root = outputDir.toPath().toAbsolutePath().normalize();
+        Path output;
+        try {
+            output = root.resolve(entryName.substring(0, entryName.length() - CLASS_EXTENSION.length()) + extension)
+                    .normalize();
+        } catch (InvalidPathException ex) {
+            return null;
+        }
+        // entry names are untrusted, so they must not be allowed to escape the output directory
+        return output.startsWith(root) && !output.equals(root) ? output.toFile() : null;
+    }
+
+    private static String getVersion() {
+        String version = Beret.class.getPackage().getImplementationVersion();
+        return version != null ? version : "dev"; // not running from the built jar
+    }
+
+    /**
+     * Returns an identifier of the running build of Beret, derived from a
+     * hash of its own code: either the jar it was loaded from, or every class
+     * file in the directory it was loaded from. Any change to the code thus
+     * yields a new identifier, so output cached or recorded by one build is
+     * never mistaken for that of another.
+     *
+     * @return The identifier of the running build, or <code>null</code> if its code could not be located or read
+     */
+    static String getBuildId() {
+        return BuildId.VALUE;
+    }
+
+    /**
+     * Computes the identifier of the running build, which is only done once
+     * it is first needed.
+     */
+    private static final class BuildId {
+
+        private static final String VALUE = computeBuildId();
+
+        private static String computeBuildId() {
+            MessageDigest digest;
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException ex) {
+                throw new AssertionError("SHA-256 is not supported", ex); // every JRE is required to support it
+            }
+            try {
+                CodeSource source = Beret.class.getProtectionDomain().getCodeSource();
+                if (source == null || source.getLocation() == null) {
+                    return null;
+                }
+                Path location = Paths.get(source.getLocation().toURI());
+                if (Files.isDirectory(location)) {
+                    List<Path> classes;
+                    try (Stream<Path> files = Files.walk(location)) {
+                        classes = files.filter(file -> file.toString().endsWith(CLASS_EXTENSION)).sorted()
+                                .collect(Collectors.toList());
+                    }
+                    for (Path file : classes) {
+                        // names are hashed too, so that renaming a class changes the identifier
+                        digest.update(location.relativize(file).toString().getBytes(StandardCharsets.UTF_8));
+                        digest.update((byte)0);
+                        digest.update(Files.readAllBytes(file));
+                    }
+                } else {
+                    digest.update(Files.readAllBytes(location));
+                }
+            } catch (IOException | URISyntaxException | RuntimeException ex) {
+                // e.g. loaded from somewhere other than the file system, or denied access to it
+                return null;
+            }
+            return VERSION + '+' + Util.bytesToHex(digest.digest());
+        }
+
+    }
+
+    /**
+     * Opens the output cache configured through system properties.
+     *
+     * @return The configured cache, or <code>null</code> if none is configured
+     */
+    private static DecompileCache openCache() {
+        String dir = System.getProperty(CACHE_PROPERTY);
+        if (dir == null || dir.isEmpty()) {
+            return null;
+        }
+        long size = DEFAULT_CACHE_SIZE;
+        try {
+            size = Long.parseLong(System.getProperty(CACHE_SIZE_PROPERTY, Long.toString(DEFAULT_CACHE_SIZE)));
+        } catch (NumberFormatException ex) {
+            System.err.println("Invalid cache size!");
+            System.exit(1);
+        }
+        try {
+            return new DecompileCache(Paths.get(dir), size * 1024 * 1024);
+        } catch (IOException | IllegalArgumentException ex) {
+            System.err.println("Failed to open cache, continuing without it: " + ex);
+            return null;
+        }
+    }
+
+    /**
+     * Processes the given class with the given command, writing the output to
+     * the given stream.
+     *
+     * @param action   The command to process the class with
+     * @param cf       The class to process
+     * @param os       The stream to write output to
+     * @param executor The executor to decompile methods on, or <code>null</code> to decompile them sequentially
+     * @throws IOException If an exception occurs while writing to the stream
+     */
+    private static void process(String action, ClassInfo cf, OutputStream os, Executor executor)
+            throws IOException {
+        if (action.equalsIgnoreCase("dump")) {
+            cf.dump(os);
+        } else if (action.equalsIgnoreCase("decompile")) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8));
+            new DecompileAgent(cf, executor).decompile(writer);
+            writer.flush();
+        }
+    }
+
     public static void printUsage() {
-        System.out.println("Usage: Beret.jar <command> <class file> <output file>");
+        System.out.println("Usage: Beret.jar <command> <class file> <output file> [thread count]");
+        System.out.println("       Beret.jar <command> <jar or zip file> <output directory> [thread count]");
         System.out.println("Available commands:");
         System.out.println("    dump - Dumps info about a class in an arbitrary format");
         System.out.println("    decompile - Decompiles a class into its original source code");
+        System.out.println("Output for archives is cached if -D" + CACHE_PROPERTY + "=<directory> is set, up to -D"
+                + CACHE_SIZE_PROPERTY + "=<megabytes> (default " + DEFAULT_CACHE_SIZE + ")");
     }
 
 }
@@ -30,8 +30,8 @@ package net.caseif.beret;
 
 import net.caseif.beret.structures.AttributeStructure;
 import net.caseif.beret.structures.CodeStructure;
+import net.caseif.beret.structures.InstructionCursor;
 import net.caseif.beret.wrapper.MethodInfo;
-import net.caseif.beret.wrapper.synthetic.Instruction;
 
 import java.util.ArrayList;
 
@@ -54,12 +54,13 @@ public class BytecodeAgent {
                 found = true;
                 CodeStructure cs = (CodeStructure)a;
                 //TODO: temporary, we'll ACTUALLY decompile it later on
-                for (Instruction instr : cs.getCode()) {
+                InstructionCursor cursor = cs.getInstructions().cursor();
+                while (cursor.next()) {
                     StringBuilder sb = new StringBuilder();
-                    sb.append(instr.getByteOffset()).append(": ");
-                    sb.append(instr.getOpcode());
-                    if (instr.getExtraBytes().length > 0) {
-                        sb.append(" ").append(Util.bytesToHex(instr.getExtraBytes()));
+                    sb.append(cursor.getOffset()).append(": ");
+                    sb.append(cursor.getOpcode());
+                    if (cursor.getOperandLength() > 0) {
+                        sb.append(" ").append(Util.bytesToHex(cursor.getOperandBytes()));
                     }
                     lines.add(sb.toString());
                 }
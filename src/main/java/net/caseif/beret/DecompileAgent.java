@@ -37,9 +37,15 @@ import net.caseif.beret.wrapper.FieldInfo;
 import net.caseif.beret.wrapper.MethodInfo;
 import net.caseif.beret.wrapper.synthetic.AccessFlag;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 /**
  * Agent for handling decompilation of raw class data to Java code.
@@ -48,9 +54,14 @@ import java.util.Set;
  */
 public class DecompileAgent {
 
+    private static final AccessFlag.ClassFlag[] CLASS_FLAGS = AccessFlag.ClassFlag.values();
+    private static final AccessFlag.FieldFlag[] FIELD_FLAGS = AccessFlag.FieldFlag.values();
+    private static final AccessFlag.MethodFlag[] METHOD_FLAGS = AccessFlag.MethodFlag.values();
+
     private ClassInfo handle;
+    private Executor executor;
 
-    private Set<String> imports = new HashSet<>();
+    private Set<String> imports = new TreeSet<>(); // sorted, so that output does not depend on hash order
 
     /**
      * Consructs a new {@link DecompileAgent} from the given {@link ClassInfo}.
@@ -58,7 +69,27 @@ public class DecompileAgent {
      * @param classInfo The handle for the new {@link DecompileAgent}
      */
     public DecompileAgent(ClassInfo classInfo) {
+        this(classInfo, null);
+    }
+
+    /**
+     * Constructs a new {@link DecompileAgent} from the given {@link ClassInfo}
+     * which decompiles method bodies in parallel on the given
+     * {@link Executor}.
+     *
+     * <p>The output is identical to that of a sequential
+     * {@link DecompileAgent}; bodies are written in declaration order as each
+     * becomes available. The calling thread blocks while waiting for them, so
+     * it should not be one of the executor's own threads unless the executor
+     * is a {@link java.util.concurrent.ForkJoinPool}.</p>
+     *
+     * @param classInfo The handle for the new {@link DecompileAgent}
+     * @param executor  The executor to decompile method bodies on, or <code>null</code> to decompile them on the
+     *                  calling thread
+     */
+    public DecompileAgent(ClassInfo classInfo, Executor executor) {
         this.handle = classInfo;
+        this.executor = executor;
     }
 
     /**
@@ -67,82 +98,172 @@ public class DecompileAgent {
      * @return A String containing the decompiled code
      */
     public String decompile() {
-        setTabSize(4);
         StringBuilder sb = new StringBuilder();
-        sb.append(getClassSignature()).append("\n\n");
+        try {
+            decompile(sb);
+        } catch (IOException ex) {
+            throw new AssertionError(ex); // StringBuilder never throws
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Writes a representation of this {@link DecompileAgent}'s class in Java
+     * code to the given {@link Appendable}.
+     *
+     * <p>Imports are gathered in a separate pass beforehand, so that the
+     * code can be written front to back without being buffered. They are
+     * written in lexicographic order, so that the output of a class is the
+     * same from one run to the next.</p>
+     *
+     * @param out The {@link Appendable} to write the decompiled code to
+     * @throws IOException If an exception occurs while writing to the {@link Appendable}
+     */
+    public void decompile(Appendable out) throws IOException {
+        setTabSize(4);
+        collectImports();
+
+        out.append("// generated by Beret <https://github.com/caseif/Beret>").append('\n');
+        AttributeStructure source = Util.getAttrFromName(handle.getAttributes(), "SourceFile");
+        String fileName = source != null ? handle.getFromPool(source.getContent()).toString() : null;
+        if (fileName != null && !fileName.equals("SourceFile")) {
+            out.append("// compiled from source file \"").append(fileName).append('"');
+        } else {
+            out.append("// compiled from unknown source file");
+        }
+        out.append(" (class version ").append(Integer.toString(handle.getMajorVersion())).append('.')
+                .append(Integer.toString(handle.getMinorVersion())).append(")").append('\n');
+
+        if (!handle.getPackage().isEmpty()) {
+            out.append("package ").append(handle.getPackage()).append(";\n\n");
+        }
+
+        for (String s : imports) {
+            out.append("import ").append(s).append(";").append('\n');
+        }
+        if (imports.size() > 0) {
+            out.append('\n');
+        }
+
+        out.append(getClassSignature()).append("\n\n");
         for (String s : getFieldSignatures()) {
-            sb.append(tab(1)).append(s).append('\n');
+            out.append(tab(1)).append(s).append('\n');
         }
         if (handle.getFields().length > 0) {
-            sb.append('\n');
+            out.append('\n');
         }
         MethodInfo[] methods = handle.getMethods();
         String[] methodSigs = getMethodSignatures();
-        for (int i = 0; i < methods.length; i++) {
-            sb.append(tab(1)).append(methodSigs[i]);
-            if (methods[i].getAccess().getFlags().contains(AccessFlag.MethodFlag.ACC_ABSTRACT)) {
-                sb.append(';');
-            } else {
-                sb.append(" {").append("\n");
-                String[] body = BytecodeAgent.decompile(methods[i]);
-                for (String line : body) {
-                    sb.append(tab(2)).append(line).append('\n');
+        List<CompletableFuture<String[]>> bodies = submitBodies(methods);
+        try {
+            for (int i = 0; i < methods.length; i++) {
+                out.append(tab(1)).append(methodSigs[i]);
+                if (methods[i].getAccess().has(AccessFlag.MethodFlag.ACC_ABSTRACT)) {
+                    out.append(';');
+                } else {
+                    out.append(" {").append("\n");
+                    String[] body = bodies != null ? await(bodies.get(i)) : BytecodeAgent.decompile(methods[i]);
+                    for (String line : body) {
+                        out.append(tab(2)).append(line).append('\n');
+                    }
+                    out.append(tab(1)).append("}");
+                }
+                out.append("\n\n");
+            }
+        } finally {
+            if (bodies != null) {
+                for (CompletableFuture<String[]> body : bodies) {
+                    if (body != null) {
+                        body.cancel(false); // no-op for finished bodies, skips the rest if we bailed out early
+                    }
                 }
-                sb.append(tab(1)).append("}");
             }
-            sb.append("\n\n");
         }
-        sb.append("}");
-        sb.append("\n");
+        out.append("}");
+        out.append("\n");
+    }
 
-        if (imports.size() > 0) {
-            sb.insert(0, '\n');
+    /**
+     * Submits the bodies of the given methods for decompilation on this
+     * {@link DecompileAgent}'s executor.
+     *
+     * @param methods The methods to decompile the bodies of
+     * @return The pending bodies, indexed as the given methods and <code>null</code> for abstract methods, or
+     *         <code>null</code> if this {@link DecompileAgent} has no executor
+     */
+    private List<CompletableFuture<String[]>> submitBodies(MethodInfo[] methods) {
+        if (executor == null) {
+            return null;
         }
-        for (String s : imports) {
-            sb.insert(0, '\n');
-            sb.insert(0, ";");
-            sb.insert(0, s);
-            sb.insert(0, "import ");
+        List<CompletableFuture<String[]>> bodies = new ArrayList<>(methods.length);
+        for (MethodInfo method : methods) {
+            if (method.getAccess().has(AccessFlag.MethodFlag.ACC_ABSTRACT)) {
+                bodies.add(null);
+            } else {
+                bodies.add(CompletableFuture.supplyAsync(() -> BytecodeAgent.decompile(method), executor));
+            }
         }
+        return bodies;
+    }
 
-        if (!handle.getPackage().isEmpty()) {
-            sb.insert(0, ";\n\n");
-            sb.insert(0, handle.getPackage());
-            sb.insert(0, "package ");
+    /**
+     * Waits for the given pending body, rethrowing any exception raised while
+     * decompiling it as the sequential path would have.
+     *
+     * @param body The pending body
+     * @return The decompiled body
+     */
+    private static String[] await(CompletableFuture<String[]> body) {
+        try {
+            return body.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException)ex.getCause();
+            } else if (ex.getCause() instanceof Error) {
+                throw (Error)ex.getCause();
+            }
+            throw ex;
         }
+    }
 
-        AttributeStructure source = Util.getAttrFromName(handle.getAttributes(), "SourceFile");
-        sb.insert(0, '\n').insert(0, " (class version "
-                + handle.getMajorVersion() + "." + handle.getMinorVersion() + ")");
-        boolean knownSource = false;
-        if (source != null) {
-            String fileName = handle.getFromPool(source.getContent()).toString();
-            if (!fileName.equals("SourceFile")) {
-                knownSource = true;
-                sb.insert(0, "// compiled from source file \"" + fileName + "\"");
-            }
+    /**
+     * Gathers the imports required by the signatures of this
+     * {@link DecompileAgent}'s class.
+     */
+    private void collectImports() {
+        for (FieldInfo f : handle.getFields()) {
+            addImport(f.getDescriptor());
         }
-        if (!knownSource) {
-            sb.insert(0, "// compiled from unknown source file");
+        for (MethodInfo m : handle.getMethods()) {
+            if (m.getName().equals("<clinit>")) {
+                continue; // static initializers have no signature to speak of
+            }
+            for (int i = 0; i < m.getParamCount(); i++) {
+                addImport(m.getParam(i));
+            }
+            addImport(m.getReturnType());
         }
+    }
 
-        sb.insert(0, "\n").insert(0, "// generated by Beret <https://github.com/caseif/Beret>");
-        return sb.toString();
+    private void addImport(TypeDescriptor type) {
+        if (type.getRequiredImport() != null) {
+            imports.add(type.getRequiredImport());
+        }
     }
 
     public String getClassSignature() {
         StringBuilder sb = new StringBuilder();
-        boolean isInterface = handle.getAccessModifiers().getFlags().contains(AccessFlag.ClassFlag.ACC_INTERFACE);
-        for (AccessFlag.ClassFlag flag : AccessFlag.ClassFlag.values()) {
+        boolean isInterface = handle.getAccessModifiers().has(AccessFlag.ClassFlag.ACC_INTERFACE);
+        for (AccessFlag.ClassFlag flag : CLASS_FLAGS) {
             if (isInterface && flag == AccessFlag.ClassFlag.ACC_ABSTRACT) { // it's redundant
                 continue;
             }
-            if (flag.isPresentInSource() && handle.getAccessModifiers().getFlags().contains(flag)) {
+            if (flag.isPresentInSource() && handle.getAccessModifiers().has(flag)) {
                 sb.append(flag.toString()).append(" ");
             }
         }
-        if (!handle.getAccessModifiers().getFlags().contains(AccessFlag.ClassFlag.ACC_ENUM)
-                && !handle.getAccessModifiers().getFlags().contains(AccessFlag.ClassFlag.ACC_INTERFACE)) {
+        if (!handle.getAccessModifiers().has(AccessFlag.ClassFlag.ACC_ENUM)
+                && !handle.getAccessModifiers().has(AccessFlag.ClassFlag.ACC_INTERFACE)) {
             sb.append("class ");
         }
         sb.append(handle.getBaseName()).append(" {");
@@ -153,12 +274,9 @@ public class DecompileAgent {
         String[] array = new String[handle.getFields().length];
         int i = 0;
         for (FieldInfo f : handle.getFields()) {
-            if (f.getDescriptor().getRequiredImport() != null) {
-                imports.add(f.getDescriptor().getRequiredImport());
-            }
             StringBuilder sb = new StringBuilder();
-            for (AccessFlag.FieldFlag flag : AccessFlag.FieldFlag.values()) {
-                if (flag.isPresentInSource() && f.getAccess().getFlags().contains(flag)) {
+            for (AccessFlag.FieldFlag flag : FIELD_FLAGS) {
+                if (flag.isPresentInSource() && f.getAccess().has(flag)) {
                     sb.append(flag.toString()).append(" ");
                 }
             }
@@ -179,20 +297,10 @@ public class DecompileAgent {
                 ++i;
                 continue;
             }
-            for (TypeDescriptor p : m.getParams()) {
-                if (p.getRequiredImport() != null) {
-                    imports.add(p.getRequiredImport());
-                }
-            }
-            if (m.getReturnType().getRequiredImport() != null) {
-                imports.add(m.getReturnType().getRequiredImport());
-            }
             StringBuilder sb = new StringBuilder();
-            boolean isInterface =
-                    m.getParent().getAccessModifiers().getFlags().contains(AccessFlag.ClassFlag.ACC_INTERFACE);
-            boolean isEnum =
-                    m.getParent().getAccessModifiers().getFlags().contains(AccessFlag.ClassFlag.ACC_ENUM);
-            for (AccessFlag.MethodFlag flag : AccessFlag.MethodFlag.values()) {
+            boolean isInterface = m.getParent().getAccessModifiers().has(AccessFlag.ClassFlag.ACC_INTERFACE);
+            boolean isEnum = m.getParent().getAccessModifiers().has(AccessFlag.ClassFlag.ACC_ENUM);
+            for (AccessFlag.MethodFlag flag : METHOD_FLAGS) {
                 if (isInterface
                         && (flag == AccessFlag.MethodFlag.ACC_ABSTRACT || flag == AccessFlag.MethodFlag.ACC_PUBLIC)) {
                     continue; // redundant
@@ -200,7 +308,7 @@ public class DecompileAgent {
                 if (isEnum && flag == AccessFlag.MethodFlag.ACC_PRIVATE) {
                     continue; // redundant
                 }
-                if (flag.isPresentInSource() && m.getAccess().getFlags().contains(flag)) {
+                if (flag.isPresentInSource() && m.getAccess().has(flag)) {
                     sb.append(flag.toString()).append(" ");
                 }
             }
@@ -211,19 +319,19 @@ public class DecompileAgent {
                 sb.append(m.getParent().getBaseName()).append("(");
             }
             HashMap<String, Integer> descCounts = new HashMap<>();
-            for (int d = 0; d < m.getParams().length; d++) {
-                TypeDescriptor p = m.getParams()[d];
+            for (int d = 0; d < m.getParamCount(); d++) {
+                TypeDescriptor p = m.getParam(d);
                 sb.append(p).append(" ");
                 String friendlyName = p.toString();
                 friendlyName = friendlyName.substring(0, 1).toLowerCase() + friendlyName.substring(1);
                 if (friendlyName.contains("[]")) {
-                    friendlyName = friendlyName.replaceAll("\\[\\]", "");
+                    friendlyName = friendlyName.replace("[]", "");
                     friendlyName += "Array";
                 }
                 descCounts.put(friendlyName,
                         descCounts.containsKey(friendlyName) ? descCounts.get(friendlyName) + 1 : 1);
                 sb.append(friendlyName).append("Param").append(descCounts.get(friendlyName));
-                if (d < m.getParams().length - 1) {
+                if (d < m.getParamCount() - 1) {
                     sb.append(", ");
                 }
             }
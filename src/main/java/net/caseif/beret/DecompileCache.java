@@ -0,0 +1,266 @@
+/*
+ * New BSD License (BSD-new)
+ *
+ * Copyright (c) 2015 Maxim Roncacé
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     - Neither the name of the copyright holder nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.caseif.beret;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * A persistent on-disk cache of the output produced for class files, keyed
+ * by the content of the class file, the build of Beret which produced the
+ * output, and the options it was produced with.
+ *
+ * <p>Entries are stored as individual files beneath the cache directory,
+ * and are written atomically so that several processes may safely share a
+ * cache. Once the total size of the cache exceeds its limit, the entries
+ * used least recently are evicted, as judged by their modification times,
+ * which are refreshed whenever an entry is read.</p>
+ *
+ * @author Max Roncacé
+ */
+public class DecompileCache {
+
+    /**
+     * The fraction of the size limit which eviction reduces the cache to, so
+     * that it need not run again on every subsequent store.
+     */
+    private static final double EVICTION_TARGET = 0.75;
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final Path directory;
+    private final long maxSize;
+    private final AtomicLong size = new AtomicLong();
+
+    /**
+     * Opens the cache within the given directory, creating the directory if
+     * it does not yet exist.
+     *
+     * @param directory The directory to store cache entries within
+     * @param maxSize   The size in bytes beyond which the cache evicts its least recently used entries
+     * @throws IOException If an exception occurs while opening the cache
+     */
+    public DecompileCache(Path directory, long maxSize) throws IOException {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("Cache size must not be negative");
+        }
+        this.directory = directory;
+        this.maxSize = maxSize;
+        Files.createDirectories(directory);
+        for (CacheEntry entry : listEntries()) {
+            size.addAndGet(entry.size);
+        }
+    }
+
+    /**
+     * Computes the key under which the output for the given class file is
+     * cached.
+     *
+     * @param classFile The raw content of the class file
+     * @param options   A string identifying the options the output is produced with (e.g. the command)
+     * @return The key for the given class file and options
+     * @throws IllegalStateException If the running build of Beret cannot be identified, in which case its output
+     *                               must not be cached
+     */
+    public static String getKey(ByteBuffer classFile, String options) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new AssertionError("SHA-256 is not supported", ex); // every JRE is required to support it
+        }
+        String build = Beret.getBuildId();
+        if (build == null) {
+            throw new IllegalStateException("The running build of Beret cannot be identified");
+        }
+        digest.update(build.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte)0);
+        digest.update(options.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte)0);
+        digest.update(classFile.duplicate());
+        return Util.bytesToHex(digest.digest());
+    }
+
+    /**
+     * Copies the output cached under the given key to the given stream, if
+     * present.
+     *
+     * @param key The key to look up
+     * @param out The stream to copy the cached output to
+     * @return Whether output was cached under the given key
+     * @throws IOException If an exception occurs while reading the cache or writing to the stream
+     */
+    public boolean copyTo(String key, OutputStream out) throws IOException {
+        Path file = resolve(key);
+        try {
+            // refresh the entry's position in the eviction order before it can be evicted from under us
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            Files.copy(file, out);
+            return true;
+        } catch (NoSuchFileException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Stores a copy of the given file in the cache under the given key,
+     * evicting old entries if the cache exceeds its size limit as a result.
+     *
+     * @param key    The key to store the output under
+     * @param output The file containing the output to store
+     * @throws IOException If an exception occurs while writing to the cache
+     */
+    public void store(String key, Path output) throws IOException {
+        Path file = resolve(key);
+        Files.createDirectories(file.getParent());
+        Path temp = Files.createTempFile(file.getParent(), key, TEMP_SUFFIX);
+        try {
+            Files.copy(output, temp, StandardCopyOption.REPLACE_EXISTING);
+            long length = Files.size(temp);
+            long previous = Files.exists(file) ? Files.size(file) : 0;
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            if (size.addAndGet(length - previous) > maxSize) {
+                evict();
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Returns the total size in bytes of the entries in this cache, as
+     * tracked by this instance.
+     *
+     * @return The total size in bytes of the entries in this cache
+     */
+    public long getSize() {
+        return size.get();
+    }
+
+    /**
+     * Deletes the least recently used entries in this cache until its size
+     * falls below the eviction target.
+     *
+     * @throws IOException If an exception occurs while evicting entries
+     */
+    private synchronized void evict() throws IOException {
+        if (size.get() <= maxSize) {
+            return; // another thread got here first
+        }
+        List<CacheEntry> entries = listEntries();
+        entries.sort(Comparator.comparing(entry -> entry.lastModified));
+        long total = 0;
+        for (CacheEntry entry : entries) {
+            total += entry.size;
+        }
+        long target = (long)(maxSize * EVICTION_TARGET);
+        for (CacheEntry entry : entries) {
+            if (total <= target) {
+                break;
+            }
+            if (Files.deleteIfExists(entry.path)) {
+                total -= entry.size;
+            }
+        }
+        // resynchronize with the directory, which other processes may also have written to
+        size.set(total);
+    }
+
+    private List<CacheEntry> listEntries() throws IOException {
+        List<CacheEntry> entries = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.forEach(file -> {
+                if (file.getFileName().toString().endsWith(TEMP_SUFFIX)) {
+                    return;
+                }
+                try {
+                    BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+                    if (attrs.isRegularFile()) {
+                        entries.add(new CacheEntry(file, attrs.size(), attrs.lastModifiedTime()));
+                    }
+                } catch (NoSuchFileException ex) {
+                    // deleted since it was listed
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        return entries;
+    }
+
+    /**
+     * Returns the path of the entry for the given key. Entries are spread
+     * across subdirectories named for the first two characters of their key
+     * so that no single directory grows too large.
+     *
+     * @param key The key of the entry
+     * @return The path of the entry
+     */
+    private Path resolve(String key) {
+        return directory.resolve(key.substring(0, 2)).resolve(key);
+    }
+
+    private static class CacheEntry {
+
+        private final Path path;
+        private final long size;
+        private final FileTime lastModified;
+
+        private CacheEntry(Path path, long size, FileTime lastModified) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+    }
+
+}
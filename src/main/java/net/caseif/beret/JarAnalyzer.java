@@ -0,0 +1,194 @@
+/*
+ * New BSD License (BSD-new)
+ *
+ * Copyright (c) 2015 Maxim Roncacé
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     - Neither the name of the copyright holder nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.caseif.beret;
+
+import net.caseif.beret.structures.constant.SymbolTable;
+import net.caseif.beret.wrapper.ClassInfo;
+import net.caseif.beret.wrapper.MemberFilter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Enumeration;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Parses every class contained by a JAR or zip archive in parallel.
+ *
+ * <p>Entries are read and decompressed on the calling thread, while the
+ * class files they contain are parsed across a {@link ForkJoinPool}.</p>
+ *
+ * @author Max Roncacé
+ */
+public class JarAnalyzer {
+
+    /**
+     * The number of entries which may be queued for parsing per worker
+     * thread before the reader waits for them to be processed.
+     */
+    private static final int QUEUE_FACTOR = 4;
+
+    private static final String CLASS_EXTENSION = ".class";
+
+    /**
+     * Parses every class contained by the given archive, passing each to the
+     * given consumer. Classes which fail to parse are reported to
+     * {@link System#err}.
+     *
+     * <p>The consumer is invoked from the worker threads as each class is
+     * parsed, and thus must be thread-safe. No guarantee is made as to the
+     * order in which classes are passed to it.</p>
+     *
+     * @param jar         The path of the archive to parse
+     * @param parallelism The number of worker threads to parse classes on
+     * @param consumer    The consumer to pass parsed classes to
+     * @throws IOException If an exception occurs while reading the archive
+     */
+    public static void parseAll(Path jar, int parallelism, Consumer<ClassInfo> consumer) throws IOException {
+        parseAll(jar, parallelism, consumer, (name, ex) -> {
+            System.err.println("Failed to parse " + name + ": " + ex);
+        });
+    }
+
+    /**
+     * Parses every class contained by the given archive, passing each to the
+     * given consumer.
+     *
+     * <p>The consumer and error handler are invoked from the worker threads
+     * as each class is parsed, and thus must be thread-safe. No guarantee is
+     * made as to the order in which classes are passed to them.</p>
+     *
+     * <p>The UTF-8 constants of every class in the archive are interned in a
+     * single {@link SymbolTable}, so strings shared between classes are held
+     * only once.</p>
+     *
+     * @param jar          The path of the archive to parse
+     * @param parallelism  The number of worker threads to parse classes on
+     * @param consumer     The consumer to pass parsed classes to
+     * @param errorHandler The handler to pass the entry name and throwable to if a class fails to be parsed or
+     *                     consumed
+     * @throws IOException If an exception occurs while reading the archive
+     */
+    public static void parseAll(Path jar, int parallelism, Consumer<ClassInfo> consumer,
+                                BiConsumer<String, Throwable> errorHandler) throws IOException {
+        // classes within an archive refer to one another heavily, so their strings are shared
+        SymbolTable symbols = new SymbolTable();
+        readAll(jar, parallelism, entry -> true,
+                (entry, bytes) -> consumer.accept(new ClassInfo(bytes, MemberFilter.ALL, symbols)), errorHandler);
+    }
+
+    /**
+     * Reads every class file contained by the given archive and accepted by
+     * the given filter without parsing it, passing its entry and raw content
+     * to the given consumer.
+     *
+     * <p>The filter is invoked on the calling thread before the entry is
+     * decompressed, so entries it rejects cost nothing beyond their listing
+     * in the archive's central directory. The consumer and error handler are
+     * invoked from the worker threads, and thus must be thread-safe. No
+     * guarantee is made as to the order in which entries are passed to
+     * them.</p>
+     *
+     * <p>Anything thrown by the consumer, including errors such as a
+     * {@link StackOverflowError} from a deeply nested class, is passed to the
+     * error handler. {@link VirtualMachineError}s are rethrown on the worker
+     * thread once they have been reported.</p>
+     *
+     * @param jar          The path of the archive to read
+     * @param parallelism  The number of worker threads to pass entries to the consumer on
+     * @param filter       The filter determining which class file entries are read
+     * @param consumer     The consumer to pass entries and class file content to
+     * @param errorHandler The handler to pass the entry name and throwable to if an entry fails to be consumed
+     * @throws IOException If an exception occurs while reading the archive
+     */
+    public static void readAll(Path jar, int parallelism, Predicate<ZipEntry> filter,
+                               BiConsumer<ZipEntry, ByteBuffer> consumer,
+                               BiConsumer<String, Throwable> errorHandler) throws IOException {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        int queueSize = parallelism * QUEUE_FACTOR;
+        // bounds the number of entries held in memory at once
+        Semaphore queue = new Semaphore(queueSize);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try (ZipFile zip = new ZipFile(jar.toFile())) {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                if (entry.isDirectory() || !entry.getName().endsWith(CLASS_EXTENSION) || !filter.test(entry)) {
+                    continue;
+                }
+                ByteBuffer bytes;
+                try (InputStream stream = zip.getInputStream(entry)) {
+                    bytes = Util.readFully(stream, (int)entry.getSize());
+                }
+                queue.acquire();
+                pool.execute(() -> {
+                    try {
+                        consumer.accept(entry, bytes);
+                    } catch (Throwable t) {
+                        errorHandler.accept(entry.getName(), t);
+                        if (t instanceof VirtualMachineError) {
+                            throw (VirtualMachineError)t; // the VM may be in no state to carry on
+                        }
+                    } finally {
+                        queue.release();
+                    }
+                });
+            }
+            // every permit is returned once the last queued entry has been processed
+            queue.acquire(queueSize);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while reading " + jar);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Returns whether the given file name denotes a JAR or zip archive.
+     *
+     * @param fileName The file name to check
+     * @return Whether the given file name denotes an archive
+     */
+    public static boolean isArchive(String fileName) {
+        String lower = fileName.toLowerCase();
+        return lower.endsWith(".jar") || lower.endsWith(".zip");
+    }
+
+}
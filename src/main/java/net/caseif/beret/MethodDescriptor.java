@@ -0,0 +1,150 @@
+/*
+ * New BSD License (BSD-new)
+ *
+ * Copyright (c) 2015 Maxim Roncacé
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     - Neither the name of the copyright holder nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.caseif.beret;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Represents a parsed method descriptor, consisting of the types of a
+ * method's parameters and its return type.
+ *
+ * @author Max Roncacé
+ */
+public class MethodDescriptor {
+
+    /**
+     * The number of distinct descriptors after which the cache is cleared,
+     * so that it cannot grow without bound.
+     */
+    private static final int MAX_CACHE_SIZE = 1 << 16;
+
+    private static final ConcurrentMap<String, MethodDescriptor> CACHE = new ConcurrentHashMap<>();
+
+    private final String handle;
+    private final TypeDescriptor[] params;
+    private final TypeDescriptor returnType;
+
+    /**
+     * Constructs a new method descriptor object from the given string.
+     *
+     * @param str The string to construct a descriptor from
+     * @throws IllegalArgumentException If the string is not a valid method descriptor
+     */
+    public MethodDescriptor(String str) throws IllegalArgumentException {
+        if (str.isEmpty() || str.charAt(0) != '(') {
+            throw new IllegalArgumentException("Invalid method descriptor: " + str);
+        }
+        handle = str;
+        ArrayList<TypeDescriptor> paramList = new ArrayList<>();
+        int i = 1;
+        while (i < str.length() && str.charAt(i) != ')') {
+            int end = TypeDescriptor.getEnd(str, i);
+            paramList.add(TypeDescriptor.of(str.substring(i, end)));
+            i = end;
+        }
+        if (i >= str.length()) {
+            throw new IllegalArgumentException("Invalid method descriptor: " + str);
+        }
+        params = paramList.toArray(new TypeDescriptor[paramList.size()]);
+        returnType = TypeDescriptor.of(str.substring(i + 1));
+    }
+
+    /**
+     * Returns the parsed form of the given method descriptor, reusing a
+     * previously parsed instance if one exists.
+     *
+     * @param str The descriptor to parse
+     * @return The parsed descriptor
+     * @throws IllegalArgumentException If the string is not a valid method descriptor
+     */
+    public static MethodDescriptor of(String str) throws IllegalArgumentException {
+        MethodDescriptor desc = CACHE.get(str);
+        if (desc == null) {
+            desc = new MethodDescriptor(str);
+            if (CACHE.size() >= MAX_CACHE_SIZE) {
+                CACHE.clear();
+            }
+            CACHE.putIfAbsent(str, desc);
+        }
+        return desc;
+    }
+
+    /**
+     * Returns the raw descriptor string this {@link MethodDescriptor} was
+     * parsed from.
+     *
+     * @return The raw descriptor string
+     */
+    public String getHandle() {
+        return this.handle;
+    }
+
+    /**
+     * Returns the types of the parameters described by this
+     * {@link MethodDescriptor}.
+     *
+     * @return The types of the parameters described by this {@link MethodDescriptor}
+     */
+    public TypeDescriptor[] getParams() {
+        return this.params.clone();
+    }
+
+    /**
+     * Returns the number of parameters described by this
+     * {@link MethodDescriptor}.
+     *
+     * @return The number of parameters described by this {@link MethodDescriptor}
+     */
+    public int getParamCount() {
+        return this.params.length;
+    }
+
+    /**
+     * Returns the type of the parameter at the given index.
+     *
+     * @param index The index of the parameter
+     * @return The type of the parameter at the given index
+     * @throws IndexOutOfBoundsException If the index is out of range
+     */
+    public TypeDescriptor getParam(int index) {
+        return this.params[index];
+    }
+
+    /**
+     * Returns the return type described by this {@link MethodDescriptor}.
+     *
+     * @return The return type described by this {@link MethodDescriptor}
+     */
+    public TypeDescriptor getReturnType() {
+        return this.returnType;
+    }
+
+}
@@ -28,9 +28,6 @@
  */
 package net.caseif.beret;
 
-import java.util.HashMap;
-import java.util.Map;
-
 /**
  * An enumeration of all Java bytecode opcodes.
  *
@@ -44,313 +41,313 @@ public enum Opcode {
      *
      * <p>Stack: <code>arrayref, index -&gt; value</code></p>
      */
-    AALOAD(0x32, 0),
+    AALOAD(0x32, 0, -1),
     /**
      * Stores a reference in an array.
      *
      * <p>Stack: <code>arrayref, index, value -&gt; ()</code></p>
      */
-    AASTORE(0x53, 0),
+    AASTORE(0x53, 0, -3),
     /**
      * Pushes a <code>null</code> references onto the stack.
      *
      * <p>Stack: <code>() -&gt; null</code></p>
      */
-    ACONST_NULL(0x01, 0),
+    ACONST_NULL(0x01, 0, 1),
     /**
      * Loads a reference onto the stack from local variable <code>index</code>.
      *
      * <p>Accepts: <code>byte index</code></p> <p>Stack: <code>() -&gt; objectref</code></p>
      */
-    ALOAD(0x19, 1),
+    ALOAD(0x19, 1, 1),
     /**
      * Loads a reference onto the stack from local variable <code>0</code>.
      *
      * <p>Stack: <code>() -&gt; objectref</code></p>
      */
-    ALOAD_0(0x2A, 0),
+    ALOAD_0(0x2A, 0, 1),
     /**
      * Loads a reference onto the stack from local variable <code>1</code>.
      *
      * <p>Stack: <code>() -&gt; objectref</code></p>
      */
-    ALOAD_1(0x2B, 0),
+    ALOAD_1(0x2B, 0, 1),
     /**
      * Loads a reference onto the stack from local variable <code>2</code>.
      *
      * <p>Stack: <code>() -&gt; objectref</code></p>
      */
-    ALOAD_2(0x2C, 0),
+    ALOAD_2(0x2C, 0, 1),
     /**
      * Loads a reference onto the stack from local variable <code>3</code>.
      *
      * <p>Stack: <code>() -&gt; objectref</code></p>
      */
-    ALOAD_3(0x2D, 0),
+    ALOAD_3(0x2D, 0, 1),
     /**
      * Creates a new array of length <code>count</code> and type <code>typeref</code>.
      *
      * <p>Accepts: <code>short typeref</code></p> <p>Stack: <code>count -&gt; arrayref</code></p>
      */
-    ANEWARRAY(0xBD, 2),
+    ANEWARRAY(0xBD, 2, 0),
     /**
      * Returns a reference from a method and clears the stack.
      *
      * <p>Stack: objectref -&gt; [empty]</p>
      */
-    ARETURN(0xB0, 0),
+    ARETURN(0xB0, 0, -1, BranchKind.RETURN),
     /**
      * Replaces <code>arrayref</code> on the top of the stack with its length.
      *
      * <p>Stack: <code>arrayref -&gt; length</code></p>
      */
-    ARRAYLENGTH(0xBE, 0),
+    ARRAYLENGTH(0xBE, 0, 0),
     /**
      * Stores a reference into local variable <code>index</code>.
      *
      * <p>Accepts: <code>byte index</code></p> <p>Stack: <code>objectref -&gt; ()</code></p>
      */
-    ASTORE(0x3A, 1),
+    ASTORE(0x3A, 1, -1),
     /**
      * Stores a references into local variable <code>0</code>.
      *
      * <p>Stack: <code>objectref -&gt; ()</code></p>
      */
-    ASTORE_0(0x4B, 0),
+    ASTORE_0(0x4B, 0, -1),
     /**
      * Stores a references into local variable <code>1</code>.
      *
      * <p>Stack: <code>objectref -&gt; ()</code></p>
      */
-    ASTORE_1(0x4C, 0),
+    ASTORE_1(0x4C, 0, -1),
     /**
      * Stores a references into local variable <code>2</code>.
      *
      * <p>Stack: <code>objectref -&gt; ()</code></p>
      */
-    ASTORE_2(0x4D, 0),
+    ASTORE_2(0x4D, 0, -1),
     /**
      * Stores a references into local variable <code>3</code>.
      *
      * <p>Stack: <code>objectref -&gt; ()</code></p>
      */
-    ASTORE_3(0x4E, 0),
+    ASTORE_3(0x4E, 0, -1),
     /**
      * Throws an error or exception and clears the stack save the reference to the Throwable at the top.
      *
      * <p>Stack: <code>objectref -&gt; [empty], objectref</code></p>
      */
-    ATHROW(0xBF, 0),
+    ATHROW(0xBF, 0, -1, BranchKind.THROW),
     /**
      * Loads a byte or boolean value from an array.
      *
      * <p>Stack: <code>arrayref, index -&gt; value</code></p>
      */
-    BALOAD(0x33, 0),
+    BALOAD(0x33, 0, -1),
     /**
      * Stores a byte or boolean value into an array.
      *
      * <p>Stack: <code>arrayref, index, value</code></p>
      */
-    BASTORE(0x54, 0),
+    BASTORE(0x54, 0, -3),
     /**
      * Pushes a byte onto the stack as an integer value.
      *
      * <p>Accepts: <code>byte value</code></p> <p>Stack: <code>() -&gt; value</code></p>
      */
-    BIPUSH(0x10, 1),
+    BIPUSH(0x10, 1, 1),
     /**
      * Reserved for breakpoints in Java debuggers; should not appear in a class file.
      */
-    BREAKPOINT(0xCA, 0),
+    BREAKPOINT(0xCA, 0, 0),
     /**
      * Loads a char from an array.
      *
      * <p>Stack: <code>arrayref, index -&gt; value</code></p>
      */
-    CALOAD(0x34, 0),
+    CALOAD(0x34, 0, -1),
     /**
      * Stores a char into an array.
      *
      * <p>Stack: <code>arrayref, index, value -&gt; ()</code></p>
      */
-    CASTORE(0x55, 0),
+    CASTORE(0x55, 0, -3),
     /**
      * Checks whether <code>objectref</code> matches of the type of the class at <code>index</code> of the constant
      * pool.
      *
      * <p>Accepts: <code>short index</code></p> <p>Stack: <code>objectref -&gt; objectref</code></p>
      */
-    CHECKCAST(0xC0, 2),
+    CHECKCAST(0xC0, 2, 0),
     /**
      * Converts a double to a float.
      *
      * <p>Stack: <code>value -&gt; result</code></p>
      */
-    D2F(0x90, 0),
+    D2F(0x90, 0, -1),
     /**
      * Converts a double to an integer.
      *
      * <p>Stack: <code>value -&gt; result</code></p>
      */
-    D2I(0x8E, 0),
+    D2I(0x8E, 0, -1),
     /**
      * Converts a double to an long.
      *
      * <p>Stack: <code>value -&gt; result</code></p>
      */
-    D2L(0x8F, 0),
+    D2L(0x8F, 0, 0),
     /**
      * Adds two doubles.
      *
      * <p>Stack: <code>value1, value2 -&gt; result</code></p>
      */
-    DADD(0x63, 0),
+    DADD(0x63, 0, -2),
     /**
      * Loads a double from an array.
      *
      * <p>Stack: <code>arrayref, index -&gt; value</code></p>
      */
-    DALOAD(0x31, 0),
+    DALOAD(0x31, 0, 0),
     /**
      * Stores a double into an array.
      *
      * <p>Stack: <code>arrayref, index, value -&gt; ()</code></p>
      */
-    DASTORE(0x52, 0),
+    DASTORE(0x52, 0, -4),
     /**
      * Checks whether double <code>value1</code> is greater than double <code>value2</code>.
      *
      * <p>Stack: <code>value1, value2 -&gt; result</code></p>
      */
-    DCMPG(0x98, 0),
+    DCMPG(0x98, 0, -3),
     /**
      * Checks whether double <code>value1</code> is less than double <code>value2</code>.
      *
      * <p>Stack: <code>value1, value2 -&gt; result</code></p>
      */
-    DCMPL(0x97, 0),
+    DCMPL(0x97, 0, -3),
     /**
      * Pushes the double constant <code>0.0</code> onto the stack.
      *
      * <p>Stack: <code>() -&gt; 0.0</code></p>
      */
-    DCONST_0(0x0E, 0),
+    DCONST_0(0x0E, 0, 2),
     /**
      * Pushes the double constant <code>1.0</code> onto the stack.
      *
      * <p>Stack: <code>() -&gt; 1.0</code></p>
      */
-    DCONST_1(0x0F, 0),
+    DCONST_1(0x0F, 0, 2),
     /**
      * Divides two doubles.
      *
      * <p>Stack: <code>value1, value2 -&gt; result</code></p>
      */
-    DDIV(0x6F, 0),
+    DDIV(0x6F, 0, -2),
     /**
      * Loads a double from local variable <code>index</code>.
      *
      * <p>Accepts: <code>byte index</code></p> <p>Stack: <code>() -&gt; value</code></p>
      */
-    DLOAD(0x18, 1),
+    DLOAD(0x18, 1, 2),
     /**
      * Loads a double from local variable <code>0</code>.
      *
      * <p>Stack: <code>() -&gt; value</code></p>
      */
-    DLOAD_0(0x26, 0),
+    DLOAD_0(0x26, 0, 2),
     /**
      * Loads a double from local variable <code>1</code>.
      *
      * <p>Stack: <code>() -&gt; value</code></p>
      */
-    DLOAD_1(0x27, 0),
+    DLOAD_1(0x27, 0, 2),
     /**
      * Loads a double from local variable <code>2</code>.
      *
      * <p>Stack: <code>() -&gt; value</code></p>
      */
-    DLOAD_2(0x28, 0),
+    DLOAD_2(0x28, 0, 2),
     /**
      * Loads a double from local variable <code>3</code>.
      *
      * <p>Stack: <code>() -&gt; value</code></p>
      */
-    DLOAD_3(0x29, 0),
+    DLOAD_3(0x29, 0, 2),
     /**
      * Multiplies two doubles.
      *
      * <p>Stack: <code>value1, value2 -&gt; result</code></p>
      */
-    DMUL(0x6B, 0),
+    DMUL(0x6B, 0, -2),
     /**
      * Negates a double.
      *
      * <p>Stack: <code>value -&gt; result</code></p>
      */
-    DNEG(0x77, 0),
+    DNEG(0x77, 0, 0),
     /**
      * Gets the remainder from division between two doubles (modulus).
      *
      * <p>Stack: <code>value1, value2 -&gt; result</code></p>
      */
-    DREM(0x73, 0),
+    DREM(0x73, 0, -2),
     /**
      * Returns a double from a method and clears the stack.
      *
      * <p>Stack: <code>value -&gt; [empty]</code></p>
      */
-    DRETURN(0xAF, 0),
+    DRETURN(0xAF, 0, -2, BranchKind.RETURN),
     /**
      * Stores double <code>value</code> into local variable <code>index</code>.
      *
-     * <p>Stack: <code>value -&gt; ()</code></p>
+     * <p>Accepts: <code>byte index</code></p> <p>Stack: <code>value -&gt; ()</code></p>
      */
-    DSTORE(0x39, 0),
+    DSTORE(0x39, 1, -2),
     /**
      * Stores double <code>value</code> into local variable <code>0</code>.
      *
      * <p>Stack: <code>value -&gt; ()</code></p>
      */
-    DSTORE_0(0x47, 0),
+    DSTORE_0(0x47, 0, -2),
     /**
      * Stores double <code>value</code> into local variable <code>1</code>.
      *
      * <p>Stack: <code>value -&gt; ()</code></p>
      */
-    DSTORE_1(0x48, 0),
+    DSTORE_1(0x48, 0, -2),
     /**
      * Stores double <code>value</code> into local variable <code>2</code>.
      *
      * <p>Stack: <code>value -&gt; ()</code></p>
      */
-    DSTORE_2(0x49, 0),
+    DSTORE_2(0x49, 0, -2),
     /**
      * Stores double <code>value</code> into local variable <code>3</code>.
      *
      * <p>Stack: <code>value -&gt; ()</code></p>
      */
-    DSTORE_3(0x4A, 0),
+    DSTORE_3(0x4A, 0, -2),
     /**
      * Subtracts a double from another.
      *
      * <p>Stack: <code>value1, value2 -&gt; result</code></p>
      */
-    DSUB(0x67, 0),
+    DSUB(0x67, 0, -2),
     /**
      * Duplicates the value on top of the stack.
      *
      * <p>Stack: <code>value -&gt; value, value</code></p>
      */
-    DUP(0x59, 0),
+    DUP(0x59, 0, 1),
     /**
      * Inserts a copy of the top value of the stack two values from the top.
      *
      * <p>Precondition: The top two values of the stack must not be of type double or long</p> <p>Stack: <code>value1,
      * value2 -&gt; value2, value1, value2</code></p>
      */
-    DUP_X1(0x5A, 0),
+    DUP_X1(0x5A, 0, 1),
     /**
      * Inserts a copy of the top value of the stack two (if <code>value2</code> is double or long, in which case it
      * occupies the entry of <code>value3</code>) or three (if <code>value2</code> is neither a double or long) values
@@ -358,815 +355,825 @@ public enum Opcode {
      *
      * <p>Stack: <code>value1, value2, value3 -&gt; value3, value1, value2, value3 </code></p>
      */
-    DUP_X2(0x5B, 0),
+    DUP_X2(0x5B, 0, 1),
     /**
      * Duplicates the top two stack words (a word being two entries or 8 bytes).
      *
      * <p>Stack: <code>value1, value2 -&gt; value1, value2, value1, value2</code> </p>
      */
-    DUP2(0x5C, 0),
+    DUP2(0x5C, 0, 2),
     /**
      * Duplicates the top two stack words and inserts them beneath the third word.
      *
      * <p>Stack: <code>value1, value2, value3 -&gt; value2, value3, value1, value2, value3</code></p>
      */
-    DUP2_X1(0x5D, 0),
+    DUP2_X1(0x5D, 0, 2),
     /**
      * Duplicates the top two stack words and inserts them beneath the fourth word.
      *
      * <p>Stack: <code>value1, value2, value3, value4 -&gt; value3, value4, value1, value2, value3, value4</code></p>
      */
-    DUP2_X2(0x5E, 0),
+    DUP2_X2(0x5E, 0, 2),
     /**
      * Converts a float to a double.
      *
      * <p>Stack: <code>value -&gt; result</code></p>
      */
-    F2D(0x8D, 0),
+    F2D(0x8D, 0, 1),
     /**
      * Converts a float to an int.
      *
      * <p>Stack: <code>value -&gt; result</code></p>
      */
-    F2I(0x8B, 0),
+    F2I(0x8B, 0, 0),
     /**
      * Converts a float to a long.
      *
      * <p>Stack: <code>value -&gt; result</code></p>
      */
-    F2L(0x8C, 0),
+    F2L(0x8C, 0, 1),
     /**
      * Adds two floats.
      *
      * <p>Stack: <code>value1, value2 -&gt; result</code></p>
      */
-    FADD(0x62, 0),
+    FADD(0x62, 0, -1),
     /**
      * Loads a float from an array.
      *
      * <p>Stack: <code>arrayref, index -&gt; value</code></p>
      */
-    FALOAD(0x30, 0),
+    FALOAD(0x30, 0, -1),
     /**
      * Stores a float in an array.
      *
      * <p>Stack: <code>arrayref, index, value -&gt; ()</code></p>
      */
-    FASTORE(0x51, 0),
+    FASTORE(0x51, 0, -3),
     /**
      * Checks whether float <code>value1</code> is greater than float <code>value2</code>.
      *
      * <p>Stack: <code>value1, value2 -&gt; result</code></p>
      */
-    FCMPG(0x96, 0),
+    FCMPG(0x96, 0, -1),
     /**
      * Checks whether float <code>value1</code> is less than float <code>value2</code>.
      *
      * <p>Stack: <code>value1, value2 -&gt; result</code></p>
      */
-    FCMPL(0x95, 0),
+    FCMPL(0x95, 0, -1),
     /**
      * Pushes the float constant <code>0.0</code> onto the stack.
      *
      * <p>Stack: <code>() -&gt; 0.0f</code></p>
      */
-    FCONST_0(0x0B, 0),
+    FCONST_0(0x0B, 0, 1),
     /**
      * Pushes the float constant <code>1.0</code> onto the stack.
      *
      * <p>Stack: <code>() -&gt; 1.0f</code></p>
      */
-    FCONST_1(0x0C, 0),
+    FCONST_1(0x0C, 0, 1),
     /**
      * Pushes the float constant <code>2.0</code> onto the stack.
      *
      * <p>Stack: <code>() -&gt; 2.0f</code></p>
      */
-    FCONST_2(0x0D, 0),
+    FCONST_2(0x0D, 0, 1),
     /**
      * Divides two floats.
      *
      * <p>Stack: <code>value1, value2 -&gt; result</code></p>
      */
-    FDIV(0x6E, 0),
+    FDIV(0x6E, 0, -1),
     /**
      * Loads a float onto the stack from local variable <code>index</code>.
      *
      * <p>Accepts: <code>byte index</code></p> <p>Stack: <code>() -&gt; value</code></p>
      */
-    FLOAD(0x17, 1),
+    FLOAD(0x17, 1, 1),
     /**
      * Loads a float onto the stack from local variable <code>0</code>.
      *
      * <p>Accepts: <code>byte index</code></p> <p>Stack: <code>() -&gt; value</code></p>
      */
-    FLOAD_0(0x22, 0),
+    FLOAD_0(0x22, 0, 1),
     /**
      * Loads a float onto the stack from local variable <code>1</code>.
      *
      * <p>Accepts: <code>byte index</code></p> <p>Stack: <code>() -&gt; value</code></p>
      */
-    FLOAD_1(0x23, 0),
+    FLOAD_1(0x23, 0, 1),
     /**
      * Loads a float onto the stack from local variable <code>2</code>.
      *
      * <p>Accepts: <code>byte index</code></p> <p>Stack: <code>() -&gt; value</code></p>
      */
-    FLOAD_2(0x24, 0),
+    FLOAD_2(0x24, 0, 1),
     /**
      * Loads a float onto the stack from local variable <code>3</code>.
      *
      * <p>Accepts: <code>byte index</code></p> <p>Stack: <code>() -&gt; value</code></p>
      */
-    FLOAD_3(0x25, 0),
+    FLOAD_3(0x25, 0, 1),
     /**
      * Multiplies two floats.
      *
      * <p>Stack: <code>value1, value2 -&gt; result</code></p>
      */
-    FMUL(0x6A, 0),
+    FMUL(0x6A, 0, -1),
     /**
      * Negates a float.
      *
      * <p>Stack: <code>value -&gt; result</code></p>
      */
-    FNEG(0x76, 0),
+    FNEG(0x76, 0, 0),
     /**
      * Gets the remainder from a division between two floats (modulus).
      *
      * <p>Stack: value1, value2 -&gt; result</p>
      */
-    FREM(0x72, 0),
+    FREM(0x72, 0, -1),
     /**
      * Returns a float from a method.
      *
      * <p>Stack: <code>value -&gt; [empty]</code></p>
      */
-    FRETURN(0xAE, 0),
+    FRETURN(0xAE, 0, -1, BranchKind.RETURN),
     /**
      * Stores a float in local variable <code>index</code>.
      *
      * <p>Accepts: <code>byte index</code></p> <p>Stack: <code>value -&gt; ()</code></p>
      */
-    FSTORE(0x38, 1),
+    FSTORE(0x38, 1, -1),
     /**
      * Stores a float in local variable <code>0</code>.
      *
      * <p>Stack: <code>value -&gt; ()</code></p>
      */
-    FSTORE_0(0x43, 0),
+    FSTORE_0(0x43, 0, -1),
     /**
      * Stores a float in local variable <code>1</code>.
      *
      * <p>Stack: <code>value -&gt; ()</code></p>
      */
-    FSTORE_1(0x44, 0),
+    FSTORE_1(0x44, 0, -1),
     /**
      * Stores a float in local variable <code>2</code>.
      *
      * <p>Stack: <code>value -&gt; ()</code></p>
      */
-    FSTORE_2(0x45, 0),
+    FSTORE_2(0x45, 0, -1),
+    /**
+     * Stores a float in local variable <code>3</code>.
+     *
+     * <p>Stack: <code>value -&gt; ()</code></p>
+     */
+    FSTORE_3(0x46, 0, -1),
     /**
      * Subtracts two floats.
      *
      * <p>Stack: <code>value1, value2 -&gt; result</code></p>
      */
-    FSUB(0x66, 0),
+    FSUB(0x66, 0, -1),
     /**
      * Gets field <code>fieldref</code> of object <code>objectref</code>.
      *
      * <p>Accepts: <code>short fieldref</code></p> <p>Stack: <code>objectref -&gt; value</code></p>
      */
-    GETFIELD(0xB4, 2),
+    GETFIELD(0xB4, 2, Opcode.VARIABLE_STACK_EFFECT),
     /**
      * Gets static field <code>fieldref</code> of object <code>objectref</code>.
      *
      * <p>Accepts: <code>short fieldref</code></p> <p>Stack: <code>() -&gt; value</code></p>
      */
-    GETSTATIC(0xB2, 2),
+    GETSTATIC(0xB2, 2, Opcode.VARIABLE_STACK_EFFECT),
     /**
      * Goes to instruction at <code>branchoffset</code>.
      *
      * <p>Accepts: <code>short branchoffset</code></p>
      */
-    GOTO(0xA7, 2),
+    GOTO(0xA7, 2, 0, BranchKind.UNCONDITIONAL),
     /**
      * Goes to instruction at <code>branchoffset</code>.
      *
      * <p>Accepts: <code>int branchoffset</code></p>
      */
-    GOTO_W(0xC8, 4),
+    GOTO_W(0xC8, 4, 0, BranchKind.UNCONDITIONAL),
     /**
      * Converts an int to a byte.
      *
      * <p>Stack: <code>value -&gt; result</code></p>
      */
-    I2B(0x91, 0),
+    I2B(0x91, 0, 0),
     /**
      * Converts an int to a byte.
      *
      * <p>Stack: <code>value -&gt; result</code></p>
      */
-    I2C(0x92, 0),
+    I2C(0x92, 0, 0),
     /**
      * Converts an int to a character.
      *
      * <p>Stack: <code>value -&gt; result</code></p>
      */
-    I2D(0x87, 0),
+    I2D(0x87, 0, 1),
     /**
      * Converts an int to a double.
      *
      * <p>Stack: <code>value -&gt; result</code></p>
      */
-    I2F(0x86, 0),
+    I2F(0x86, 0, 0),
     /**
      * Converts an int to a long.
      *
      * <p>Stack: <code>value -&gt; result</code></p>
      */
-    I2L(0x85, 0),
+    I2L(0x85, 0, 1),
     /**
      * Converts an int to a short.
      *
      * <p>Stack: <code>value -&gt; result</code></p>
      */
-    I2S(0x93, 0),
+    I2S(0x93, 0, 0),
     /**
      * Adds two ints.
      *
      * <p>Stack: <code>value1, value2 -&gt; result</code></p>
      */
-    IADD(0x60, 0),
+    IADD(0x60, 0, -1),
     /**
      * Loads an int from an array.
      *
      * <p>Stack: <code>arrayref, index -&gt; value</code></p>
      */
-    IALOAD(0x2E, 0),
+    IALOAD(0x2E, 0, -1),
     /**
      * Performs a bitwise AND on two ints.
      *
      * <p>Stack: <code>value1, value2 -&gt; result</code></p>
      */
-    IAND(0x7E, 0),
+    IAND(0x7E, 0, -1),
     /**
      * Stores an int into an array.
      *
      * <p>Stack: <code>arrayref, index, value -&gt; ()</code></p>
      */
-    IASTORE(0x4F, 0),
+    IASTORE(0x4F, 0, -3),
     /**
      * Loads the int constant <code>-1</code> onto the stack.
      *
      * <p>Stack: <code>() -&gt; -1</code></p>
      */
-    ICONST_M1(0x02, 0),
+    ICONST_M1(0x02, 0, 1),
     /**
      * Loads the int constant <code>0</code> onto the stack.
      *
      * <p>Stack: <code>() -&gt; 0</code></p>
      */
-    ICONST_0(0x03, 0),
+    ICONST_0(0x03, 0, 1),
     /**
      * Loads the int constant <code>1</code> onto the stack.
      *
      * <p>Stack: <code>() -&gt; 1</code></p>
      */
-    ICONST_1(0x04, 0),
+    ICONST_1(0x04, 0, 1),
     /**
      * Loads the int constant <code>2</code> onto the stack.
      *
      * <p>Stack: <code>() -&gt; 2</code></p>
      */
-    ICONST_2(0x05, 0),
+    ICONST_2(0x05, 0, 1),
     /**
      * Loads the int constant <code>3</code> onto the stack.
      *
      * <p>Stack: <code>() -&gt; 3</code></p>
      */
-    ICONST_3(0x06, 0),
+    ICONST_3(0x06, 0, 1),
     /**
      * Loads the int constant <code>4</code> onto the stack.
      *
      * <p>Stack: <code>() -&gt; 4</code></p>
      */
-    ICONST_4(0x07, 0),
+    ICONST_4(0x07, 0, 1),
     /**
      * Loads the int constant <code>5</code> onto the stack.
      *
      * <p>Stack: <code>() -&gt; 5</code></p>
      */
-    ICONST_5(0x08, 0),
+    ICONST_5(0x08, 0, 1),
     /**
      * Divides two ints.
      *
      * <p>Stack: <code>value1, value2 -&gt; result</code></p>
      */
-    IDIV(0x6C, 0),
+    IDIV(0x6C, 0, -1),
     /**
      * Branches to instruction at <code>branchoffset</code> if the two references are equal.
      *
      * <p>Accepts: <code>short branchoffset</code></p> <p>Stack: <code>value1, value2 -&gt; ()</code></p>
      */
-    IF_ACMPEQ(0xA5, 2),
+    IF_ACMPEQ(0xA5, 2, -2, BranchKind.CONDITIONAL),
     /**
      * Branches to instruction at <code>branchoffset</code> if the two references are not equal.
      *
      * <p>Accepts: <code>short branchoffset</code></p> <p>Stack: <code>value1, value2 -&gt; ()</code></p>
      */
-    IF_ACMPNE(0xA6, 2),
+    IF_ACMPNE(0xA6, 2, -2, BranchKind.CONDITIONAL),
     /**
      * Branches to instruction at <code>branchoffset</code> if the two ints are equal.
      *
      * <p>Accepts: <code>short branchoffset</code></p> <p>Stack: <code>value1, value2 -&gt; ()</code></p>
      */
-    IF_ICMPEQ(0x9F, 2),
+    IF_ICMPEQ(0x9F, 2, -2, BranchKind.CONDITIONAL),
     /**
      * Branches to instruction at <code>branchoffset</code> if <code>value1</code> is greater than or equal to
      * <code>value2</code>.
      *
      * <p>Accepts: <code>short branchoffset</code></p> <p>Stack: <code>value1, value2 -&gt; ()</code></p>
      */
-    IF_ICMPGE(0xA2, 2),
+    IF_ICMPGE(0xA2, 2, -2, BranchKind.CONDITIONAL),
     /**
      * Branches to instruction at <code>branchoffset</code> if <code>value1</code> is greater than <code>value2</code>.
      *
      * <p>Accepts: <code>short branchoffset</code></p> <p>Stack: <code>value1, value2 -&gt; ()</code></p>
      */
-    IF_ICMPGT(0xA3, 2),
+    IF_ICMPGT(0xA3, 2, -2, BranchKind.CONDITIONAL),
     /**
      * Branches to instruction at <code>branchoffset</code> if <code>value1</code> is less than or equal to
      * <code>value2</code>.
      *
      * <p>Accepts: <code>short branchoffset</code></p> <p>Stack: <code>value1, value2 -&gt; ()</code></p>
      */
-    IF_ICMPLE(0xA4, 2),
+    IF_ICMPLE(0xA4, 2, -2, BranchKind.CONDITIONAL),
     /**
      * Branches to instruction at <code>branchoffset</code> if <code>value1</code> is less than <code>value2</code>.
      *
      * <p>Accepts: <code>short branchoffset</code></p> <p>Stack: <code>value1, value2 -&gt; ()</code></p>
      */
-    IF_ICMPLT(0xA1, 2),
+    IF_ICMPLT(0xA1, 2, -2, BranchKind.CONDITIONAL),
     /**
      * Branches to instruction at <code>branchoffset</code> if the two ints are not equal.
      *
      * <p>Accepts: <code>short branchoffset</code></p> <p>Stack: <code>value1, value2 -&gt; ()</code></p>
      */
-    IF_ICMPNE(0xA0, 2),
+    IF_ICMPNE(0xA0, 2, -2, BranchKind.CONDITIONAL),
     /**
      * Branches to instruction at <code>branchoffset</code> if <code>value</code> is equal to 0.
      *
      * <p>Accepts: <code>short branchoffset</code></p> <p>Stack: <code>value -&gt; ()</code></p>
      */
-    IFEQ(0x99, 2),
+    IFEQ(0x99, 2, -1, BranchKind.CONDITIONAL),
     /**
      * Branches to instruction at <code>branchoffset</code> if <code>value</code> is greater than or equal to 0.
      *
      * <p>Accepts: <code>short branchoffset</code></p> <p>Stack: <code>value -&gt; ()</code></p>
      */
-    IFGE(0x9C, 2),
+    IFGE(0x9C, 2, -1, BranchKind.CONDITIONAL),
     /**
      * Branches to instruction at <code>branchoffset</code> if <code>value</code> is greater than 0.
      *
      * <p>Accepts: <code>short branchoffset</code></p> <p>Stack: <code>value -&gt; ()</code></p>
      */
-    IFGT(0x9D, 2),
+    IFGT(0x9D, 2, -1, BranchKind.CONDITIONAL),
     /**
      * Branches to instruction at <code>branchoffset</code> if <code>value</code> is less than or equal to 0.
      *
      * <p>Accepts: <code>short branchoffset</code></p> <p>Stack: <code>value -&gt; ()</code></p>
      */
-    IFLE(0x9E, 2),
+    IFLE(0x9E, 2, -1, BranchKind.CONDITIONAL),
     /**
      * Branches to instruction at <code>branchoffset</code> if <code>value</code> is less than 0.
      *
      * <p>Accepts: <code>short branchoffset</code></p> <p>Stack: <code>value -&gt; ()</code></p>
      */
-    IFLT(0x9B, 2),
+    IFLT(0x9B, 2, -1, BranchKind.CONDITIONAL),
     /**
      * Branches to instruction at <code>branchoffset</code> if <code>value</code> is not equal to 0.
      *
      * <p>Accepts: <code>short branchoffset</code></p> <p>Stack: <code>value -&gt; ()</code></p>
      */
-    IFNE(0x9A, 2),
+    IFNE(0x9A, 2, -1, BranchKind.CONDITIONAL),
     /**
      * Branches to instruction at <code>branchoffset</code> if <code>value</code> is not <code>null</code>.
      *
      * <p>Accepts: <code>short branchoffset</code></p> <p>Stack: <code>value -&gt; ()</code></p>
      */
-    IFNONNULL(0xC7, 2),
+    IFNONNULL(0xC7, 2, -1, BranchKind.CONDITIONAL),
     /**
      * Branches to instruction at <code>branchoffset</code> if <code>value</code> is <code>null</code>.
      *
      * <p>Accepts: <code>short branchoffset</code></p> <p>Stack: <code>value -&gt; ()</code></p>
      */
-    IFNULL(0xC6, 2),
+    IFNULL(0xC6, 2, -1, BranchKind.CONDITIONAL),
     /**
      * Increment local variable <code>index</code> by signed byte <code>const</code>.
      *
      * <p>Accepts: <code>byte index, byte const</code></p>
      */
-    IINC(0x84, 2),
+    IINC(0x84, 2, 0),
     /**
      * Loads int <code>value</code> from local variable <code>index</code>.
      *
      * <p>Accepts: <code>byte index</code></p> <p>Stack: <code>() -&gt; value</code></p>
      */
-    ILOAD(0x15, 1),
+    ILOAD(0x15, 1, 1),
     /**
      * Loads int <code>value</code> from local variable <code>0</code>.
      *
      * <p>Accepts: <code>byte index</code></p> <p>Stack: <code>() -&gt; value</code></p>
      */
-    ILOAD_0(0x1A, 0),
+    ILOAD_0(0x1A, 0, 1),
     /**
      * Loads int <code>value</code> from local variable <code>1</code>.
      *
      * <p>Accepts: <code>byte index</code></p> <p>Stack: <code>() -&gt; value</code></p>
      */
-    ILOAD_1(0x1B, 0),
+    ILOAD_1(0x1B, 0, 1),
     /**
      * Loads int <code>value</code> from local variable <code>2</code>.
      *
      * <p>Accepts: <code>byte index</code></p> <p>Stack: <code>() -&gt; value</code></p>
      */
-    ILOAD_2(0x1C, 0),
+    ILOAD_2(0x1C, 0, 1),
     /**
      * Loads int <code>value</code> from local variable <code>3</code>.
      *
      * <p>Accepts: <code>byte index</code></p> <p>Stack: <code>() -&gt; value</code></p>
      */
-    ILOAD_3(0x1D, 0),
+    ILOAD_3(0x1D, 0, 1),
     /**
      * Reserved for implementation-dependent operations within debuggers. This instruction should not appear in any
      * class file.
      */
-    IMPDEP1(0xFE, 0),
+    IMPDEP1(0xFE, 0, 0),
     /**
      * Reserved for implementation-dependent operations within debuggers. This instruction should not appear in any
      * class file.
      */
-    IMPDEP2(0xFF, 0),
+    IMPDEP2(0xFF, 0, 0),
     /**
      * Multiplies two ints.
      *
      * <p>Stack: <code>value1, value2 -&gt; result</code></p>
      */
-    IMUL(0x68, 0),
+    IMUL(0x68, 0, -1),
     /**
      * Negates an int.
      *
      * <p>Stack: <code>value -&gt; result</code></p>
      */
-    INEG(0x74, 0),
+    INEG(0x74, 0, 0),
     /**
      * Determines if <code>objectref</code> is of the type referenced by <code>index</code>.
      *
      * <p>Stack: <code>short index</code></p>
      */
-    INSTANCEOF(0xC1, 2),
+    INSTANCEOF(0xC1, 2, 0),
     /**
      * Invokes a dynamic method referenced by <code>index</code> and puts the result on the stack.
      *
      * <p>Accepts: <code>short index, 0, 0</code></p> <p>Stack: <code>args... -&gt; result</code></p>
      */
-    INVOKEDYNAMIC(0xBA, 4),
+    INVOKEDYNAMIC(0xBA, 4, Opcode.VARIABLE_STACK_EFFECT),
     /**
      * Invokes an interface method on object <code>objectref</code> and puts the result on the stack.
      *
      * <p>Accepts: <code>short index, count, 0</code></p> <p>Stack: <code>objectref, args... -&gt; result</code></p>
      */
-    INVOKEINTERFACE(0xB9, 4),
+    INVOKEINTERFACE(0xB9, 4, Opcode.VARIABLE_STACK_EFFECT),
     /**
      * Invokes an instance method on object <code>objectref</code> and puts the result on the stack.
      *
      * <p>Accepts: <code>short index, count, 0</code></p> <p>Stack: <code>objectref, args... -&gt; result</code></p>
      */
-    INVOKESPECIAL(0xB7, 2),
+    INVOKESPECIAL(0xB7, 2, Opcode.VARIABLE_STACK_EFFECT),
     /**
      * Invokes a static method on object <code>objectref</code> and puts the result on the stack.
      *
      * <p>Accepts: <code>short index, count, 0</code></p> <p>Stack: <code>objectref, args... -&gt; result</code></p>
      */
-    INVOKESTATIC(0xB8, 2),
+    INVOKESTATIC(0xB8, 2, Opcode.VARIABLE_STACK_EFFECT),
     /**
      * Invokes a virtual method on object <code>objectref</code> and puts the result on the stack.
      *
      * <p>Accepts: <code>short index, count, 0</code></p> <p>Stack: <code>objectref, args... -&gt; result</code></p>
      */
-    INVOKEVIRTUAL(0xB6, 2),
+    INVOKEVIRTUAL(0xB6, 2, Opcode.VARIABLE_STACK_EFFECT),
     /**
      * Performs a bitwise int OR operation on the two values.
      *
      * <p>Stack: <code>value1, value2 -&gt; result</code></p>
      */
-    IOR(0x80, 0),
+    IOR(0x80, 0, -1),
     /**
      * Performs a logical int remainder operation on the two values.
      *
      * <p>Stack: <code>value1, value2 -&gt; result</code></p>
      */
-    IREM(0x70, 0),
+    IREM(0x70, 0, -1),
     /**
      * Returns an int from a method.
      *
      * <p>Stack: <code>value -&gt; [empty]</code></p>
      */
-    IRETURN(0xAC, 0),
+    IRETURN(0xAC, 0, -1, BranchKind.RETURN),
     /**
      * Performs an int shift left operation on the two values.
      *
      * <p>Stack: <code>value1, value2 -&gt; result</code></p>
      */
-    ISHL(0x78, 0),
+    ISHL(0x78, 0, -1),
     /**
      * Performs an int arithmetic shift right operation on the two values.
      *
      * <p>Stack: <code>value1, value2 -&gt; result</code></p>
      */
-    ISHR(0x7A, 0),
+    ISHR(0x7A, 0, -1),
     /**
      * Stores int <code>value</code> into variable <code>index</code>.
      *
      * <p>Accepts: <code>byte index</code></p> <p>Stack: <code>value -&gt; ()</code></p>
      */
-    ISTORE(0x36, 1),
+    ISTORE(0x36, 1, -1),
     /**
      * Stores int <code>value</code> into variable <code>0</code>.
      *
      * <p>Accepts: <code>byte index</code></p> <p>Stack: <code>value -&gt; ()</code></p>
      */
-    ISTORE_0(0x3B, 0),
+    ISTORE_0(0x3B, 0, -1),
     /**
      * Stores int <code>value</code> into variable <code>1</code>.
      *
      * <p>Accepts: <code>byte index</code></p> <p>Stack: <code>value -&gt; ()</code></p>
      */
-    ISTORE_1(0x3C, 0),
+    ISTORE_1(0x3C, 0, -1),
     /**
      * Stores int <code>value</code> into variable <code>2</code>.
      *
      * <p>Accepts: <code>byte index</code></p> <p>Stack: <code>value -&gt; ()</code></p>
      */
-    ISTORE_2(0x3D, 0),
+    ISTORE_2(0x3D, 0, -1),
     /**
      * Stores int <code>value</code> into variable <code>3</code>.
      *
      * <p>Accepts: <code>byte index</code></p> <p>Stack: <code>value -&gt; ()</code></p>
      */
-    ISTORE_3(0x3E, 0),
+    ISTORE_3(0x3E, 0, -1),
     /**
      * Subtracts two ints.
      *
      * <p>Stack: <code>value2, value2 -&gt; result</code></p>
      */
-    ISUB(0x64, 0),
+    ISUB(0x64, 0, -1),
     /**
      * Performs an int logical shift right operation on the two values.
      *
      * <p>Stack: <code>value2, value2 -&gt; result</code></p>
      */
-    IUSHR(0x7C, 0),
+    IUSHR(0x7C, 0, -1),
     /**
      * Performs an int XOR operation on the two values.
      *
      * <p>Stack: <code>value2, value2 -&gt; result</code></p>
      */
-    IXOR(0x82, 0),
+    IXOR(0x82, 0, -1),
     /**
      * Jumps to the instruction at <code>branchoffset</code> and places the current address on the stack.
      *
      * <p>Accepts: <code>short branchoffset</code></p> <p>Stack: <code>() -&gt; address</code></p>
      */
-    JSR(0xA8, 2),
+    JSR(0xA8, 2, 1, BranchKind.SUBROUTINE),
     /**
      * Jumps to the instruction at <code>branchoffset</code> and places the current address on the stack.
      *
      * <p>Accepts: <code>int branchoffset</code></p> <p>Stack: <code>() -&gt; address</code></p>
      */
-    JSR_W(0xC9, 4),
+    JSR_W(0xC9, 4, 1, BranchKind.SUBROUTINE),
     /**
      * Converts a long to a double.
      *
      * <p>Stack: <code>value -&gt; result</code></p>
      */
-    L2D(0x8A, 0),
+    L2D(0x8A, 0, 0),
     /**
      * Converts a long to a float.
      *
      * <p>Stack: <code>value -&gt; result</code></p>
      */
-    L2F(0x89, 0),
+    L2F(0x89, 0, -1),
     /**
      * Converts a long to an int.
      *
      * <p>Stack: <code>value -&gt; result</code></p>
      */
-    L2I(0x88, 0),
+    L2I(0x88, 0, -1),
     /**
      * Adds two long values.
      *
      * <p>Stack: <code>value1, value2 -&gt; result</code></p>
      */
-    LADD(0x61, 0),
+    LADD(0x61, 0, -2),
     /**
      * Loads a long from an array.
      *
      * <p>Stack: <code>arrayref, index -&gt; value</code></p>
      */
-    LALOAD(0x2F, 0),
+    LALOAD(0x2F, 0, 0),
     /**
      * Performs a bitwise AND operation on two longs.
      *
      * <p>Stack: <code>value1, value2 -&gt; result</code></p>
      */
-    LAND(0x7F, 0),
+    LAND(0x7F, 0, -2),
     /**
      * Stores a long into an array.
      *
      * <p>Stack: <code>arrayref, index, value -&gt; ()</code></p>
      */
-    LASTORE(0x50, 0),
+    LASTORE(0x50, 0, -4),
     /**
      * Checks whether long <code>value1</code> is greater than long <code>value2</code>.
      *
      * <p>Stack: <code>value1, value2 -&gt; result</code></p>
      */
-    LCMP(0x94, 0),
+    LCMP(0x94, 0, -3),
     /**
      * Pushes the long constant <code>0L</code> onto the stack.
      *
      * <p>Stack: <code>() -&gt; 0L</code></p>
      */
-    LCONST_0(0x09, 0),
+    LCONST_0(0x09, 0, 2),
     /**
      * Pushes the long constant <code>1L</code> onto the stack.
      *
      * <p>Stack: <code>() -&gt; 1L</code></p>
      */
-    LCONST_1(0x0A, 0),
+    LCONST_1(0x0A, 0, 2),
     /**
      * Pushes a constant <code>index</code> (String, int, or float) from the constant pool onto the stack.
      *
      * <p>Accepts: byte index</p> <p>Stack: <code>() -&gt; value</code></p>
      */
-    LDC(0x12, 1),
+    LDC(0x12, 1, 1),
     /**
      * Pushes a constant <code>index</code> (String, int, or float) from the constant pool onto the stack.
      *
      * <p>Accepts: <code>short index</code></p> <p>Stack: <code>() -&gt; value</code></p>
      */
-    LDC_W(0x13, 2),
+    LDC_W(0x13, 2, 1),
     /**
      * Pushes a constant <code>index</code> (double or long) from the constant pool onto the stack.
      *
      * <p>Accepts: <code>index</code></p> <p>Stack: <code>() -&gt; value</code></p>
      */
-    LDC2_W(0x14, 2),
+    LDC2_W(0x14, 2, 2),
     /**
      * Divides two longs.
      *
      * <p>Stack: <code>value1, value2 -&gt; result</code></p>
      */
-    LDIV(0x6D, 0),
+    LDIV(0x6D, 0, -2),
     /**
      * Loads a long value onto the stack from local variable <code>index</code>.
      *
      * <p>Accepts: <code>byte index</code></p> <p>Stack: <code>() -&gt; value</code></p>
      */
-    LLOAD(0x16, 1),
+    LLOAD(0x16, 1, 2),
     /**
      * Loads a long value onto the stack from local variable <code>0</code>.
      *
      * <p>Stack: <code>() -&gt; value</code></p>
      */
-    LLOAD_0(0x1E, 0),
+    LLOAD_0(0x1E, 0, 2),
     /**
      * Loads a long value onto the stack from local variable <code>1</code>.
      *
      * <p>Stack: <code>() -&gt; value</code></p>
      */
-    LLOAD_1(0x1F, 0),
+    LLOAD_1(0x1F, 0, 2),
     /**
      * Loads a long value onto the stack from local variable <code>2</code>.
      *
      * <p>Stack: <code>() -&gt; value</code></p>
      */
-    LLOAD_2(0x20, 0),
+    LLOAD_2(0x20, 0, 2),
     /**
      * Loads a long value onto the stack from local variable <code>3</code>.
      *
      * <p>Stack: <code>() -&gt; value</code></p>
      */
-    LLOAD_3(0x21, 0),
+    LLOAD_3(0x21, 0, 2),
     /**
      * Multiplies two longs.
      *
      * <p>Stack: <code>value1, value2 -&gt; result</code></p>
      */
-    LMUL(0x69, 0),
+    LMUL(0x69, 0, -2),
     /**
      * Negates a long.
      *
      * <p>Stack: <code>value -&gt; result</code></p>
      */
-    LNEG(0x75, 0),
+    LNEG(0x75, 0, 0),
     /**
-     * TODO: I have no idea how this works at the moment.
+     * Continues execution from the address paired with <code>key</code> in a
+     * table of key-offset pairs, or from the default address if no key matches.
+     *
+     * <p>Accepts: <code>0-3 bytes padding, int default, int npairs, npairs * (int match, int offset)</code></p>
+     * <p>Stack: <code>key -&gt; ()</code></p>
      */
-    LOOKUPSWITCH(0xAB, -1),
+    LOOKUPSWITCH(0xAB, -1, -1, BranchKind.SWITCH),
     /**
      * Performs a bitwise OR operation on two longs.
      *
      * <p>Stack: <code>value1, value2 -&gt; result</code></p>
      */
-    LOR(0x81, 0),
+    LOR(0x81, 0, -2),
     /**
      * Gets the remainder of division of two longs (modulus).
      *
      * <p>Stack: <code>value1, value2 -&gt; result</code></p>
      */
-    LREM(0x71, 0),
+    LREM(0x71, 0, -2),
     /**
      * Returns a long value from a method and clears the stack.
      *
      * <p>Stack: <code>value -&gt; [empty]</code></p>
      */
-    LRETURN(0xAD, 0),
+    LRETURN(0xAD, 0, -2, BranchKind.RETURN),
     /**
      * Performs a bitwise left shift operation of long <code>value1</code> by <code>value2</code> positions.
      *
      * <p>Stack: <code>value1, value2 -&gt; result</code></p>
      */
-    LSHL(0x79, 0),
+    LSHL(0x79, 0, -1),
     /**
      * Performs a bitwise right shift operation of long <code>value2</code> by <code>value2</code> positions.
      *
      * <p>Stack: <code>value1, value2 -&gt; result</code></p>
      */
-    LSHR(0x7B, 0),
+    LSHR(0x7B, 0, -1),
     /**
      * Stores long <code>value</code> in local variable <code>index</code>.
      *
      * <p>Accepts: <code>byte index</code></p> <p>Stack: <code>value -&gt; ()</code></p>
      */
-    LSTORE(0x37, 1),
+    LSTORE(0x37, 1, -2),
     /**
      * Stores long <code>value</code> in local variable <code>0</code>.
      *
      * <p>Stack: <code>value -&gt; ()</code></p>
      */
-    LSTORE_0(0x3F, 0),
+    LSTORE_0(0x3F, 0, -2),
     /**
      * Stores long <code>value</code> in local variable <code>1</code>.
      *
      * <p>Stack: <code>value -&gt; ()</code></p>
      */
-    LSTORE_1(0x40, 0),
+    LSTORE_1(0x40, 0, -2),
     /**
      * Stores long <code>value</code> in local variable <code>2</code>.
      *
      * <p>Stack: <code>value -&gt; ()</code></p>
      */
-    LSTORE_2(0x41, 0),
+    LSTORE_2(0x41, 0, -2),
     /**
      * Stores long <code>value</code> in local variable <code>3</code>.
      *
      * <p>Stack: <code>value -&gt; ()</code></p>
      */
-    LSTORE_3(0x42, 0),
+    LSTORE_3(0x42, 0, -2),
     /**
      * Subtracts a long value from another.
      *
      * <p>Stack: <code>value1, value2 -&gt; result</code></p>
      */
-    LSUB(0x65, 0),
+    LSUB(0x65, 0, -2),
     /**
      * Performs a bitwise right shift operation of long <code>value2</code> by <code>value2</code> positions, unsigned.
      *
      * <p>Stack: <code>value1, value2 -&gt; result</code></p>
      */
-    LUSHR(0x7D, 0),
+    LUSHR(0x7D, 0, -1),
     /**
      * Performs a bitwise XOR operation on two long values.
      *
      * <p>Stack: <code>value1, value2 -&gt; result</code></p>
      */
-    LXOR(0x83, 0),
+    LXOR(0x83, 0, -2),
     /**
      * Enters monitor state for an object (equivalent to start of <code>synchronized</code> block).
      *
      * <p>Stack: <code>objectref -&gt; ()</code></p>
      */
-    MONITORENTER(0xC2, 0),
+    MONITORENTER(0xC2, 0, -1),
     /**
      * Exits monitor state for an object (equivalent to end of <code>synchronized</code> block).
      *
      * <p>Stack: <code>objectref -&gt; ()</code></p>
      */
-    MONITOREXIT(0xC3, 0),
+    MONITOREXIT(0xC3, 0, -1),
     /**
      * Creates a new array of <code>dimensions</code> with elements of type <code>classref</code>. The size of each
      * repsective dimension is defined by <code>count1, count2,</code> etc.
@@ -1174,100 +1181,131 @@ public enum Opcode {
      * <p>Accepts: <code>short classref, byte dimensions</code></p> <p>Stack: <code>count1[, count2,...] -&gt;
      * arrayref</code></p>
      */
-    MULTIANEWARRAY(0xC5, 3),
+    MULTIANEWARRAY(0xC5, 3, Opcode.VARIABLE_STACK_EFFECT),
     /**
      * Creates a new object of type <code>classref</code>.
      *
      * <p>Accepts: <code>short classref</code></p> <p>Stack: <code>() -&gt; objectref</code></p>
      */
-    NEW(0xBB, 2),
+    NEW(0xBB, 2, 1),
     /**
      * Creates a new array with <code>count</code> elements of primitive type <code>atype</code>.
      *
      * <p>Accepts: <code>byte atype</code></p> <p>Stack: <code>count -&gt; arrayref</code></p>
      */
-    NEWARRAY(0xBC, 1),
+    NEWARRAY(0xBC, 1, 0),
     /**
      * Performs no operation.
      */
-    NOP(0x00, 0),
+    NOP(0x00, 0, 0),
     /**
      * Discards the top value of the stack.
      *
      * <p>Stack: <code>value -&gt; ()</code></p>
      */
-    POP(0x57, 0),
+    POP(0x57, 0, -1),
     /**
      * Discards the top two values of the stack (or one, if it is of type <code>double</code> or <code>long</code>.
      *
      * <p>Stack: <code>value1, value2 -&gt; ()</code></p>
      */
-    POP2(0x58, 0),
+    POP2(0x58, 0, -2),
     /**
      * Sets <code>fieldref</code> to <code>value</code> in <code>objectref</code> to <code>value</code>.
      *
      * <p>Accepts: <code>short fieldref</code></p> <p>Stack: <code>objectref, value -&gt; ()</code></p>
      */
-    PUTFIELD(0xB5, 2),
+    PUTFIELD(0xB5, 2, Opcode.VARIABLE_STACK_EFFECT),
     /**
      * Sets static field <code>fieldref</code> to <code>value</code> in a class.
      *
      * <p>Accepts: <code>short fieldref</code></p> <p>Stack: <code>value -&gt; ()</code></p>
      */
-    PUTSTATIC(0xB3, 2),
+    PUTSTATIC(0xB3, 2, Opcode.VARIABLE_STACK_EFFECT),
     /**
      * Continues execution from <code>address</code>.
      *
      * <p>Accepts: <code>byte index</code></p>
      */
-    RET(0xA9, 1),
+    RET(0xA9, 1, 0, BranchKind.SUBROUTINE_RETURN),
     /**
      * Returns <code>void</code> from a method.
      */
-    RETURN(0xB1, 0),
+    RETURN(0xB1, 0, 0, BranchKind.RETURN),
     /**
      * Loads a short from an array.
      *
      * <p>Stack: <code>arrayref, index -&gt; value</code></p>
      */
-    SALOAD(0x35, 0),
+    SALOAD(0x35, 0, -1),
     /**
      * Stores a short in an array.
      *
      * <p>Stack: <code>arrayref, index, value -&gt; ()</code></p>
      */
-    SASTORE(0x56, 0),
+    SASTORE(0x56, 0, -3),
     /**
      * Pushes short <code>value</code> onto the stack.
      *
      * <p>Accepts: <code>short value</code></p> <p>Stack: <code>() -&gt; value</code></p>
      */
-    SIPUSH(0x11, 2),
+    SIPUSH(0x11, 2, 1),
     /**
      * Swaps the two top words of the stack, provided they are not <code>double</code> or <code>long</code>.
      *
      * <p>Stack: <code>value1, value2 -&gt; value2, value1</code></p>
      */
-    SWAP(0x5F, 0),
+    SWAP(0x5F, 0, 0),
     /**
-     * Continues execution from an address in the table at offset <code>index</code>. TODO: Research this
+     * Continues execution from an address in the table at offset <code>index</code>, or from the default address
+     * if <code>index</code> falls outside the table.
      *
-     * <p>Accepts: TODO</p> <p>Stack: <code>index -&gt; ()</code></p>
+     * <p>Accepts: <code>0-3 bytes padding, int default, int low, int high, (high - low + 1) * int offset</code></p>
+     * <p>Stack: <code>index -&gt; ()</code></p>
      */
-    TABLESWITCH(0xAA, -1),
+    TABLESWITCH(0xAA, -1, -1, BranchKind.SWITCH),
     /**
-     * TODO: research.
+     * Executes the following load, store, <code>ret</code> or <code>iinc</code> instruction with a two-byte local
+     * variable index (and, for <code>iinc</code>, a two-byte constant).
+     *
+     * <p>Accepts: <code>byte opcode, short index[, short const]</code></p>
      */
-    WIDE(0xC4, -1),
+    WIDE(0xC4, -1, Opcode.VARIABLE_STACK_EFFECT),
     /**
      * Unknown opcode.
      */
-    UNKNOWN(256, 0);
+    UNKNOWN(256, 0, Opcode.VARIABLE_STACK_EFFECT);
+
+    /**
+     * The stack effect reported for instructions whose effect on the stack
+     * depends on their operands (e.g. method invocations).
+     */
+    public static final int VARIABLE_STACK_EFFECT = Byte.MIN_VALUE;
 
-    private static Map<Byte, Opcode> codes;
+    private static final Opcode[] CODES = new Opcode[256];
+    private static final byte[] OPERAND_LENGTHS = new byte[256];
+    private static final byte[] STACK_EFFECTS = new byte[256];
+    private static final byte[] BRANCH_KINDS = new byte[256];
+    private static final BranchKind[] BRANCH_KIND_VALUES = BranchKind.values();
+
+    static {
+        for (Opcode opcode : values()) {
+            if (opcode == UNKNOWN) {
+                continue; // UNKNOWN has no byte of its own and must not shadow NOP
+            }
+            int code = opcode.byteCode & 0xFF;
+            CODES[code] = opcode;
+            OPERAND_LENGTHS[code] = (byte)opcode.extra;
+            STACK_EFFECTS[code] = (byte)opcode.stackEffect;
+            BRANCH_KINDS[code] = (byte)opcode.branchKind.ordinal();
+        }
+    }
 
     private byte byteCode;
     private int extra;
+    private int stackEffect;
+    private BranchKind branchKind;
+    private String lowerCaseName;
 
     /**
      * Constructs a new {@link Opcode} with the given byte.
@@ -1276,44 +1314,50 @@ public enum Opcode {
      * @param additionalBytes The number of additional bytes following this instruction (pass <code>-1</code> to
      *                        indicate a variable number, implying this instruction must be handled with a special
      *                        case)
+     * @param stackEffect     The net number of stack slots pushed by this instruction (pass
+     *                        {@link #VARIABLE_STACK_EFFECT} if this depends on the instruction's operands)
+     * @param branchKind      The manner in which this instruction transfers control
      */
-    Opcode(byte byteCode, int additionalBytes) {
-        this.byteCode = byteCode;
+    Opcode(int byteCode, int additionalBytes, int stackEffect, BranchKind branchKind) {
+        this.byteCode = (byte)byteCode;
         this.extra = additionalBytes;
-        register(byteCode);
+        this.stackEffect = stackEffect;
+        this.branchKind = branchKind;
+        this.lowerCaseName = name().toLowerCase();
     }
 
     /**
-     * Constructs a new {@link Opcode} with the given byte.
+     * Constructs a new {@link Opcode} with the given byte which does not
+     * transfer control.
      *
      * @param byteCode        The byte associated with this {@link Opcode}
      * @param additionalBytes The number of additional bytes following this instruction (pass <code>-1</code> to
      *                        indicate a variable number, implying this instruction must be handled with a special
      *                        case)
+     * @param stackEffect     The net number of stack slots pushed by this instruction (pass
+     *                        {@link #VARIABLE_STACK_EFFECT} if this depends on the instruction's operands)
      */
-    Opcode(int byteCode, int additionalBytes) {
-        this((byte)byteCode, additionalBytes);
+    Opcode(int byteCode, int additionalBytes, int stackEffect) {
+        this(byteCode, additionalBytes, stackEffect, BranchKind.NONE);
     }
 
     /**
-     * Registers this {@link Opcode} with the given byte tag.
+     * Returns the byte associated with this {@link Opcode}.
      *
-     * @param code The byte tag to associate with this {@link Opcode}.
+     * @return The <code>byte</code> representing this {@link Opcode}.
      */
-    private void register(byte code) {
-        if (codes == null) {
-            codes = new HashMap<>();
-        }
-        codes.put(code, this);
+    public byte getByteCode() {
+        return this.byteCode;
     }
 
     /**
-     * Returns the byte associated with this {@link Opcode}.
+     * Returns the lowercase mnemonic of this {@link Opcode}, as it appears in
+     * disassembly.
      *
-     * @return The <code>byte</code> representing this {@link Opcode}.
+     * @return The lowercase mnemonic of this {@link Opcode}
      */
-    public byte getByteCode() {
-        return this.byteCode;
+    public String getLowerCaseName() {
+        return this.lowerCaseName;
     }
 
     /**
@@ -1325,8 +1369,118 @@ public enum Opcode {
         return this.extra;
     }
 
+    /**
+     * Returns the net number of stack slots pushed by this {@link Opcode},
+     * with <code>long</code>s and <code>double</code>s occupying two slots.
+     *
+     * @return The net stack effect of this {@link Opcode}, or {@link #VARIABLE_STACK_EFFECT}
+     */
+    public int getStackEffect() {
+        return this.stackEffect;
+    }
+
+    /**
+     * Returns the manner in which this {@link Opcode} transfers control.
+     *
+     * @return The {@link BranchKind} of this {@link Opcode}
+     */
+    public BranchKind getBranchKind() {
+        return this.branchKind;
+    }
+
+    /**
+     * Returns the {@link Opcode} associated with the given byte, or
+     * <code>null</code> if the byte does not denote a known opcode.
+     *
+     * @param byteCode The byte to look up
+     * @return The {@link Opcode} associated with the given byte
+     */
     public static Opcode fromByte(byte byteCode) {
-        return codes.get(byteCode);
+        return CODES[byteCode & 0xFF];
+    }
+
+    /**
+     * Returns whether the given unsigned opcode byte denotes a known opcode.
+     *
+     * @param code The unsigned opcode byte
+     * @return Whether the byte denotes a known opcode
+     */
+    public static boolean isDefined(int code) {
+        return CODES[code] != null;
+    }
+
+    /**
+     * Returns the number of additional bytes following the given unsigned
+     * opcode byte, or <code>-1</code> if the number is variable. Unknown
+     * opcodes are reported as having no additional bytes.
+     *
+     * @param code The unsigned opcode byte
+     * @return The number of additional bytes following the opcode
+     */
+    public static int getAdditionalBytes(int code) {
+        return OPERAND_LENGTHS[code];
+    }
+
+    /**
+     * Returns the net stack effect of the given unsigned opcode byte.
+     *
+     * @param code The unsigned opcode byte
+     * @return The net stack effect of the opcode, or {@link #VARIABLE_STACK_EFFECT}
+     * @see #getStackEffect()
+     */
+    public static int getStackEffect(int code) {
+        return CODES[code] != null ? STACK_EFFECTS[code] : VARIABLE_STACK_EFFECT;
+    }
+
+    /**
+     * Returns the manner in which the given unsigned opcode byte transfers
+     * control.
+     *
+     * @param code The unsigned opcode byte
+     * @return The {@link BranchKind} of the opcode
+     */
+    public static BranchKind getBranchKind(int code) {
+        return BRANCH_KIND_VALUES[BRANCH_KINDS[code]];
+    }
+
+    /**
+     * The manners in which an instruction may transfer control.
+     */
+    public enum BranchKind {
+
+        /**
+         * Control always falls through to the next instruction.
+         */
+        NONE,
+        /**
+         * Control either jumps to a target or falls through.
+         */
+        CONDITIONAL,
+        /**
+         * Control always jumps to a target.
+         */
+        UNCONDITIONAL,
+        /**
+         * Control jumps to one of the targets in a jump table.
+         */
+        SWITCH,
+        /**
+         * Control jumps to a subroutine, pushing a return address.
+         */
+        SUBROUTINE,
+        /**
+         * Control returns from a subroutine to an address in a local variable.
+         */
+        SUBROUTINE_RETURN,
+        /**
+         * Control returns from the method.
+         */
+        RETURN,
+        /**
+         * Control is transferred to an exception handler or out of the method.
+         */
+        THROW
+
     }
 
 }
@@ -28,58 +28,151 @@
  */
 package net.caseif.beret;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+/**
+ * Represents a parsed field descriptor, such as the type of a field or of a
+ * method parameter.
+ *
+ * @author Max Roncacé
+ */
 public class TypeDescriptor {
 
-    private static Map<String, String> primTypes = new HashMap<String, String>();
+    /**
+     * The number of distinct descriptors after which the cache is cleared,
+     * so that it cannot grow without bound.
+     */
+    private static final int MAX_CACHE_SIZE = 1 << 16;
 
-    private String handle;
+    private static final ConcurrentMap<String, TypeDescriptor> CACHE = new ConcurrentHashMap<>();
 
-    private boolean isClass;
-    private int arrayDimensions;
-    private String canonicalName;
-    private String reqImport = null;
+    private static final String LANG_PACKAGE = "java/lang/";
 
-    static {
-        primTypes.put("B", "byte");
-        primTypes.put("C", "char");
-        primTypes.put("D", "double");
-        primTypes.put("F", "float");
-        primTypes.put("I", "int");
-        primTypes.put("J", "long");
-        primTypes.put("S", "short");
-        primTypes.put("V", "void");
-        primTypes.put("Z", "boolean");
+    private final String handle;
 
-    }
+    private final int arrayDimensions;
+    private final String canonicalName;
+    private final String reqImport;
 
     /**
      * Constructs a new descriptor object from the given string.
      *
      * @param str The string to construct a descriptor from
+     * @throws IllegalArgumentException If the string is not a valid field descriptor
      */
-    public TypeDescriptor(String str) {
+    public TypeDescriptor(String str) throws IllegalArgumentException {
         handle = str;
-        arrayDimensions = str.length() - str.replaceAll("\\[", "").length();
-        str = str.replaceAll("\\[", "");
-        if (primTypes.containsKey(str)) {
-            canonicalName = primTypes.get(str);
-        } else if (str.startsWith("L") && str.endsWith(";")) {
-            String className = str.substring(1, str.length() - 1);
-            if (className.length() - className.replace("/", "").length() == 2
-                    && className.startsWith("java/lang/")) {
-                canonicalName = className.substring("java/lang/".length());
+        int dims = 0;
+        while (dims < str.length() && str.charAt(dims) == '[') {
+            ++dims;
+        }
+        arrayDimensions = dims;
+        String primitive = dims + 1 == str.length() ? getPrimitiveName(str.charAt(dims)) : null;
+        if (primitive != null) {
+            canonicalName = primitive;
+            reqImport = null;
+        } else if (str.length() > dims + 2 && str.charAt(dims) == 'L' && str.indexOf(';') == str.length() - 1) {
+            String className = str.substring(dims + 1, str.length() - 1);
+            if (className.startsWith(LANG_PACKAGE) && className.indexOf('/', LANG_PACKAGE.length()) == -1) {
+                canonicalName = className.substring(LANG_PACKAGE.length());
+                reqImport = null;
             } else {
-                canonicalName = className.substring(className.lastIndexOf("/") + 1);
-                reqImport = className.replaceAll("/", ".");
+                canonicalName = className.substring(className.lastIndexOf('/') + 1);
+                reqImport = className.replace('/', '.');
             }
         } else {
-            throw new IllegalArgumentException("Invalid descriptor: " + str);
+            throw new IllegalArgumentException("Invalid descriptor: " + str.substring(dims));
+        }
+    }
+
+    /**
+     * Returns the parsed form of the given descriptor, reusing a previously
+     * parsed instance if one exists.
+     *
+     * @param str The descriptor to parse
+     * @return The parsed descriptor
+     * @throws IllegalArgumentException If the string is not a valid field descriptor
+     */
+    public static TypeDescriptor of(String str) throws IllegalArgumentException {
+        TypeDescriptor desc = CACHE.get(str);
+        if (desc == null) {
+            desc = new TypeDescriptor(str);
+            if (CACHE.size() >= MAX_CACHE_SIZE) {
+                CACHE.clear();
+            }
+            CACHE.putIfAbsent(str, desc);
+        }
+        return desc;
+    }
+
+    /**
+     * Returns the index immediately following the field descriptor which
+     * begins at the given index of the given string.
+     *
+     * @param str   The string containing the descriptor
+     * @param start The index at which the descriptor begins
+     * @return The index immediately following the descriptor
+     * @throws IllegalArgumentException If no valid descriptor begins at the given index
+     */
+    static int getEnd(String str, int start) throws IllegalArgumentException {
+        int i = start;
+        while (i < str.length() && str.charAt(i) == '[') {
+            ++i;
+        }
+        if (i < str.length() && str.charAt(i) == 'L') {
+            int end = str.indexOf(';', i);
+            if (end != -1) {
+                return end + 1;
+            }
+        } else if (i < str.length() && getPrimitiveName(str.charAt(i)) != null) {
+            return i + 1;
+        }
+        throw new IllegalArgumentException("Invalid descriptor at index " + start + ": " + str);
+    }
+
+    /**
+     * Returns the name of the primitive type denoted by the given descriptor
+     * character.
+     *
+     * @param c The descriptor character
+     * @return The name of the primitive type, or <code>null</code> if the character does not denote one
+     */
+    private static String getPrimitiveName(char c) {
+        switch (c) {
+            case 'B':
+                return "byte";
+            case 'C':
+                return "char";
+            case 'D':
+                return "double";
+            case 'F':
+                return "float";
+            case 'I':
+                return "int";
+            case 'J':
+                return "long";
+            case 'S':
+                return "short";
+            case 'V':
+                return "void";
+            case 'Z':
+                return "boolean";
+            default:
+                return null;
         }
     }
 
+    /**
+     * Returns the raw descriptor string this {@link TypeDescriptor} was
+     * parsed from.
+     *
+     * @return The raw descriptor string
+     */
+    public String getHandle() {
+        return this.handle;
+    }
+
     public String getRequiredImport() {
         return this.reqImport;
     }
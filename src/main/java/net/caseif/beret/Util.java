@@ -30,8 +30,11 @@ package net.caseif.beret;
 
 import net.caseif.beret.structures.AttributeStructure;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.ByteBuffer;
-import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 
 /**
  * A basic utility class.
@@ -40,6 +43,10 @@ import java.nio.charset.Charset;
  */
 public class Util {
 
+    private static final int INITIAL_BUFFER_SIZE = 8192;
+
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
     private static String tab = "    "; // default tab size of 4
 
     public static void setTabSize(int indent) {
@@ -58,6 +65,22 @@ public class Util {
         return sb.toString();
     }
 
+    /**
+     * Gets an indentation of the given number of tabs of the given size,
+     * independent of the global tab size.
+     *
+     * @param num  The number of tabs
+     * @param size The number of spaces per tab
+     * @return The indentation
+     */
+    public static String tab(int num, int size) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < num * size; i++) {
+            sb.append(' ');
+        }
+        return sb.toString();
+    }
+
     public static int bytesToInt(byte b1, byte b2, byte b3, byte b4) {
         return (int)bytesToUint(b1, b2, b3, b4);
     }
@@ -102,6 +125,100 @@ public class Util {
         return bytesToUshort(bytes[0], bytes[1]);
     }
 
+    /**
+     * Reads an unsigned big-endian short from the given absolute offset of
+     * the given buffer.
+     *
+     * @param buffer The buffer to read from
+     * @param offset The offset to read at
+     * @return The value read from the buffer
+     */
+    public static int readUshort(ByteBuffer buffer, int offset) {
+        return ((buffer.get(offset) & 0xFF) << 8) + (buffer.get(offset + 1) & 0xFF);
+    }
+
+    /**
+     * Reads an unsigned big-endian int from the given absolute offset of the
+     * given buffer.
+     *
+     * @param buffer The buffer to read from
+     * @param offset The offset to read at
+     * @return The value read from the buffer
+     */
+    public static long readUint(ByteBuffer buffer, int offset) {
+        return bytesToUint(buffer.get(offset), buffer.get(offset + 1), buffer.get(offset + 2), buffer.get(offset + 3));
+    }
+
+    /**
+     * Copies a range of the given buffer into a new array, leaving the
+     * buffer's position untouched.
+     *
+     * @param buffer The buffer to copy from
+     * @param offset The absolute offset of the first byte to copy
+     * @param length The number of bytes to copy
+     * @return A new array containing the copied bytes
+     */
+    public static byte[] copyBytes(ByteBuffer buffer, int offset, int length) {
+        byte[] copy = new byte[length];
+        if (buffer.hasArray()) {
+            System.arraycopy(buffer.array(), buffer.arrayOffset() + offset, copy, 0, length);
+        } else {
+            ByteBuffer view = buffer.duplicate();
+            view.position(offset);
+            view.get(copy);
+        }
+        return copy;
+    }
+
+    /**
+     * Reads the given stream to its end into a single growable buffer.
+     *
+     * <p>The returned buffer wraps the backing array directly, so no
+     * trailing copy is made to trim it to size.</p>
+     *
+     * @param stream The stream to read
+     * @return A buffer containing the content of the stream
+     * @throws IOException If an exception occurs while reading the stream
+     */
+    public static ByteBuffer readFully(InputStream stream) throws IOException {
+        return readFully(stream, stream.available());
+    }
+
+    /**
+     * Reads the given stream to its end into a single growable buffer,
+     * initially sized according to the given hint.
+     *
+     * <p>The returned buffer wraps the backing array directly, so no
+     * trailing copy is made to trim it to size. If the hint is exact, the
+     * stream is read without any intermediate copies.</p>
+     *
+     * @param stream   The stream to read
+     * @param sizeHint The expected length of the stream, or a non-positive value if unknown
+     * @return A buffer containing the content of the stream
+     * @throws IOException If an exception occurs while reading the stream
+     */
+    public static ByteBuffer readFully(InputStream stream, int sizeHint) throws IOException {
+        byte[] buffer = new byte[sizeHint > 0 ? sizeHint : INITIAL_BUFFER_SIZE];
+        int length = 0;
+        while (true) {
+            if (length == buffer.length) {
+                // only grow the buffer if the stream actually has more to give
+                int next = stream.read();
+                if (next == -1) {
+                    break;
+                }
+                buffer = Arrays.copyOf(buffer, buffer.length * 2); // grow the buffer geometrically
+                buffer[length++] = (byte)next;
+            }
+            int read = stream.read(buffer, length, buffer.length - length);
+            if (read == -1) {
+                break;
+            }
+            length += read;
+        }
+        return ByteBuffer.wrap(buffer, 0, length);
+    }
+
     public static long bytesToLong(byte[] bytes) {
         if (bytes.length != 8) {
             throw new IllegalArgumentException("Bad byte array length");
@@ -113,15 +230,123 @@ public class Util {
     }
 
     public static String bytesToHex(byte[] bytes) {
-        StringBuilder sb = new StringBuilder();
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0xF];
+            chars[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0xF];
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Appends the uppercase hexadecimal representation of the given byte to
+     * the given {@link Appendable}.
+     *
+     * @param out The {@link Appendable} to append to
+     * @param b   The byte to append
+     * @throws IOException If an exception occurs while appending
+     */
+    public static void appendHex(Appendable out, byte b) throws IOException {
+        out.append(HEX_DIGITS[(b >> 4) & 0xF]).append(HEX_DIGITS[b & 0xF]);
+    }
+
+    /**
+     * Appends the uppercase hexadecimal representation of the given bytes to
+     * the given {@link Appendable}.
+     *
+     * @param out   The {@link Appendable} to append to
+     * @param bytes The bytes to append
+     * @throws IOException If an exception occurs while appending
+     */
+    public static void appendHex(Appendable out, byte[] bytes) throws IOException {
         for (byte b : bytes) {
-            sb.append(String.format("%02X", b));
+            appendHex(out, b);
         }
-        return sb.toString();
     }
 
     public static String asUtf8(byte[] bytes) {
-        return new String(bytes, Charset.forName("UTF-8"));
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decodes the given range of the given buffer as the modified UTF-8 used
+     * by the class file format, in which <code>NUL</code> is encoded in two
+     * bytes and supplementary characters are encoded as surrogate pairs of
+     * three bytes each.
+     *
+     * @param buffer The buffer containing the encoded string
+     * @param offset The absolute offset of the encoded string
+     * @param length The length in bytes of the encoded string
+     * @return The decoded string
+     * @throws IllegalArgumentException If the range does not contain valid modified UTF-8
+     */
+    public static String decodeModifiedUtf8(ByteBuffer buffer, int offset, int length)
+            throws IllegalArgumentException {
+        int ascii = 0;
+        if (buffer.hasArray()) {
+            byte[] array = buffer.array();
+            int start = buffer.arrayOffset() + offset;
+            while (ascii < length && array[start + ascii] >= 0) {
+                ++ascii;
+            }
+            if (ascii == length) {
+                // every byte maps directly to a char, which is the case for nearly every identifier
+                return new String(array, start, length, StandardCharsets.ISO_8859_1);
+            }
+        } else {
+            while (ascii < length && buffer.get(offset + ascii) >= 0) {
+                ++ascii;
+            }
+            if (ascii == length) {
+                return new String(copyBytes(buffer, offset, length), StandardCharsets.ISO_8859_1);
+            }
+        }
+
+        char[] chars = new char[length];
+        int count = 0;
+        for (; count < ascii; count++) {
+            chars[count] = (char)buffer.get(offset + count);
+        }
+        for (int i = ascii; i < length; ) {
+            int b = buffer.get(offset + i) & 0xFF;
+            if (b < 0x80) {
+                chars[count++] = (char)b;
+                i += 1;
+            } else if ((b & 0xE0) == 0xC0) {
+                chars[count++] = (char)((b & 0x1F) << 6 | continuation(buffer, offset, length, i + 1));
+                i += 2;
+            } else if ((b & 0xF0) == 0xE0) {
+                chars[count++] = (char)((b & 0x0F) << 12 | continuation(buffer, offset, length, i + 1) << 6
+                        | continuation(buffer, offset, length, i + 2));
+                i += 3;
+            } else {
+                throw new IllegalArgumentException("Malformed modified UTF-8 at byte " + i);
+            }
+        }
+        return new String(chars, 0, count);
+    }
+
+    /**
+     * Reads the payload of the continuation byte at the given index of a
+     * modified UTF-8 string.
+     *
+     * @param buffer The buffer containing the encoded string
+     * @param offset The absolute offset of the encoded string
+     * @param length The length in bytes of the encoded string
+     * @param index  The index of the continuation byte within the string
+     * @return The low six bits of the continuation byte
+     * @throws IllegalArgumentException If the byte is missing or is not a continuation byte
+     */
+    private static int continuation(ByteBuffer buffer, int offset, int length, int index)
+            throws IllegalArgumentException {
+        if (index >= length) {
+            throw new IllegalArgumentException("Truncated modified UTF-8 sequence at byte " + index);
+        }
+        int b = buffer.get(offset + index);
+        if ((b & 0xC0) != 0x80) {
+            throw new IllegalArgumentException("Malformed modified UTF-8 at byte " + index);
+        }
+        return b & 0x3F;
     }
 
     public static AttributeStructure getAttrFromName(AttributeStructure[] attrs, String name) {
@@ -0,0 +1,517 @@
+/*
+ * New BSD License (BSD-new)
+ *
+ * Copyright (c) 2015 Maxim Roncacé
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     - Neither the name of the copyright holder nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.caseif.beret.analysis;
+
+import net.caseif.beret.Opcode;
+import net.caseif.beret.structures.CodeStructure;
+import net.caseif.beret.structures.InstructionStream;
+import net.caseif.beret.wrapper.synthetic.ExceptionHandler;
+
+import java.util.Arrays;
+
+/**
+ * The control-flow graph of a method body, consisting of its basic blocks
+ * and the edges between them.
+ *
+ * <p>Blocks are numbered in order of their offsets, with block
+ * <code>0</code> being the entry block. Each block spans a contiguous range
+ * of instructions; control enters a block only at its first instruction and
+ * leaves it only after its last. Block boundaries are also placed at the
+ * bounds of every range protected by an exception handler, so each block is
+ * either wholly covered by a given handler or not at all.</p>
+ *
+ * <p>Normal and exceptional edges are stored separately, each in compressed
+ * adjacency arrays indexed by block, in both directions. Edges are
+ * deduplicated. A <code>jsr</code> instruction is given edges both to its
+ * subroutine and to the instruction following it, where control resumes once
+ * the subroutine returns; <code>ret</code> instructions have no
+ * successors.</p>
+ *
+ * <p>The graph is built in time linear in the length of the code and the
+ * number of edges.</p>
+ *
+ * @author Max Roncacé
+ */
+public class ControlFlowGraph {
+
+    private static final int[] EMPTY = new int[0];
+
+    private final InstructionStream instructions;
+    private final int blockCount;
+
+    /**
+     * The start offset of each block, followed by the length of the code.
+     */
+    private final int[] blockOffsets;
+    /**
+     * The index of the first instruction of each block, followed by the
+     * number of instructions.
+     */
+    private final int[] blockInstructions;
+
+    private final int[] successorIndex;
+    private final int[] successors;
+    private final int[] predecessorIndex;
+    private final int[] predecessors;
+    private final int[] exceptionalSuccessorIndex;
+    private final int[] exceptionalSuccessors;
+    private final int[] exceptionalPredecessorIndex;
+    private final int[] exceptionalPredecessors;
+
+    /**
+     * Builds the control-flow graph of the given {@link CodeStructure}.
+     *
+     * @param code The code to build the graph of
+     * @throws IllegalArgumentException If a branch target or exception handler bound does not lie on an instruction
+     *                                  boundary
+     */
+    public ControlFlowGraph(CodeStructure code) throws IllegalArgumentException {
+        this(code.getInstructions(), code.getExceptionHandlers());
+    }
+
+    /**
+     * Builds the control-flow graph of the given instructions, protected by
+     * the given exception handlers.
+     *
+     * @param instructions      The instructions to build the graph of
+     * @param exceptionHandlers The exception handlers protecting the instructions
+     * @throws IllegalArgumentException If a branch target or exception handler bound does not lie on an instruction
+     *                                  boundary
+     */
+    public ControlFlowGraph(InstructionStream instructions, ExceptionHandler[] exceptionHandlers)
+            throws IllegalArgumentException {
+        this.instructions = instructions;
+        int count = instructions.size();
+        int codeLength = instructions.getCodeLength();
+
+        // a dense table rather than a binary search keeps resolving branch targets linear
+        int[] indexAt = new int[codeLength + 1];
+        Arrays.fill(indexAt, -1);
+        for (int i = 0; i < count; i++) {
+            indexAt[instructions.getOffset(i)] = i;
+        }
+        indexAt[codeLength] = count;
+
+        boolean[] leaders = new boolean[count + 1];
+        leaders[0] = true;
+        for (int i = 0; i < count; i++) {
+            Opcode.BranchKind kind = getBranchKind(i);
+            if (kind == Opcode.BranchKind.NONE) {
+                continue;
+            }
+            leaders[i + 1] = true;
+            switch (kind) {
+                case CONDITIONAL:
+                case UNCONDITIONAL:
+                case SUBROUTINE:
+                    leaders[resolve(indexAt, getBranchTarget(i), false)] = true;
+                    break;
+                case SWITCH:
+                    leaders[resolve(indexAt, instructions.getSwitchDefaultTarget(i), false)] = true;
+                    for (int n = instructions.getSwitchCaseCount(i) - 1; n >= 0; n--) {
+                        leaders[resolve(indexAt, instructions.getSwitchCaseTarget(i, n), false)] = true;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        for (ExceptionHandler handler : exceptionHandlers) {
+            leaders[resolve(indexAt, handler.getStartIndex(), false)] = true;
+            leaders[resolve(indexAt, handler.getEndIndex(), true)] = true;
+            leaders[resolve(indexAt, handler.getHandlerStartIndex(), false)] = true;
+        }
+
+        // the block containing each instruction, with the end of the code belonging to a block of its own
+        int[] blockOf = new int[count + 1];
+        int blocks = 0;
+        for (int i = 0; i < count; i++) {
+            if (leaders[i]) {
+                ++blocks;
+            }
+            blockOf[i] = blocks - 1;
+        }
+        blockOf[count] = blocks;
+        this.blockCount = blocks;
+        this.blockOffsets = new int[blocks + 1];
+        this.blockInstructions = new int[blocks + 1];
+        for (int i = 0; i < count; i++) {
+            if (leaders[i]) {
+                blockOffsets[blockOf[i]] = instructions.getOffset(i);
+                blockInstructions[blockOf[i]] = i;
+            }
+        }
+        blockOffsets[blocks] = codeLength;
+        blockInstructions[blocks] = count;
+
+        EdgeList edges = new EdgeList();
+        for (int b = 0; b < blocks; b++) {
+            int last = blockInstructions[b + 1] - 1;
+            switch (getBranchKind(last)) {
+                case NONE:
+                    addFallthrough(edges, b);
+                    break;
+                case CONDITIONAL:
+                case SUBROUTINE:
+                    edges.add(b, blockOf[resolve(indexAt, getBranchTarget(last), false)]);
+                    addFallthrough(edges, b);
+                    break;
+                case UNCONDITIONAL:
+                    edges.add(b, blockOf[resolve(indexAt, getBranchTarget(last), false)]);
+                    break;
+                case SWITCH:
+                    edges.add(b, blockOf[resolve(indexAt, instructions.getSwitchDefaultTarget(last), false)]);
+                    for (int n = 0; n < instructions.getSwitchCaseCount(last); n++) {
+                        edges.add(b, blockOf[resolve(indexAt, instructions.getSwitchCaseTarget(last, n), false)]);
+                    }
+                    break;
+                default:
+                    break; // returns, throws and subroutine returns have no static successors
+            }
+        }
+        EdgeList exceptionalEdges = new EdgeList();
+        for (ExceptionHandler handler : exceptionHandlers) {
+            int target = blockOf[indexAt[handler.getHandlerStartIndex()]];
+            int end = blockOf[indexAt[handler.getEndIndex()]];
+            for (int b = blockOf[indexAt[handler.getStartIndex()]]; b < end; b++) {
+                exceptionalEdges.add(b, target);
+            }
+        }
+
+        int[][] csr = edges.toAdjacency(blocks, false);
+        successorIndex = csr[0];
+        successors = csr[1];
+        csr = edges.toAdjacency(blocks, true);
+        predecessorIndex = csr[0];
+        predecessors = csr[1];
+        csr = exceptionalEdges.toAdjacency(blocks, false);
+        exceptionalSuccessorIndex = csr[0];
+        exceptionalSuccessors = csr[1];
+        csr = exceptionalEdges.toAdjacency(blocks, true);
+        exceptionalPredecessorIndex = csr[0];
+        exceptionalPredecessors = csr[1];
+    }
+
+    private void addFallthrough(EdgeList edges, int block) {
+        if (block + 1 < blockCount) {
+            edges.add(block, block + 1);
+        }
+    }
+
+    /**
+     * Returns the manner in which the instruction at the given index
+     * transfers control, accounting for <code>wide ret</code>.
+     *
+     * @param index The index of the instruction
+     * @return The {@link Opcode.BranchKind} of the instruction
+     */
+    private Opcode.BranchKind getBranchKind(int index) {
+        int code = instructions.getOpcodeByte(index) & 0xFF;
+        if (code == (Opcode.WIDE.getByteCode() & 0xFF) && instructions.getWideOpcode(index) == Opcode.RET) {
+            return Opcode.BranchKind.SUBROUTINE_RETURN;
+        }
+        return Opcode.getBranchKind(code);
+    }
+
+    /**
+     * Returns the target offset of the branch instruction at the given
+     * index, which must have a single 16- or 32-bit branch offset operand.
+     *
+     * @param index The index of the instruction
+     * @return The offset of the branch target
+     */
+    private int getBranchTarget(int index) {
+        int relative = instructions.getOperandLength(index) == 4
+                ? instructions.getOperandInt(index, 0)
+                : instructions.getOperandShort(index, 0);
+        return instructions.getOffset(index) + relative;
+    }
+
+    private static int resolve(int[] indexAt, int offset, boolean allowEnd) throws IllegalArgumentException {
+        int limit = allowEnd ? indexAt.length : indexAt.length - 1;
+        if (offset < 0 || offset >= limit || indexAt[offset] == -1) {
+            throw new IllegalArgumentException("Offset " + offset + " does not lie on an instruction boundary");
+        }
+        return indexAt[offset];
+    }
+
+    /**
+     * Returns the instructions this graph was built from.
+     *
+     * @return The instructions this graph was built from
+     */
+    public InstructionStream getInstructions() {
+        return this.instructions;
+    }
+
+    /**
+     * Returns the number of basic blocks in this graph.
+     *
+     * @return The number of basic blocks in this graph
+     */
+    public int getBlockCount() {
+        return this.blockCount;
+    }
+
+    /**
+     * Returns the code offset of the first instruction of the given block.
+     *
+     * @param block The index of the block
+     * @return The start offset of the block
+     */
+    public int getBlockStart(int block) {
+        checkBlock(block);
+        return blockOffsets[block];
+    }
+
+    /**
+     * Returns the code offset immediately following the last instruction of
+     * the given block.
+     *
+     * @param block The index of the block
+     * @return The exclusive end offset of the block
+     */
+    public int getBlockEnd(int block) {
+        checkBlock(block);
+        return blockOffsets[block + 1];
+    }
+
+    /**
+     * Returns the index within the {@link InstructionStream} of the first
+     * instruction of the given block.
+     *
+     * @param block The index of the block
+     * @return The index of the first instruction of the block
+     */
+    public int getFirstInstruction(int block) {
+        checkBlock(block);
+        return blockInstructions[block];
+    }
+
+    /**
+     * Returns the index within the {@link InstructionStream} of the last
+     * instruction of the given block.
+     *
+     * @param block The index of the block
+     * @return The index of the last instruction of the block
+     */
+    public int getLastInstruction(int block) {
+        checkBlock(block);
+        return blockInstructions[block + 1] - 1;
+    }
+
+    /**
+     * Returns the block containing the instruction at the given code offset.
+     *
+     * @param offset The offset relative to the start of the code
+     * @return The index of the block containing the offset, or <code>-1</code> if it lies outside the code
+     */
+    public int getBlockAt(int offset) {
+        if (offset < 0 || offset >= blockOffsets[blockCount]) {
+            return -1;
+        }
+        int index = Arrays.binarySearch(blockOffsets, 0, blockCount, offset);
+        return index >= 0 ? index : -index - 2; // the block starting before the insertion point
+    }
+
+    /**
+     * Returns the number of normal successors of the given block.
+     *
+     * @param block The index of the block
+     * @return The number of normal successors of the block
+     */
+    public int getSuccessorCount(int block) {
+        checkBlock(block);
+        return successorIndex[block + 1] - successorIndex[block];
+    }
+
+    /**
+     * Returns the given normal successor of the given block.
+     *
+     * @param block The index of the block
+     * @param n     The index of the successor, less than {@link #getSuccessorCount(int)}
+     * @return The index of the successor block
+     */
+    public int getSuccessor(int block, int n) {
+        return successors[edge(successorIndex, block, n)];
+    }
+
+    /**
+     * Returns the number of normal predecessors of the given block.
+     *
+     * @param block The index of the block
+     * @return The number of normal predecessors of the block
+     */
+    public int getPredecessorCount(int block) {
+        checkBlock(block);
+        return predecessorIndex[block + 1] - predecessorIndex[block];
+    }
+
+    /**
+     * Returns the given normal predecessor of the given block.
+     *
+     * @param block The index of the block
+     * @param n     The index of the predecessor, less than {@link #getPredecessorCount(int)}
+     * @return The index of the predecessor block
+     */
+    public int getPredecessor(int block, int n) {
+        return predecessors[edge(predecessorIndex, block, n)];
+    }
+
+    /**
+     * Returns the number of exception handler blocks control may be
+     * transferred to from the given block.
+     *
+     * @param block The index of the block
+     * @return The number of exceptional successors of the block
+     */
+    public int getExceptionalSuccessorCount(int block) {
+        checkBlock(block);
+        return exceptionalSuccessorIndex[block + 1] - exceptionalSuccessorIndex[block];
+    }
+
+    /**
+     * Returns the given exception handler block which control may be
+     * transferred to from the given block.
+     *
+     * @param block The index of the block
+     * @param n     The index of the successor, less than {@link #getExceptionalSuccessorCount(int)}
+     * @return The index of the handler block
+     */
+    public int getExceptionalSuccessor(int block, int n) {
+        return exceptionalSuccessors[edge(exceptionalSuccessorIndex, block, n)];
+    }
+
+    /**
+     * Returns the number of blocks protected by the given block, if it
+     * begins an exception handler.
+     *
+     * @param block The index of the block
+     * @return The number of exceptional predecessors of the block
+     */
+    public int getExceptionalPredecessorCount(int block) {
+        checkBlock(block);
+        return exceptionalPredecessorIndex[block + 1] - exceptionalPredecessorIndex[block];
+    }
+
+    /**
+     * Returns the given block protected by the given block, if it begins an
+     * exception handler.
+     *
+     * @param block The index of the block
+     * @param n     The index of the predecessor, less than {@link #getExceptionalPredecessorCount(int)}
+     * @return The index of the protected block
+     */
+    public int getExceptionalPredecessor(int block, int n) {
+        return exceptionalPredecessors[edge(exceptionalPredecessorIndex, block, n)];
+    }
+
+    private void checkBlock(int block) {
+        if (block < 0 || block >= blockCount) {
+            throw new IndexOutOfBoundsException("Block " + block + " out of bounds for length " + blockCount);
+        }
+    }
+
+    private int edge(int[] index, int block, int n) {
+        checkBlock(block);
+        if (n < 0 || n >= index[block + 1] - index[block]) {
+            throw new IndexOutOfBoundsException("Edge " + n + " out of bounds for block " + block);
+        }
+        return index[block] + n;
+    }
+
+    /**
+     * A growable list of edges, which is converted to compressed adjacency
+     * arrays once complete.
+     */
+    private static class EdgeList {
+
+        private int[] from = EMPTY;
+        private int[] to = EMPTY;
+        private int size;
+
+        private void add(int source, int target) {
+            if (size == from.length) {
+                int capacity = Math.max(16, size * 2);
+                from = Arrays.copyOf(from, capacity);
+                to = Arrays.copyOf(to, capacity);
+            }
+            from[size] = source;
+            to[size] = target;
+            ++size;
+        }
+
+        /**
+         * Converts this list into adjacency arrays by counting sort, dropping
+         * duplicate edges.
+         *
+         * @param nodes    The number of nodes
+         * @param reversed Whether to index edges by their targets rather than their sources
+         * @return The index array, in which node <code>n</code>'s neighbors occupy the range from element
+         *         <code>n</code> to element <code>n + 1</code> of the second array, and the neighbor array
+         */
+        private int[][] toAdjacency(int nodes, boolean reversed) {
+            int[] keys = reversed ? to : from;
+            int[] values = reversed ? from : to;
+            int[] index = new int[nodes + 1];
+            for (int i = 0; i < size; i++) {
+                ++index[keys[i] + 1];
+            }
+            for (int n = 0; n < nodes; n++) {
+                index[n + 1] += index[n];
+            }
+            int[] fill = Arrays.copyOf(index, nodes);
+            int[] neighbors = new int[size];
+            for (int i = 0; i < size; i++) {
+                neighbors[fill[keys[i]]++] = values[i];
+            }
+
+            // compact each node's neighbors in place, dropping repeats
+            int[] seen = new int[nodes];
+            Arrays.fill(seen, -1);
+            int write = 0;
+            int start = 0;
+            for (int n = 0; n < nodes; n++) {
+                int end = index[n + 1];
+                index[n] = write;
+                for (int i = start; i < end; i++) {
+                    if (seen[neighbors[i]] != n) {
+                        seen[neighbors[i]] = n;
+                        neighbors[write++] = neighbors[i];
+                    }
+                }
+                start = end;
+            }
+            index[nodes] = write;
+            return new int[][] {index, write == neighbors.length ? neighbors : Arrays.copyOf(neighbors, write)};
+        }
+
+    }
+
+}
@@ -0,0 +1,411 @@
+/*
+ * New BSD License (BSD-new)
+ *
+ * Copyright (c) 2015 Maxim Roncacé
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     - Neither the name of the copyright holder nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.caseif.beret.analysis;
+
+import java.util.Arrays;
+
+/**
+ * The dominator or post-dominator tree of a {@link ControlFlowGraph}.
+ *
+ * <p>Both normal and exceptional edges are taken into account, so exception
+ * handlers are dominated by the blocks they protect. Post-dominators are
+ * computed relative to a virtual exit which every block without normal
+ * successors leads to, whether or not it is protected by an exception
+ * handler, since such blocks may return or throw out of the method. Blocks
+ * post-dominated only by the virtual exit have no immediate post-dominator,
+ * and neither do blocks from which no exit can be reached, such as those in
+ * infinite loops.</p>
+ *
+ * <p>The tree is computed with the simple variant of the Lengauer-Tarjan
+ * algorithm, in <i>O(m log n)</i> time for <i>n</i> blocks and <i>m</i>
+ * edges, without recursion. Once built, dominance between any two blocks is
+ * answered in constant time.</p>
+ *
+ * @author Max Roncacé
+ */
+public class DominatorTree {
+
+    private static final int NONE = -1;
+
+    private final ControlFlowGraph graph;
+    private final boolean post;
+    private final int root;
+
+    private final int[] idom;
+    /**
+     * The preorder and postorder numbers of each node in the tree.
+     */
+    private final int[] enter;
+    private final int[] exit;
+    /**
+     * The nodes of the tree, in preorder.
+     */
+    private final int[] preorder;
+
+    private DominatorTree(ControlFlowGraph graph, boolean post) {
+        this.graph = graph;
+        this.post = post;
+        int blocks = graph.getBlockCount();
+        int nodes = post ? blocks + 1 : blocks; // post-dominators are rooted at a virtual exit node
+        this.root = post ? blocks : 0;
+        int[][] adjacency = buildAdjacency(graph, post);
+        this.idom = nodes > 0
+                ? computeImmediateDominators(nodes, root, adjacency[0], adjacency[1], adjacency[2], adjacency[3])
+                : new int[0];
+
+        // number the tree so that dominance reduces to interval containment
+        int[] childIndex = new int[nodes + 1];
+        for (int v = 0; v < nodes; v++) {
+            if (idom[v] != NONE) {
+                ++childIndex[idom[v] + 1];
+            }
+        }
+        for (int v = 0; v < nodes; v++) {
+            childIndex[v + 1] += childIndex[v];
+        }
+        int[] fill = Arrays.copyOf(childIndex, nodes);
+        int[] children = new int[childIndex[nodes]];
+        for (int v = 0; v < nodes; v++) {
+            if (idom[v] != NONE) {
+                children[fill[idom[v]]++] = v;
+            }
+        }
+        this.enter = new int[nodes];
+        this.exit = new int[nodes];
+        Arrays.fill(enter, NONE);
+        Arrays.fill(exit, NONE);
+        int[] order = new int[nodes];
+        int count = 0;
+        if (nodes > 0) {
+            int[] stack = new int[nodes];
+            int[] position = new int[nodes];
+            int top = 0;
+            int clock = 0;
+            stack[top++] = root;
+            enter[root] = clock++;
+            order[count++] = root;
+            position[root] = childIndex[root];
+            while (top > 0) {
+                int v = stack[top - 1];
+                if (position[v] < childIndex[v + 1]) {
+                    int child = children[position[v]++];
+                    enter[child] = clock++;
+                    order[count++] = child;
+                    position[child] = childIndex[child];
+                    stack[top++] = child;
+                } else {
+                    exit[v] = clock++;
+                    --top;
+                }
+            }
+        }
+        this.preorder = Arrays.copyOf(order, count);
+    }
+
+    /**
+     * Computes the dominator tree of the given graph, rooted at its entry
+     * block.
+     *
+     * @param graph The graph to compute the dominator tree of
+     * @return The dominator tree of the graph
+     */
+    public static DominatorTree dominatorsOf(ControlFlowGraph graph) {
+        return new DominatorTree(graph, false);
+    }
+
+    /**
+     * Computes the post-dominator tree of the given graph, rooted at a
+     * virtual exit node.
+     *
+     * @param graph The graph to compute the post-dominator tree of
+     * @return The post-dominator tree of the graph
+     */
+    public static DominatorTree postDominatorsOf(ControlFlowGraph graph) {
+        return new DominatorTree(graph, true);
+    }
+
+    /**
+     * Builds the adjacency arrays of the union of the normal and exceptional
+     * edges of the given graph, reversed and with a virtual exit node for
+     * post-dominators.
+     *
+     * @return The successor index and successor arrays, followed by the predecessor index and predecessor arrays
+     */
+    private static int[][] buildAdjacency(ControlFlowGraph graph, boolean reverse) {
+        int blocks = graph.getBlockCount();
+        int nodes = reverse ? blocks + 1 : blocks;
+        int edges = 0;
+        for (int b = 0; b < blocks; b++) {
+            edges += graph.getSuccessorCount(b) + graph.getExceptionalSuccessorCount(b);
+            if (reverse && graph.getSuccessorCount(b) == 0) {
+                ++edges; // returns, throws and subroutine returns leave the method through the virtual exit
+            }
+        }
+        int[] from = new int[edges];
+        int[] to = new int[edges];
+        int e = 0;
+        for (int b = 0; b < blocks; b++) {
+            if (reverse && graph.getSuccessorCount(b) == 0) {
+                from[e] = b;
+                to[e++] = blocks;
+            }
+            for (int i = 0; i < graph.getSuccessorCount(b); i++, e++) {
+                from[e] = b;
+                to[e] = graph.getSuccessor(b, i);
+            }
+            for (int i = 0; i < graph.getExceptionalSuccessorCount(b); i++, e++) {
+                from[e] = b;
+                to[e] = graph.getExceptionalSuccessor(b, i);
+            }
+        }
+        int[][] out = sortEdges(nodes, reverse ? to : from, reverse ? from : to);
+        int[][] in = sortEdges(nodes, reverse ? from : to, reverse ? to : from);
+        return new int[][] {out[0], out[1], in[0], in[1]};
+    }
+
+    /**
+     * Groups the given edges by source with a counting sort.
+     *
+     * @return The index array and the array of targets grouped by source
+     */
+    private static int[][] sortEdges(int nodes, int[] sources, int[] targets) {
+        int[] index = new int[nodes + 1];
+        for (int source : sources) {
+            ++index[source + 1];
+        }
+        for (int v = 0; v < nodes; v++) {
+            index[v + 1] += index[v];
+        }
+        int[] fill = Arrays.copyOf(index, nodes);
+        int[] grouped = new int[sources.length];
+        for (int i = 0; i < sources.length; i++) {
+            grouped[fill[sources[i]]++] = targets[i];
+        }
+        return new int[][] {index, grouped};
+    }
+
+    /**
+     * Computes the immediate dominator of every node of the given graph with
+     * the simple variant of the Lengauer-Tarjan algorithm.
+     *
+     * @return The immediate dominator of each node, or {@link #NONE} for the root and unreachable nodes
+     */
+    private static int[] computeImmediateDominators(int nodes, int root, int[] succIndex, int[] succ,
+                                                    int[] predIndex, int[] pred) {
+        int[] dfnum = new int[nodes];
+        int[] vertex = new int[nodes];
+        int[] parent = new int[nodes];
+        Arrays.fill(dfnum, NONE);
+
+        // number the nodes in depth-first preorder
+        int[] stack = new int[nodes];
+        int[] position = new int[nodes];
+        int top = 0;
+        int count = 0;
+        dfnum[root] = count;
+        vertex[count++] = root;
+        parent[root] = NONE;
+        position[root] = succIndex[root];
+        stack[top++] = root;
+        while (top > 0) {
+            int v = stack[top - 1];
+            if (position[v] < succIndex[v + 1]) {
+                int w = succ[position[v]++];
+                if (dfnum[w] == NONE) {
+                    dfnum[w] = count;
+                    vertex[count++] = w;
+                    parent[w] = v;
+                    position[w] = succIndex[w];
+                    stack[top++] = w;
+                }
+            } else {
+                --top;
+            }
+        }
+
+        int[] semi = new int[nodes];
+        int[] idom = new int[nodes];
+        int[] ancestor = new int[nodes];
+        int[] label = new int[nodes];
+        int[] bucketHead = new int[nodes];
+        int[] bucketNext = new int[nodes];
+        for (int v = 0; v < nodes; v++) {
+            semi[v] = dfnum[v];
+            label[v] = v;
+        }
+        Arrays.fill(idom, NONE);
+        Arrays.fill(ancestor, NONE);
+        Arrays.fill(bucketHead, NONE);
+
+        for (int i = count - 1; i > 0; i--) {
+            int w = vertex[i];
+            for (int e = predIndex[w]; e < predIndex[w + 1]; e++) {
+                int v = pred[e];
+                if (dfnum[v] == NONE) {
+                    continue; // unreachable predecessors have no bearing on dominance
+                }
+                int u = eval(v, ancestor, label, semi, stack);
+                if (semi[u] < semi[w]) {
+                    semi[w] = semi[u];
+                }
+            }
+            int s = vertex[semi[w]];
+            bucketNext[w] = bucketHead[s];
+            bucketHead[s] = w;
+
+            int p = parent[w];
+            ancestor[w] = p;
+            for (int v = bucketHead[p]; v != NONE; v = bucketNext[v]) {
+                int u = eval(v, ancestor, label, semi, stack);
+                idom[v] = semi[u] < semi[v] ? u : p;
+            }
+            bucketHead[p] = NONE;
+        }
+        for (int i = 1; i < count; i++) {
+            int w = vertex[i];
+            if (idom[w] != vertex[semi[w]]) {
+                idom[w] = idom[idom[w]];
+            }
+        }
+        idom[root] = NONE;
+        return idom;
+    }
+
+    /**
+     * Returns the node with the minimal semidominator on the path from the
+     * given node to the root of its tree in the forest built so far,
+     * compressing the path along the way.
+     */
+    private static int eval(int v, int[] ancestor, int[] label, int[] semi, int[] stack) {
+        if (ancestor[v] == NONE) {
+            return v;
+        }
+        // gather the path up to the node just below the root of the tree, then compress it from the top down
+        int top = 0;
+        int x = v;
+        while (ancestor[ancestor[x]] != NONE) {
+            stack[top++] = x;
+            x = ancestor[x];
+        }
+        while (top > 0) {
+            x = stack[--top];
+            int a = ancestor[x];
+            if (semi[label[a]] < semi[label[x]]) {
+                label[x] = label[a];
+            }
+            ancestor[x] = ancestor[a];
+        }
+        return label[v];
+    }
+
+    /**
+     * Returns the graph this tree was computed over.
+     *
+     * @return The graph this tree was computed over
+     */
+    public ControlFlowGraph getGraph() {
+        return this.graph;
+    }
+
+    /**
+     * Returns whether this is a post-dominator tree.
+     *
+     * @return Whether this is a post-dominator tree
+     */
+    public boolean isPostDominatorTree() {
+        return this.post;
+    }
+
+    /**
+     * Returns the immediate dominator, or for a post-dominator tree the
+     * immediate post-dominator, of the given block.
+     *
+     * @param block The index of the block
+     * @return The index of the immediate (post-)dominator, or <code>-1</code> if the block has none
+     */
+    public int getImmediateDominator(int block) {
+        checkBlock(block);
+        int dominator = idom[block];
+        return dominator == root && post ? NONE : dominator;
+    }
+
+    /**
+     * Returns whether the given block is reachable from the root of this
+     * tree, i.e. for a dominator tree whether it is reachable from the entry
+     * block, and for a post-dominator tree whether an exit is reachable from
+     * it.
+     *
+     * @param block The index of the block
+     * @return Whether the block is part of this tree
+     */
+    public boolean isReachable(int block) {
+        checkBlock(block);
+        return enter[block] != NONE;
+    }
+
+    /**
+     * Returns whether the first given block dominates, or for a
+     * post-dominator tree post-dominates, the second. Every reachable block
+     * dominates itself.
+     *
+     * @param dominator The index of the potential dominator
+     * @param block     The index of the potentially dominated block
+     * @return Whether the first block dominates the second
+     */
+    public boolean dominates(int dominator, int block) {
+        checkBlock(dominator);
+        checkBlock(block);
+        return enter[dominator] != NONE && enter[block] != NONE
+                && enter[dominator] <= enter[block] && exit[block] <= exit[dominator];
+    }
+
+    /**
+     * Returns the number of nodes in this tree, i.e. those reachable from
+     * its root, including the virtual exit of a post-dominator tree.
+     */
+    int getNodeCount() {
+        return preorder.length;
+    }
+
+    /**
+     * Returns the node at the given position in a preorder traversal of
+     * this tree, in which each node precedes the nodes it dominates.
+     */
+    int getNodeInPreorder(int position) {
+        return preorder[position];
+    }
+
+    private void checkBlock(int block) {
+        if (block < 0 || block >= graph.getBlockCount()) {
+            throw new IndexOutOfBoundsException("Block " + block + " out of bounds for length "
+                    + graph.getBlockCount());
+        }
+    }
+
+}
@@ -0,0 +1,278 @@
+/*
+ * New BSD License (BSD-new)
+ *
+ * Copyright (c) 2015 Maxim Roncacé
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     - Neither the name of the copyright holder nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.caseif.beret.analysis;
+
+import java.util.Arrays;
+
+/**
+ * The natural loops of a {@link ControlFlowGraph} and the forest describing
+ * how they nest.
+ *
+ * <p>A natural loop is identified by its header, a block which dominates the
+ * source of at least one edge leading back to it. All back edges to the same
+ * header form a single loop. Loops are numbered in order of their headers'
+ * offsets. Cycles which can be entered at more than one block, as may occur
+ * in irreducible code, are not natural loops and are not reported.</p>
+ *
+ * <p>Loops are found innermost first, with each loop collapsed into its
+ * header by a union-find structure once found, so that no block is visited
+ * again by the loops enclosing it. This keeps construction near-linear even
+ * for deeply nested loops.</p>
+ *
+ * @author Max Roncacé
+ */
+public class LoopForest {
+
+    private static final int NONE = -1;
+
+    private final ControlFlowGraph graph;
+    private final int[] loopOfBlock;
+    private final int[] headers;
+    private final int[] parents;
+    private final int[] depths;
+
+    /**
+     * Finds the natural loops of the given graph.
+     *
+     * @param dominators The dominator tree of the graph, as returned by
+     *                   {@link DominatorTree#dominatorsOf(ControlFlowGraph)}
+     * @throws IllegalArgumentException If the given tree is a post-dominator tree
+     */
+    public LoopForest(DominatorTree dominators) throws IllegalArgumentException {
+        if (dominators.isPostDominatorTree()) {
+            throw new IllegalArgumentException("Loops must be found with a dominator tree");
+        }
+        this.graph = dominators.getGraph();
+        int blocks = graph.getBlockCount();
+
+        // the innermost loop header of each block, and the header of the loop immediately enclosing each header
+        int[] innermostHeader = new int[blocks];
+        int[] enclosingHeader = new int[blocks];
+        boolean[] isHeader = new boolean[blocks];
+        Arrays.fill(innermostHeader, NONE);
+        Arrays.fill(enclosingHeader, NONE);
+
+        int[] representative = new int[blocks]; // union-find parents, collapsing found loops into their headers
+        for (int b = 0; b < blocks; b++) {
+            representative[b] = b;
+        }
+        int[] visited = new int[blocks];
+        Arrays.fill(visited, NONE);
+        int[] worklist = new int[blocks];
+
+        // an inner header is dominated by, and so follows, the header of any loop enclosing it
+        for (int i = dominators.getNodeCount() - 1; i >= 0; i--) {
+            int header = dominators.getNodeInPreorder(i);
+            int size = 0;
+            for (int n = 0, count = getPredecessorCount(header); n < count; n++) {
+                int source = getPredecessor(header, n);
+                if (dominators.dominates(header, source)) {
+                    isHeader[header] = true;
+                    int x = find(representative, source);
+                    if (x != header && visited[x] != header) {
+                        visited[x] = header;
+                        worklist[size++] = x;
+                    }
+                }
+            }
+            if (!isHeader[header]) {
+                continue;
+            }
+            innermostHeader[header] = header;
+            while (size > 0) {
+                int x = worklist[--size];
+                if (isHeader[x] && innermostHeader[x] == x) {
+                    enclosingHeader[x] = header; // an inner loop, already collapsed into its header
+                } else {
+                    innermostHeader[x] = header;
+                }
+                representative[x] = header;
+                for (int n = 0, count = getPredecessorCount(x); n < count; n++) {
+                    int pred = getPredecessor(x, n);
+                    if (!dominators.isReachable(pred)) {
+                        continue;
+                    }
+                    int y = find(representative, pred);
+                    if (y != header && visited[y] != header) {
+                        visited[y] = header;
+                        worklist[size++] = y;
+                    }
+                }
+            }
+        }
+
+        int[] loopIndex = new int[blocks];
+        int loops = 0;
+        for (int b = 0; b < blocks; b++) {
+            loopIndex[b] = isHeader[b] ? loops++ : NONE;
+        }
+        this.headers = new int[loops];
+        this.parents = new int[loops];
+        this.depths = new int[loops];
+        this.loopOfBlock = new int[blocks];
+        for (int b = 0; b < blocks; b++) {
+            if (isHeader[b]) {
+                headers[loopIndex[b]] = b;
+                parents[loopIndex[b]] = enclosingHeader[b] == NONE ? NONE : loopIndex[enclosingHeader[b]];
+            }
+            loopOfBlock[b] = innermostHeader[b] == NONE ? NONE : loopIndex[innermostHeader[b]];
+        }
+        // enclosing headers dominate the headers they enclose, so their depths are known first
+        for (int i = 0; i < dominators.getNodeCount(); i++) {
+            int b = dominators.getNodeInPreorder(i);
+            if (isHeader[b]) {
+                int l = loopIndex[b];
+                depths[l] = parents[l] == NONE ? 1 : depths[parents[l]] + 1;
+            }
+        }
+    }
+
+    private int getPredecessorCount(int block) {
+        return graph.getPredecessorCount(block) + graph.getExceptionalPredecessorCount(block);
+    }
+
+    private int getPredecessor(int block, int n) {
+        int normal = graph.getPredecessorCount(block);
+        return n < normal ? graph.getPredecessor(block, n) : graph.getExceptionalPredecessor(block, n - normal);
+    }
+
+    private static int find(int[] representative, int v) {
+        int root = v;
+        while (representative[root] != root) {
+            root = representative[root];
+        }
+        while (representative[v] != root) {
+            int next = representative[v];
+            representative[v] = root;
+            v = next;
+        }
+        return root;
+    }
+
+    /**
+     * Returns the graph these loops were found in.
+     *
+     * @return The graph these loops were found in
+     */
+    public ControlFlowGraph getGraph() {
+        return this.graph;
+    }
+
+    /**
+     * Returns the number of natural loops in the graph.
+     *
+     * @return The number of natural loops in the graph
+     */
+    public int getLoopCount() {
+        return headers.length;
+    }
+
+    /**
+     * Returns the header block of the given loop.
+     *
+     * @param loop The index of the loop
+     * @return The index of the loop's header block
+     */
+    public int getHeader(int loop) {
+        checkLoop(loop);
+        return headers[loop];
+    }
+
+    /**
+     * Returns the loop immediately enclosing the given loop.
+     *
+     * @param loop The index of the loop
+     * @return The index of the enclosing loop, or <code>-1</code> if the loop is outermost
+     */
+    public int getParent(int loop) {
+        checkLoop(loop);
+        return parents[loop];
+    }
+
+    /**
+     * Returns the nesting depth of the given loop, outermost loops having a
+     * depth of <code>1</code>.
+     *
+     * @param loop The index of the loop
+     * @return The nesting depth of the loop
+     */
+    public int getDepth(int loop) {
+        checkLoop(loop);
+        return depths[loop];
+    }
+
+    /**
+     * Returns the innermost loop containing the given block.
+     *
+     * @param block The index of the block
+     * @return The index of the innermost loop containing the block, or <code>-1</code> if it is in no loop
+     */
+    public int getLoopOf(int block) {
+        if (block < 0 || block >= loopOfBlock.length) {
+            throw new IndexOutOfBoundsException("Block " + block + " out of bounds for length " + loopOfBlock.length);
+        }
+        return loopOfBlock[block];
+    }
+
+    /**
+     * Returns whether the given block is the header of a loop.
+     *
+     * @param block The index of the block
+     * @return Whether the block is a loop header
+     */
+    public boolean isHeader(int block) {
+        int loop = getLoopOf(block);
+        return loop != NONE && headers[loop] == block;
+    }
+
+    /**
+     * Returns whether the given loop contains the given block, directly or
+     * through a nested loop.
+     *
+     * @param loop  The index of the loop
+     * @param block The index of the block
+     * @return Whether the loop contains the block
+     */
+    public boolean contains(int loop, int block) {
+        checkLoop(loop);
+        for (int l = getLoopOf(block); l != NONE; l = parents[l]) {
+            if (l == loop) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void checkLoop(int loop) {
+        if (loop < 0 || loop >= headers.length) {
+            throw new IndexOutOfBoundsException("Loop " + loop + " out of bounds for length " + headers.length);
+        }
+    }
+
+}
@@ -28,8 +28,11 @@
  */
 package net.caseif.beret.structures;
 
+import net.caseif.beret.Util;
 import net.caseif.beret.wrapper.ClassInfo;
 
+import java.nio.ByteBuffer;
+
 /**
  * Represents a structure containing an attribute (a name and raw byte data).
  *
@@ -39,7 +42,10 @@ public class AttributeStructure {
 
     private ClassInfo parent;
     private String name;
-    private byte[] content;
+    private ByteBuffer buffer;
+    private int offset;
+    private int length;
+    private volatile byte[] content;
 
     /**
      * Loads an {@link AttributeStructure}.
@@ -49,9 +55,29 @@ public class AttributeStructure {
      * @param content The raw content of this {@link AttributeStructure}
      */
     public AttributeStructure(ClassInfo parent, String name, byte[] content) {
+        this(parent, name, ByteBuffer.wrap(content), 0, content.length);
+        this.content = content;
+    }
+
+    /**
+     * Loads an {@link AttributeStructure} whose content is the given range
+     * of the given buffer.
+     *
+     * <p>The content is not copied out of the buffer until
+     * {@link #getContent()} is first called.</p>
+     *
+     * @param parent The parent {@link ClassInfo} instance
+     * @param name   The name of this {@link AttributeStructure}
+     * @param buffer The buffer containing the content of this {@link AttributeStructure}
+     * @param offset The absolute offset of the content within the buffer
+     * @param length The length in bytes of the content
+     */
+    public AttributeStructure(ClassInfo parent, String name, ByteBuffer buffer, int offset, int length) {
         this.parent = parent;
         this.name = name;
-        this.content = content;
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
     }
 
     /**
@@ -78,7 +104,42 @@ public class AttributeStructure {
      * @return The raw data of this {@link AttributeStructure}
      */
     public byte[] getContent() {
-        return this.content;
+        byte[] content = this.content;
+        if (content == null) {
+            content = Util.copyBytes(buffer, offset, length);
+            this.content = content;
+        }
+        return content;
+    }
+
+    /**
+     * Gets the buffer containing the raw data of this
+     * {@link AttributeStructure}.
+     *
+     * @return The buffer containing the raw data of this {@link AttributeStructure}
+     */
+    protected ByteBuffer getBuffer() {
+        return this.buffer;
+    }
+
+    /**
+     * Gets the absolute offset of the raw data of this
+     * {@link AttributeStructure} within its buffer.
+     *
+     * @return The offset of the raw data of this {@link AttributeStructure}
+     */
+    protected int getOffset() {
+        return this.offset;
+    }
+
+    /**
+     * Gets the length in bytes of the raw data of this
+     * {@link AttributeStructure}.
+     *
+     * @return The length in bytes of the raw data of this {@link AttributeStructure}
+     */
+    public int getLength() {
+        return this.length;
     }
 
 }
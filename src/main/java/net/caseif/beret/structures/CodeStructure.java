@@ -28,14 +28,13 @@
  */
 package net.caseif.beret.structures;
 
-import net.caseif.beret.Opcode;
 import net.caseif.beret.Util;
 import net.caseif.beret.wrapper.ClassInfo;
 import net.caseif.beret.wrapper.MethodInfo;
 import net.caseif.beret.wrapper.synthetic.ExceptionHandler;
 import net.caseif.beret.wrapper.synthetic.Instruction;
 
-import java.util.LinkedList;
+import java.nio.ByteBuffer;
 
 /**
  * Represents a Code attribute in a method.
@@ -52,7 +51,10 @@ public class CodeStructure extends AttributeStructure {
     private MethodInfo method;
     private int stackSize;
     private int localSize;
-    private Instruction[] code;
+    private int codeSize;
+
+    private volatile boolean decoded;
+    private InstructionStream instructions;
     private ExceptionHandler[] exceptionHandlers;
     private AttributeStructure[] attributes;
 
@@ -64,68 +66,89 @@ public class CodeStructure extends AttributeStructure {
      * @param info   The content of the new {@link CodeStructure}
      */
     public CodeStructure(MethodInfo parent, String name, byte[] info) {
-        super(parent.getParent(), name, info);
+        this(parent, name, ByteBuffer.wrap(info), 0, info.length);
+    }
+
+    /**
+     * Creates a new {@link CodeStructure} with the given name, with its
+     * content being the given range of the given buffer.
+     *
+     * @param parent The parent {@link ClassInfo} instance
+     * @param name   The name of the new {@link CodeStructure}
+     * @param buffer The buffer containing the content of the new {@link CodeStructure}
+     * @param offset The absolute offset of the content within the buffer
+     * @param length The length in bytes of the content
+     */
+    public CodeStructure(MethodInfo parent, String name, ByteBuffer buffer, int offset, int length) {
+        super(parent.getParent(), name, buffer, offset, length);
         this.method = parent;
-        this.stackSize = Util.bytesToUshort(info[0], info[1]);
-        this.localSize = Util.bytesToUshort(info[2], info[3]);
-        long codeSize = Util.bytesToUint(info[4], info[5], info[6], info[7]);
+        this.stackSize = Util.readUshort(buffer, offset);
+        this.localSize = Util.readUshort(buffer, offset + 2);
+        long codeSize = Util.readUint(buffer, offset + 4);
         if (codeSize > Integer.MAX_VALUE) {
             throw new UnsupportedOperationException("Code attribute is too long");
         }
-        LinkedList<Instruction> instrs = new LinkedList<>();
-        for (int i = 0; i < codeSize; i++) {
-            Opcode opcode = Opcode.fromByte(info[i + HEADER_LENGTH]);
-            if (opcode == null) {
-                System.err.println("Unrecognized opcode 0x" + Util.bytesToHex(new byte[]{info[i + HEADER_LENGTH]})
-                        + " at offset " + i + " for method " + parent.getName() + parent.getDescriptor());
-                instrs.add(new Instruction(Opcode.UNKNOWN, i));
-                continue;
-            }
-            int extra = opcode.getAdditionalBytes();
-            if (extra == -1) {
-                throw new UnsupportedOperationException("Unsupported opcode: " + opcode.toString()); //TODO
+        this.codeSize = (int)codeSize;
+    }
+
+    /**
+     * Decodes the instructions, exception handlers, and attributes of this
+     * {@link CodeStructure} if they have not yet been decoded.
+     */
+    private void decode() {
+        if (decoded) {
+            return;
+        }
+        synchronized (this) {
+            if (!decoded) {
+                decodeBody();
+                decoded = true; // volatile write publishes the decoded arrays to other threads
             }
-            byte[] extraBytes = new byte[extra];
-            System.arraycopy(info, i + HEADER_LENGTH + 1, extraBytes, 0, extra);
-            i += extra;
-            instrs.add(new Instruction(opcode, i - extra, extraBytes));
         }
-        code = new Instruction[instrs.size()];
-        instrs.toArray(code);
-        int offset = (int)(HEADER_LENGTH + codeSize);
-        int exceptionTableLength = Util.bytesToUshort(info[offset], info[offset + 1]);
+    }
+
+    /**
+     * Decodes the instructions, exception handlers, and attributes of this
+     * {@link CodeStructure}.
+     */
+    private void decodeBody() {
+        ByteBuffer buffer = getBuffer();
+        MethodInfo parent = method;
+        int codeStart = getOffset() + HEADER_LENGTH;
+        instructions = new InstructionStream(parent, buffer, codeStart, codeSize);
+        int offset = codeStart + codeSize;
+        int exceptionTableLength = Util.readUshort(buffer, offset);
         offset += 2;
         exceptionHandlers = new ExceptionHandler[exceptionTableLength];
         for (int i = 0; i < exceptionTableLength; i++) {
-            int startIndex = Util.bytesToUshort(info[offset + i], info[offset + 1 + i]);
-            int endIndex = Util.bytesToUshort(info[offset + 2 + i], info[offset + 3 + i]);
-            int handlerStartIndex = Util.bytesToUshort(info[offset + 4 + i], info[offset + 5 + i]);
-            int catchType = Util.bytesToUshort(info[offset + 6 + i], info[offset + 7 + i]);
-            byte[] classRef = getParent().getFromPool(catchType).getContent();
-            String catchTypeName = getParent().getFromPool(classRef).toString();
+            int startIndex = Util.readUshort(buffer, offset);
+            int endIndex = Util.readUshort(buffer, offset + 2);
+            int handlerStartIndex = Util.readUshort(buffer, offset + 4);
+            int catchType = Util.readUshort(buffer, offset + 6);
+            String catchTypeName = null; // a catch type of 0 denotes a handler for all exceptions (i.e. finally)
+            if (catchType > 0) {
+                catchTypeName = getParent().getPool().classNameAt(catchType);
+            }
             exceptionHandlers[i] = new ExceptionHandler(
                     method, startIndex, endIndex, handlerStartIndex, catchTypeName
             );
             offset += 8;
         }
-        int attributeCount = Util.bytesToUshort(info[offset], info[offset + 1]);
+        int attributeCount = Util.readUshort(buffer, offset);
         offset += 2;
         attributes = new AttributeStructure[attributeCount];
         for (int i = 0; i < attributeCount; i++) {
-            int namePointer = Util.bytesToUshort(info[offset], info[offset + 1]);
-            String attrName = getParent().getFromPool(namePointer).toString();
+            int namePointer = Util.readUshort(buffer, offset);
+            String attrName = getParent().getPool().utf8At(namePointer);
             offset += 2;
             //TODO: add support for long arrays
-            long infoLength = Util.bytesToUint(info[offset], info[offset + 1],
-                    info[offset + 2], info[offset + 3]);
+            long infoLength = Util.readUint(buffer, offset);
             if (infoLength > Integer.MAX_VALUE) {
                 throw new UnsupportedOperationException("Attribute is too long");
             }
             offset += 4;
-            byte[] finalInfo = new byte[(int)infoLength];
-            System.arraycopy(info, offset, finalInfo, 0, (int)infoLength);
+            attributes[i] = new AttributeStructure(this.getParent(), attrName, buffer, offset, (int)infoLength);
             offset += infoLength;
-            attributes[i] = new AttributeStructure(this.getParent(), attrName, finalInfo);
         }
     }
 
@@ -156,13 +179,30 @@ public class CodeStructure extends AttributeStructure {
         return this.localSize;
     }
 
+    /**
+     * Returns the {@link InstructionStream} defined by this {@link CodeStructure}.
+     *
+     * <p>The bytecode is not decoded until this method, {@link #getCode()},
+     * {@link #getExceptionHandlers()}, or {@link #getAttributes()} is first
+     * called.</p>
+     *
+     * @return The {@link InstructionStream} defined by this {@link CodeStructure}
+     */
+    public InstructionStream getInstructions() {
+        decode();
+        return this.instructions;
+    }
+
     /**
      * Returns an array containing {@link Instruction}s defined by this {@link CodeStructure}.
      *
+     * <p>The {@link Instruction}s are created anew on each call; prefer
+     * {@link #getInstructions()} where possible.</p>
+     *
      * @return An array containing {@link Instruction}s defined by this {@link CodeStructure}.
      */
     public Instruction[] getCode() {
-        return this.code;
+        return getInstructions().toArray();
     }
 
     /**
@@ -171,6 +211,7 @@ public class CodeStructure extends AttributeStructure {
      * @return An array containing this {@link CodeStructure}'s {@link ExceptionHandler}s
      */
     public ExceptionHandler[] getExceptionHandlers() {
+        decode();
         return this.exceptionHandlers;
     }
 
@@ -180,6 +221,7 @@ public class CodeStructure extends AttributeStructure {
      * @return An array containing this {@link CodeStructure}'s defined attributes
      */
     public AttributeStructure[] getAttributes() {
+        decode();
         return this.attributes;
     }
 
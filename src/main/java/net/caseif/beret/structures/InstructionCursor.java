@@ -0,0 +1,287 @@
+/*
+ * New BSD License (BSD-new)
+ *
+ * Copyright (c) 2015 Maxim Roncacé
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     - Neither the name of the copyright holder nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.caseif.beret.structures;
+
+import net.caseif.beret.Opcode;
+
+/**
+ * A reusable, forward-only cursor over an {@link InstructionStream}.
+ *
+ * <p>Advancing the cursor allocates nothing, so a single cursor may be used to
+ * walk method bodies of any size.</p>
+ *
+ * @author Max Roncacé
+ */
+public class InstructionCursor {
+
+    private final InstructionStream stream;
+    private int index = -1;
+
+    /**
+     * Creates a new cursor positioned before the first instruction of the
+     * given stream.
+     *
+     * @param stream The stream to iterate
+     */
+    public InstructionCursor(InstructionStream stream) {
+        this.stream = stream;
+    }
+
+    /**
+     * Advances this cursor to the next instruction.
+     *
+     * @return <code>true</code> if the cursor now points to an instruction,
+     *     <code>false</code> if the end of the stream has been reached
+     */
+    public boolean next() {
+        if (index < stream.size()) {
+            ++index;
+        }
+        return index < stream.size();
+    }
+
+    /**
+     * Moves this cursor back to before the first instruction.
+     */
+    public void reset() {
+        index = -1;
+    }
+
+    /**
+     * Moves this cursor so that the next call to {@link #next()} will
+     * position it at the instruction with the given index.
+     *
+     * @param index The index of the instruction to move to next
+     */
+    public void seek(int index) {
+        if (index < 0 || index > stream.size()) {
+            throw new IndexOutOfBoundsException("Instruction index " + index + " out of bounds");
+        }
+        this.index = index - 1;
+    }
+
+    /**
+     * Returns the index of the current instruction.
+     *
+     * @return The index of the current instruction
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Returns the {@link Opcode} of the current instruction.
+     *
+     * @return The {@link Opcode} of the current instruction
+     */
+    public Opcode getOpcode() {
+        return stream.getOpcode(index);
+    }
+
+    /**
+     * Returns the raw opcode byte of the current instruction.
+     *
+     * @return The raw opcode byte of the current instruction
+     */
+    public byte getOpcodeByte() {
+        return stream.getOpcodeByte(index);
+    }
+
+    /**
+     * Returns the offset of the current instruction relative to the start of
+     * the code.
+     *
+     * @return The offset of the current instruction
+     */
+    public int getOffset() {
+        return stream.getOffset(index);
+    }
+
+    /**
+     * Returns the number of operand bytes of the current instruction.
+     *
+     * @return The number of operand bytes of the current instruction
+     */
+    public int getOperandLength() {
+        return stream.getOperandLength(index);
+    }
+
+    /**
+     * Reads a signed byte from the operands of the current instruction.
+     *
+     * @param position The position of the byte within the operands
+     * @return The signed byte at the given position
+     */
+    public byte getOperandByte(int position) {
+        return stream.getOperandByte(index, position);
+    }
+
+    /**
+     * Reads an unsigned byte from the operands of the current instruction.
+     *
+     * @param position The position of the byte within the operands
+     * @return The unsigned byte at the given position
+     */
+    public int getOperandUbyte(int position) {
+        return stream.getOperandUbyte(index, position);
+    }
+
+    /**
+     * Reads a signed short from the operands of the current instruction.
+     *
+     * @param position The position of the short within the operands
+     * @return The signed short at the given position
+     */
+    public short getOperandShort(int position) {
+        return stream.getOperandShort(index, position);
+    }
+
+    /**
+     * Reads an unsigned short from the operands of the current instruction.
+     *
+     * @param position The position of the short within the operands
+     * @return The unsigned short at the given position
+     */
+    public int getOperandUshort(int position) {
+        return stream.getOperandUshort(index, position);
+    }
+
+    /**
+     * Reads a signed int from the operands of the current instruction.
+     *
+     * @param position The position of the int within the operands
+     * @return The signed int at the given position
+     */
+    public int getOperandInt(int position) {
+        return stream.getOperandInt(index, position);
+    }
+
+    /**
+     * Returns the opcode modified by the current <code>wide</code>
+     * instruction.
+     *
+     * @return The opcode modified by the current instruction
+     * @throws IllegalArgumentException If the current instruction is not
+     *     <code>wide</code>
+     * @see InstructionStream#getWideOpcode(int)
+     */
+    public Opcode getWideOpcode() throws IllegalArgumentException {
+        return stream.getWideOpcode(index);
+    }
+
+    /**
+     * Returns the local variable index accessed by the current
+     * <code>wide</code> instruction.
+     *
+     * @return The local variable index accessed by the current instruction
+     * @throws IllegalArgumentException If the current instruction is not
+     *     <code>wide</code>
+     * @see InstructionStream#getWideLocalIndex(int)
+     */
+    public int getWideLocalIndex() throws IllegalArgumentException {
+        return stream.getWideLocalIndex(index);
+    }
+
+    /**
+     * Returns the constant added by the current <code>wide iinc</code>
+     * instruction.
+     *
+     * @return The constant added by the current instruction
+     * @throws IllegalArgumentException If the current instruction is not
+     *     <code>wide iinc</code>
+     * @see InstructionStream#getWideIncrement(int)
+     */
+    public int getWideIncrement() throws IllegalArgumentException {
+        return stream.getWideIncrement(index);
+    }
+
+    /**
+     * Returns the number of cases, excluding the default, of the current
+     * switch instruction.
+     *
+     * @return The number of cases of the current instruction
+     * @throws IllegalArgumentException If the current instruction is not a
+     *     switch
+     * @see InstructionStream#getSwitchCaseCount(int)
+     */
+    public int getSwitchCaseCount() throws IllegalArgumentException {
+        return stream.getSwitchCaseCount(index);
+    }
+
+    /**
+     * Returns the key matched by the given case of the current switch
+     * instruction.
+     *
+     * @param n The index of the case
+     * @return The key matched by the case
+     * @throws IllegalArgumentException If the current instruction is not a
+     *     switch
+     * @see InstructionStream#getSwitchCaseKey(int, int)
+     */
+    public int getSwitchCaseKey(int n) throws IllegalArgumentException {
+        return stream.getSwitchCaseKey(index, n);
+    }
+
+    /**
+     * Returns the code offset jumped to by the given case of the current
+     * switch instruction.
+     *
+     * @param n The index of the case
+     * @return The offset jumped to, relative to the start of the code
+     * @throws IllegalArgumentException If the current instruction is not a
+     *     switch
+     * @see InstructionStream#getSwitchCaseTarget(int, int)
+     */
+    public int getSwitchCaseTarget(int n) throws IllegalArgumentException {
+        return stream.getSwitchCaseTarget(index, n);
+    }
+
+    /**
+     * Returns the code offset jumped to when no case of the current switch
+     * instruction matches.
+     *
+     * @return The offset jumped to, relative to the start of the code
+     * @throws IllegalArgumentException If the current instruction is not a
+     *     switch
+     * @see InstructionStream#getSwitchDefaultTarget(int)
+     */
+    public int getSwitchDefaultTarget() throws IllegalArgumentException {
+        return stream.getSwitchDefaultTarget(index);
+    }
+
+    /**
+     * Returns a copy of the operand bytes of the current instruction.
+     *
+     * @return A copy of the operand bytes of the current instruction
+     */
+    public byte[] getOperandBytes() {
+        return stream.getOperandBytes(index);
+    }
+
+}
@@ -0,0 +1,511 @@
+/*
+ * New BSD License (BSD-new)
+ *
+ * Copyright (c) 2015 Maxim Roncacé
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     - Neither the name of the copyright holder nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.caseif.beret.structures;
+
+import net.caseif.beret.Opcode;
+import net.caseif.beret.Util;
+import net.caseif.beret.wrapper.MethodInfo;
+import net.caseif.beret.wrapper.synthetic.Instruction;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A compact, read-only sequence of the instructions in a method body.
+ *
+ * <p>Opcodes and their offsets are stored in parallel primitive arrays, and
+ * operands are read by index directly from the underlying code bytes, so no
+ * objects are allocated per instruction. {@link Instruction} objects may still
+ * be created on demand through {@link #getInstruction(int)}.</p>
+ *
+ * @author Max Roncacé
+ */
+public class InstructionStream {
+
+    private final ByteBuffer buffer;
+    private final int codeStart;
+    private final int codeLength;
+
+    private final byte[] opcodes;
+    private final int[] offsets;
+
+    /**
+     * Decodes the instruction boundaries of the given range of the given
+     * buffer.
+     *
+     * @param method The method the code belongs to
+     * @param buffer The buffer containing the code
+     * @param offset The absolute offset of the first instruction
+     * @param length The length of the code in bytes
+     * @throws IllegalArgumentException If the code contains a malformed
+     *     instruction of variable length
+     */
+    public InstructionStream(MethodInfo method, ByteBuffer buffer, int offset, int length)
+            throws IllegalArgumentException {
+        this.buffer = buffer;
+        this.codeStart = offset;
+        this.codeLength = length;
+        byte[] opcodes = new byte[length];
+        int[] offsets = new int[length];
+        int count = 0;
+        for (int i = 0; i < length; i++) {
+            byte code = buffer.get(offset + i);
+            opcodes[count] = code;
+            offsets[count] = i;
+            ++count;
+            if (!Opcode.isDefined(code & 0xFF)) {
+                System.err.println("Unrecognized opcode 0x" + Util.bytesToHex(new byte[]{code})
+                        + " at offset " + i + " for method " + method.getName() + method.getDescriptor());
+                continue;
+            }
+            int extra = Opcode.getAdditionalBytes(code & 0xFF);
+            if (extra == -1) {
+                extra = getVariableOperandLength(buffer, offset, i, length);
+            }
+            i += extra;
+        }
+        if (count < length) {
+            opcodes = Arrays.copyOf(opcodes, count);
+            offsets = Arrays.copyOf(offsets, count);
+        }
+        this.opcodes = opcodes;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Computes the total length in bytes of the instruction at the given
+     * offset of the given code, including its opcode. Unrecognized opcodes
+     * are treated as having no operands.
+     *
+     * @param buffer     The buffer containing the code
+     * @param codeStart  The absolute offset of the first instruction
+     * @param pos        The offset of the instruction relative to the start
+     *                   of the code
+     * @param codeLength The length of the code in bytes
+     * @return The length of the instruction
+     * @throws IllegalArgumentException If the instruction is malformed
+     */
+    public static int getInstructionLength(ByteBuffer buffer, int codeStart, int pos, int codeLength)
+            throws IllegalArgumentException {
+        int code = buffer.get(codeStart + pos) & 0xFF;
+        int extra = Opcode.getAdditionalBytes(code);
+        if (extra == -1) {
+            extra = getVariableOperandLength(buffer, codeStart, pos, codeLength);
+        }
+        return 1 + extra;
+    }
+
+    /**
+     * Computes the number of operand bytes following a
+     * <code>tableswitch</code>, <code>lookupswitch</code>, or
+     * <code>wide</code> instruction.
+     *
+     * @param buffer     The buffer containing the code
+     * @param codeStart  The absolute offset of the first instruction
+     * @param pos        The offset of the instruction relative to the start
+     *                   of the code
+     * @param codeLength The length of the code in bytes
+     * @return The number of operand bytes following the instruction
+     * @throws IllegalArgumentException If the instruction is malformed
+     */
+    private static int getVariableOperandLength(ByteBuffer buffer, int codeStart, int pos, int codeLength)
+            throws IllegalArgumentException {
+        byte code = buffer.get(codeStart + pos);
+        long extra;
+        if (code == Opcode.WIDE.getByteCode()) {
+            if (pos + 1 >= codeLength) {
+                throw new IllegalArgumentException("Truncated wide instruction at offset " + pos);
+            }
+            // iinc takes a constant after its index, and both are widened to shorts
+            extra = buffer.get(codeStart + pos + 1) == Opcode.IINC.getByteCode() ? 5 : 3;
+        } else {
+            int padding = getSwitchPadding(pos);
+            int headerLength = code == Opcode.TABLESWITCH.getByteCode() ? 12 : 8;
+            if (pos + padding + headerLength >= codeLength) {
+                throw new IllegalArgumentException("Truncated switch instruction at offset " + pos);
+            }
+            int tableStart = codeStart + pos + 1 + padding;
+            if (code == Opcode.TABLESWITCH.getByteCode()) {
+                long low = buffer.getInt(tableStart + 4);
+                long high = buffer.getInt(tableStart + 8);
+                if (high < low) {
+                    throw new IllegalArgumentException("Bad tableswitch bounds at offset " + pos);
+                }
+                extra = padding + 12 + (high - low + 1) * 4;
+            } else {
+                long pairs = buffer.getInt(tableStart + 4);
+                if (pairs < 0) {
+                    throw new IllegalArgumentException("Bad lookupswitch pair count at offset " + pos);
+                }
+                extra = padding + 8 + pairs * 8;
+            }
+        }
+        if (pos + extra >= codeLength) {
+            throw new IllegalArgumentException("Truncated instruction at offset " + pos);
+        }
+        return (int)extra;
+    }
+
+    /**
+     * Returns the number of padding bytes following a switch opcode at the
+     * given offset, which align its operands to a multiple of four bytes from
+     * the start of the code.
+     *
+     * @param pos The offset of the switch opcode relative to the start of the
+     *            code
+     * @return The number of padding bytes following the opcode
+     */
+    private static int getSwitchPadding(int pos) {
+        return 3 - (pos & 3);
+    }
+
+    /**
+     * Returns the number of instructions in this stream.
+     *
+     * @return The number of instructions in this stream
+     */
+    public int size() {
+        return opcodes.length;
+    }
+
+    /**
+     * Returns the length in bytes of the code this stream was decoded from.
+     *
+     * @return The length in bytes of the code
+     */
+    public int getCodeLength() {
+        return codeLength;
+    }
+
+    /**
+     * Returns the raw opcode byte of the instruction at the given index.
+     *
+     * @param index The index of the instruction
+     * @return The raw opcode byte of the instruction
+     */
+    public byte getOpcodeByte(int index) {
+        return opcodes[index];
+    }
+
+    /**
+     * Returns the {@link Opcode} of the instruction at the given index, or
+     * {@link Opcode#UNKNOWN} if the opcode byte is not recognized.
+     *
+     * @param index The index of the instruction
+     * @return The {@link Opcode} of the instruction
+     */
+    public Opcode getOpcode(int index) {
+        Opcode opcode = Opcode.fromByte(opcodes[index]);
+        return opcode != null ? opcode : Opcode.UNKNOWN;
+    }
+
+    /**
+     * Returns the offset of the instruction at the given index, relative to
+     * the start of the code.
+     *
+     * @param index The index of the instruction
+     * @return The offset of the instruction
+     */
+    public int getOffset(int index) {
+        return offsets[index];
+    }
+
+    /**
+     * Returns the number of operand bytes following the opcode of the
+     * instruction at the given index.
+     *
+     * @param index The index of the instruction
+     * @return The number of operand bytes of the instruction
+     */
+    public int getOperandLength(int index) {
+        int next = index + 1 < offsets.length ? offsets[index + 1] : codeLength;
+        return next - offsets[index] - 1;
+    }
+
+    /**
+     * Reads a signed byte from the operands of the instruction at the given
+     * index.
+     *
+     * @param index    The index of the instruction
+     * @param position The position of the byte within the operands
+     * @return The signed byte at the given position
+     */
+    public byte getOperandByte(int index, int position) {
+        return buffer.get(operandOffset(index, position));
+    }
+
+    /**
+     * Reads an unsigned byte from the operands of the instruction at the
+     * given index.
+     *
+     * @param index    The index of the instruction
+     * @param position The position of the byte within the operands
+     * @return The unsigned byte at the given position
+     */
+    public int getOperandUbyte(int index, int position) {
+        return buffer.get(operandOffset(index, position)) & 0xFF;
+    }
+
+    /**
+     * Reads a signed short from the operands of the instruction at the given
+     * index.
+     *
+     * @param index    The index of the instruction
+     * @param position The position of the short within the operands
+     * @return The signed short at the given position
+     */
+    public short getOperandShort(int index, int position) {
+        return buffer.getShort(operandOffset(index, position));
+    }
+
+    /**
+     * Reads an unsigned short from the operands of the instruction at the
+     * given index.
+     *
+     * @param index    The index of the instruction
+     * @param position The position of the short within the operands
+     * @return The unsigned short at the given position
+     */
+    public int getOperandUshort(int index, int position) {
+        return Util.readUshort(buffer, operandOffset(index, position));
+    }
+
+    /**
+     * Reads a signed int from the operands of the instruction at the given
+     * index.
+     *
+     * @param index    The index of the instruction
+     * @param position The position of the int within the operands
+     * @return The signed int at the given position
+     */
+    public int getOperandInt(int index, int position) {
+        return buffer.getInt(operandOffset(index, position));
+    }
+
+    /**
+     * Returns a copy of the operand bytes of the instruction at the given
+     * index.
+     *
+     * @param index The index of the instruction
+     * @return A copy of the operand bytes of the instruction
+     */
+    public byte[] getOperandBytes(int index) {
+        return Util.copyBytes(buffer, codeStart + offsets[index] + 1, getOperandLength(index));
+    }
+
+    /**
+     * Returns the opcode modified by the <code>wide</code> instruction at the
+     * given index.
+     *
+     * @param index The index of the instruction
+     * @return The opcode modified by the instruction
+     * @throws IllegalArgumentException If the instruction is not
+     *     <code>wide</code>
+     */
+    public Opcode getWideOpcode(int index) throws IllegalArgumentException {
+        if (opcodes[index] != Opcode.WIDE.getByteCode()) {
+            throw new IllegalArgumentException("Instruction " + index + " is not wide");
+        }
+        return Opcode.fromByte(getOperandByte(index, 0));
+    }
+
+    /**
+     * Returns the local variable index accessed by the <code>wide</code>
+     * instruction at the given index.
+     *
+     * @param index The index of the instruction
+     * @return The local variable index accessed by the instruction
+     * @throws IllegalArgumentException If the instruction is not
+     *     <code>wide</code>
+     */
+    public int getWideLocalIndex(int index) throws IllegalArgumentException {
+        getWideOpcode(index);
+        return getOperandUshort(index, 1);
+    }
+
+    /**
+     * Returns the constant added by the <code>wide iinc</code> instruction at
+     * the given index.
+     *
+     * @param index The index of the instruction
+     * @return The constant added by the instruction
+     * @throws IllegalArgumentException If the instruction is not
+     *     <code>wide iinc</code>
+     */
+    public int getWideIncrement(int index) throws IllegalArgumentException {
+        if (getWideOpcode(index) != Opcode.IINC) {
+            throw new IllegalArgumentException("Instruction " + index + " is not wide iinc");
+        }
+        return getOperandShort(index, 3);
+    }
+
+    /**
+     * Returns the number of cases, excluding the default, of the switch
+     * instruction at the given index.
+     *
+     * @param index The index of the instruction
+     * @return The number of cases of the instruction
+     * @throws IllegalArgumentException If the instruction is not a switch
+     */
+    public int getSwitchCaseCount(int index) throws IllegalArgumentException {
+        int table = getSwitchTableStart(index);
+        if (opcodes[index] == Opcode.TABLESWITCH.getByteCode()) {
+            return buffer.getInt(table + 8) - buffer.getInt(table + 4) + 1;
+        } else {
+            return buffer.getInt(table + 4);
+        }
+    }
+
+    /**
+     * Returns the key matched by the given case of the switch instruction at
+     * the given index.
+     *
+     * @param index The index of the instruction
+     * @param n     The index of the case
+     * @return The key matched by the case
+     * @throws IllegalArgumentException If the instruction is not a switch
+     */
+    public int getSwitchCaseKey(int index, int n) throws IllegalArgumentException {
+        int table = getSwitchTableStart(index);
+        checkCase(index, n);
+        if (opcodes[index] == Opcode.TABLESWITCH.getByteCode()) {
+            return buffer.getInt(table + 4) + n;
+        } else {
+            return buffer.getInt(table + 8 + n * 8);
+        }
+    }
+
+    /**
+     * Returns the code offset jumped to by the given case of the switch
+     * instruction at the given index.
+     *
+     * @param index The index of the instruction
+     * @param n     The index of the case
+     * @return The offset jumped to, relative to the start of the code
+     * @throws IllegalArgumentException If the instruction is not a switch
+     */
+    public int getSwitchCaseTarget(int index, int n) throws IllegalArgumentException {
+        int table = getSwitchTableStart(index);
+        checkCase(index, n);
+        if (opcodes[index] == Opcode.TABLESWITCH.getByteCode()) {
+            return offsets[index] + buffer.getInt(table + 12 + n * 4);
+        } else {
+            return offsets[index] + buffer.getInt(table + 12 + n * 8);
+        }
+    }
+
+    /**
+     * Returns the code offset jumped to when no case of the switch
+     * instruction at the given index matches.
+     *
+     * @param index The index of the instruction
+     * @return The offset jumped to, relative to the start of the code
+     * @throws IllegalArgumentException If the instruction is not a switch
+     */
+    public int getSwitchDefaultTarget(int index) throws IllegalArgumentException {
+        return offsets[index] + buffer.getInt(getSwitchTableStart(index));
+    }
+
+    /**
+     * Returns the absolute offset of the aligned operands of the switch
+     * instruction at the given index.
+     *
+     * @param index The index of the instruction
+     * @return The absolute offset of the operands
+     * @throws IllegalArgumentException If the instruction is not a switch
+     */
+    private int getSwitchTableStart(int index) throws IllegalArgumentException {
+        byte code = opcodes[index];
+        if (code != Opcode.TABLESWITCH.getByteCode() && code != Opcode.LOOKUPSWITCH.getByteCode()) {
+            throw new IllegalArgumentException("Instruction " + index + " is not a switch");
+        }
+        return codeStart + offsets[index] + 1 + getSwitchPadding(offsets[index]);
+    }
+
+    private void checkCase(int index, int n) {
+        if (n < 0 || n >= getSwitchCaseCount(index)) {
+            throw new IndexOutOfBoundsException("Case " + n + " out of bounds for instruction " + index);
+        }
+    }
+
+    /**
+     * Returns the index of the instruction beginning at the given code
+     * offset, or a negative value if no instruction begins there.
+     *
+     * @param offset The offset relative to the start of the code
+     * @return The index of the instruction at the given offset
+     */
+    public int indexOf(int offset) {
+        return Arrays.binarySearch(offsets, offset);
+    }
+
+    /**
+     * Creates a new {@link Instruction} object for the instruction at the
+     * given index.
+     *
+     * @param index The index of the instruction
+     * @return A new {@link Instruction} for the instruction
+     */
+    public Instruction getInstruction(int index) {
+        return new Instruction(getOpcode(index), offsets[index], getOperandBytes(index));
+    }
+
+    /**
+     * Creates a new {@link Instruction} object for every instruction in this
+     * stream.
+     *
+     * @return An array of new {@link Instruction}s
+     */
+    public Instruction[] toArray() {
+        Instruction[] instrs = new Instruction[opcodes.length];
+        for (int i = 0; i < instrs.length; i++) {
+            instrs[i] = getInstruction(i);
+        }
+        return instrs;
+    }
+
+    /**
+     * Creates a new cursor positioned before the first instruction of this
+     * stream.
+     *
+     * @return A new {@link InstructionCursor}
+     */
+    public InstructionCursor cursor() {
+        return new InstructionCursor(this);
+    }
+
+    private int operandOffset(int index, int position) {
+        if (position < 0 || position >= getOperandLength(index)) {
+            throw new IndexOutOfBoundsException("Operand position " + position + " out of bounds for instruction "
+                    + index);
+        }
+        return codeStart + offsets[index] + 1 + position;
+    }
+
+}
@@ -30,16 +30,22 @@ package net.caseif.beret.structures.constant;
 
 import net.caseif.beret.wrapper.ClassInfo;
 
+import java.nio.ByteBuffer;
+
 /**
  * Represents a <code>CONSTANT_Class_info</code> structure.
  */
 public class ClassStructure extends ConstantStructure {
 
     public ClassStructure(ClassInfo parent, byte[] content) {
-        super(parent, StructureType.CLASS.getTag(), content);
+        this(parent, ByteBuffer.wrap(content), 0);
+    }
+
+    public ClassStructure(ClassInfo parent, ByteBuffer buffer, int offset) {
+        super(parent, StructureType.CLASS.getTag(), buffer, offset, StructureType.CLASS.getLength());
     }
 
     public Utf8Structure getName() {
-        return ((Utf8Structure)getParent().getFromPool(content));
+        return ((Utf8Structure)getParent().getFromPool(readUshort(0)));
     }
 }
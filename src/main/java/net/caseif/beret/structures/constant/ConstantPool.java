@@ -0,0 +1,376 @@
+/*
+ * New BSD License (BSD-new)
+ *
+ * Copyright (c) 2015 Maxim Roncacé
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     - Neither the name of the copyright holder nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.caseif.beret.structures.constant;
+
+import net.caseif.beret.Util;
+import net.caseif.beret.wrapper.ClassInfo;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Represents the constant pool of a class file.
+ *
+ * <p>The pool is indexed in a single pass which records the tag and offset
+ * of each entry in primitive arrays. Entries may then be read directly
+ * from the class file through the typed accessors of this class, such as
+ * {@link #utf8At(int)} and {@link #classNameAt(int)}, without any
+ * intermediate objects being created. {@link ConstantStructure}s are only
+ * created as views when requested through {@link #get(int)}.</p>
+ *
+ * @author Max Roncacé
+ */
+public class ConstantPool {
+
+    private final ClassInfo parent;
+    private final ByteBuffer buffer;
+    private final SymbolTable symbols;
+
+    private final byte[] tags;
+    private final int[] offsets;
+    private final String[] strings;
+
+    private final int endOffset;
+
+    /**
+     * Indexes the constant pool beginning at the given offset of the given
+     * buffer.
+     *
+     * @param parent The parent {@link ClassInfo} of the new {@link ConstantPool}
+     * @param buffer The buffer containing the constant pool
+     * @param offset The absolute offset of the pool size, which immediately precedes the first entry
+     * @throws IllegalArgumentException If the pool contains an entry with an invalid tag
+     */
+    public ConstantPool(ClassInfo parent, ByteBuffer buffer, int offset) throws IllegalArgumentException {
+        this(parent, buffer, offset, null);
+    }
+
+    /**
+     * Indexes the constant pool beginning at the given offset of the given
+     * buffer, interning its UTF-8 entries in the given {@link SymbolTable}.
+     *
+     * @param parent  The parent {@link ClassInfo} of the new {@link ConstantPool}
+     * @param buffer  The buffer containing the constant pool
+     * @param offset  The absolute offset of the pool size, which immediately precedes the first entry
+     * @param symbols The table to intern UTF-8 entries in, or <code>null</code> to not intern them
+     * @throws IllegalArgumentException If the pool contains an entry with an invalid tag
+     */
+    public ConstantPool(ClassInfo parent, ByteBuffer buffer, int offset, SymbolTable symbols)
+            throws IllegalArgumentException {
+        this.parent = parent;
+        this.buffer = buffer;
+        this.symbols = symbols;
+        int poolSize = Util.readUshort(buffer, offset) - 1; // indices start at 1 for whatever reason
+        offset += 2;
+        tags = new byte[poolSize];
+        offsets = new int[poolSize];
+        strings = new String[poolSize];
+        for (int i = 0; i < poolSize; i++) {
+            byte tag = buffer.get(offset); // get the tag of the current structure
+            ++offset; // move the offset to the content start
+            ConstantStructure.StructureType type = ConstantStructure.StructureType.fromTag(tag);
+            if (type == null) {
+                throw new IllegalArgumentException("Bad tag " + tag + " at constant pool index " + (i + 1));
+            }
+            int length = type.getLength();
+            if (type == ConstantStructure.StructureType.UTF_8) {
+                length = Util.readUshort(buffer, offset);
+                offset += 2;
+            }
+            tags[i] = tag;
+            offsets[i] = offset;
+            offset += length; // move the offset to the next structure
+            if (type == ConstantStructure.StructureType.DOUBLE || type == ConstantStructure.StructureType.LONG) {
+                ++i; // doubles and longs take up two slots in the constant table
+            }
+        }
+        endOffset = offset;
+    }
+
+    /**
+     * Gets the number of slots in this pool, including the unusable slots
+     * following long and double entries.
+     *
+     * @return The number of slots in this pool
+     */
+    public int size() {
+        return tags.length;
+    }
+
+    /**
+     * Gets the absolute offset immediately following this pool in its
+     * buffer.
+     *
+     * @return The offset immediately following this pool
+     */
+    public int getEndOffset() {
+        return endOffset;
+    }
+
+    /**
+     * Gets the type of the entry at the given index.
+     *
+     * @param index The index of the entry, beginning at 1
+     * @return The type of the entry, or <code>null</code> if the index is an unusable slot
+     */
+    public ConstantStructure.StructureType getType(int index) {
+        byte tag = tags[index - 1];
+        return tag != 0 ? ConstantStructure.StructureType.fromTag(tag) : null;
+    }
+
+    /**
+     * Gets the absolute offset of the content of the entry at the given
+     * index within the class file.
+     *
+     * @param index The index of the entry, beginning at 1
+     * @return The offset of the entry's content
+     */
+    public int getOffset(int index) {
+        return offsets[index - 1];
+    }
+
+    /**
+     * Gets the length in bytes of the content of the entry at the given
+     * index.
+     *
+     * @param index The index of the entry, beginning at 1
+     * @return The length of the entry's content, or <code>0</code> if the index is an unusable slot
+     */
+    public int getLength(int index) {
+        ConstantStructure.StructureType type = getType(index);
+        if (type == null) {
+            return 0;
+        }
+        // the length of a UTF-8 entry immediately precedes its content
+        return type == ConstantStructure.StructureType.UTF_8
+                ? Util.readUshort(buffer, offsets[index - 1] - 2)
+                : type.getLength();
+    }
+
+    /**
+     * Creates a {@link ConstantStructure} view of the entry at the given
+     * index.
+     *
+     * <p>Views are not retained by this pool, so callers which only need
+     * the value of an entry should prefer the typed accessors.</p>
+     *
+     * @param index The index of the entry, beginning at 1
+     * @return A view of the entry at the given index, or <code>null</code> if the index is an unusable slot
+     */
+    public ConstantStructure get(int index) {
+        byte tag = tags[index - 1];
+        if (tag == 0) {
+            return null;
+        }
+        if (tag == ConstantStructure.StructureType.UTF_8.getTag()) {
+            return new Utf8Structure(parent, buffer, offsets[index - 1], getLength(index), utf8At(index));
+        }
+        return ConstantStructure.createConstantStructure(parent, tag, buffer, offsets[index - 1], getLength(index));
+    }
+
+    /**
+     * Creates views of every entry in this pool and returns them as an
+     * array, with array index 0 corresponding to pool index 1.
+     *
+     * @return An array containing every entry in this pool
+     */
+    public ConstantStructure[] toArray() {
+        ConstantStructure[] array = new ConstantStructure[tags.length];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = get(i + 1);
+        }
+        return array;
+    }
+
+    /**
+     * Gets the string value of the UTF-8 entry at the given index, decoding
+     * it if this is the first time it has been requested.
+     *
+     * @param index The index of the entry, beginning at 1
+     * @return The string value of the entry
+     * @throws IllegalArgumentException If the entry is not a UTF-8 entry
+     */
+    public String utf8At(int index) throws IllegalArgumentException {
+        String value = strings[index - 1];
+        if (value == null) {
+            int offset = offsetOf(index, ConstantStructure.StructureType.UTF_8);
+            int length = Util.readUshort(buffer, offset - 2);
+            // racing threads may each decode the string, but either result is correct
+            value = symbols != null
+                    ? symbols.intern(buffer, offset, length)
+                    : Util.decodeModifiedUtf8(buffer, offset, length);
+            strings[index - 1] = value;
+        }
+        return value;
+    }
+
+    /**
+     * Gets the value of the integer entry at the given index.
+     *
+     * @param index The index of the entry, beginning at 1
+     * @return The value of the entry
+     * @throws IllegalArgumentException If the entry is not an integer entry
+     */
+    public int intAt(int index) throws IllegalArgumentException {
+        return buffer.getInt(offsetOf(index, ConstantStructure.StructureType.INTEGER));
+    }
+
+    /**
+     * Gets the value of the float entry at the given index.
+     *
+     * @param index The index of the entry, beginning at 1
+     * @return The value of the entry
+     * @throws IllegalArgumentException If the entry is not a float entry
+     */
+    public float floatAt(int index) throws IllegalArgumentException {
+        return buffer.getFloat(offsetOf(index, ConstantStructure.StructureType.FLOAT));
+    }
+
+    /**
+     * Gets the value of the long entry at the given index.
+     *
+     * @param index The index of the entry, beginning at 1
+     * @return The value of the entry
+     * @throws IllegalArgumentException If the entry is not a long entry
+     */
+    public long longAt(int index) throws IllegalArgumentException {
+        return buffer.getLong(offsetOf(index, ConstantStructure.StructureType.LONG));
+    }
+
+    /**
+     * Gets the value of the double entry at the given index.
+     *
+     * @param index The index of the entry, beginning at 1
+     * @return The value of the entry
+     * @throws IllegalArgumentException If the entry is not a double entry
+     */
+    public double doubleAt(int index) throws IllegalArgumentException {
+        return buffer.getDouble(offsetOf(index, ConstantStructure.StructureType.DOUBLE));
+    }
+
+    /**
+     * Gets the internal name of the class entry at the given index.
+     *
+     * @param index The index of the entry, beginning at 1
+     * @return The name of the class
+     * @throws IllegalArgumentException If the entry is not a class entry
+     */
+    public String classNameAt(int index) throws IllegalArgumentException {
+        return utf8At(Util.readUshort(buffer, offsetOf(index, ConstantStructure.StructureType.CLASS)));
+    }
+
+    /**
+     * Gets the value of the string entry at the given index.
+     *
+     * @param index The index of the entry, beginning at 1
+     * @return The value of the string
+     * @throws IllegalArgumentException If the entry is not a string entry
+     */
+    public String stringAt(int index) throws IllegalArgumentException {
+        return utf8At(Util.readUshort(buffer, offsetOf(index, ConstantStructure.StructureType.STRING)));
+    }
+
+    /**
+     * Gets the index of the class entry referenced by the field, method, or
+     * interface method reference at the given index.
+     *
+     * @param index The index of the reference entry, beginning at 1
+     * @return The index of the referenced class entry
+     * @throws IllegalArgumentException If the entry is not a member reference
+     */
+    public int classIndexAt(int index) throws IllegalArgumentException {
+        return Util.readUshort(buffer, memberRefOffset(index));
+    }
+
+    /**
+     * Gets the index of the name and type entry referenced by the field,
+     * method, interface method, or dynamic invocation reference at the given
+     * index.
+     *
+     * @param index The index of the reference entry, beginning at 1
+     * @return The index of the referenced name and type entry
+     * @throws IllegalArgumentException If the entry is not a member or dynamic invocation reference
+     */
+    public int nameAndTypeAt(int index) throws IllegalArgumentException {
+        if (tags[index - 1] == ConstantStructure.StructureType.INVOKE_DYNAMIC.getTag()) {
+            return Util.readUshort(buffer, offsets[index - 1] + 2);
+        }
+        return Util.readUshort(buffer, memberRefOffset(index) + 2);
+    }
+
+    /**
+     * Gets the name of the name and type entry at the given index.
+     *
+     * @param index The index of the name and type entry, beginning at 1
+     * @return The name referenced by the entry
+     * @throws IllegalArgumentException If the entry is not a name and type entry
+     */
+    public String nameAt(int index) throws IllegalArgumentException {
+        return utf8At(Util.readUshort(buffer, offsetOf(index, ConstantStructure.StructureType.NAME_AND_TYPE)));
+    }
+
+    /**
+     * Gets the descriptor of the name and type entry at the given index.
+     *
+     * @param index The index of the name and type entry, beginning at 1
+     * @return The descriptor referenced by the entry
+     * @throws IllegalArgumentException If the entry is not a name and type entry
+     */
+    public String descriptorAt(int index) throws IllegalArgumentException {
+        return utf8At(Util.readUshort(buffer, offsetOf(index, ConstantStructure.StructureType.NAME_AND_TYPE) + 2));
+    }
+
+    /**
+     * Gets the offset of the content of the entry at the given index,
+     * ensuring that it is of the given type.
+     *
+     * @param index    The index of the entry, beginning at 1
+     * @param expected The type the entry is expected to be of
+     * @return The offset of the entry's content
+     * @throws IllegalArgumentException If the entry is not of the expected type
+     */
+    private int offsetOf(int index, ConstantStructure.StructureType expected) throws IllegalArgumentException {
+        if (tags[index - 1] != expected.getTag()) {
+            throw new IllegalArgumentException("Constant pool entry " + index + " is of type " + getType(index)
+                    + ", not " + expected);
+        }
+        return offsets[index - 1];
+    }
+
+    private int memberRefOffset(int index) throws IllegalArgumentException {
+        byte tag = tags[index - 1];
+        if (tag != ConstantStructure.StructureType.FIELD_REF.getTag()
+                && tag != ConstantStructure.StructureType.METHOD_REF.getTag()
+                && tag != ConstantStructure.StructureType.INTERFACE_METHOD_REF.getTag()) {
+            throw new IllegalArgumentException("Constant pool entry " + index + " is of type " + getType(index)
+                    + ", not a member reference");
+        }
+        return offsets[index - 1];
+    }
+
+}
@@ -28,10 +28,10 @@
  */
 package net.caseif.beret.structures.constant;
 
+import net.caseif.beret.Util;
 import net.caseif.beret.wrapper.ClassInfo;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.nio.ByteBuffer;
 
 /**
  * Represents a structure containing a constant value.
@@ -42,7 +42,9 @@ public class ConstantStructure {
 
     protected final ClassInfo parent;
     protected final StructureType type;
-    protected final byte[] content;
+    protected final ByteBuffer buffer;
+    protected final int offset;
+    private final int length;
 
     /**
      * Creates a new {@link ConstantStructure} with a type and length inferred from the given byte tag.
@@ -54,12 +56,30 @@ public class ConstantStructure {
      *                                  be supplied)
      */
     public ConstantStructure(ClassInfo parent, byte tag, byte[] content) throws IllegalArgumentException {
+        this(parent, tag, ByteBuffer.wrap(content), 0, content.length);
+    }
+
+    /**
+     * Creates a new {@link ConstantStructure} which acts as a view of the
+     * given range of the given buffer.
+     *
+     * @param parent The parent {@link ClassInfo} of this {@link ConstantStructure}
+     * @param tag    The byte tag denoting this structure's type
+     * @param buffer The buffer containing the content of this {@link ConstantStructure}
+     * @param offset The absolute offset of the content within the buffer
+     * @param length The length in bytes of the content
+     * @throws IllegalArgumentException If <code>tag</code> is not a valid structure tag
+     */
+    public ConstantStructure(ClassInfo parent, byte tag, ByteBuffer buffer, int offset, int length)
+            throws IllegalArgumentException {
         this.parent = parent;
         this.type = StructureType.fromTag(tag);
         if (this.type == null) {
             throw new IllegalArgumentException("Bad tag: " + tag);
         }
-        this.content = content;
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
     }
 
     /**
@@ -72,12 +92,12 @@ public class ConstantStructure {
     }
 
     /**
-     * Gets the content of this {@link ConstantStructure}.
+     * Gets a copy of the content of this {@link ConstantStructure}.
      *
      * @return The content of this {@link ConstantStructure}.
      */
     public byte[] getContent() {
-        return this.content;
+        return Util.copyBytes(buffer, offset, length);
     }
 
     /**
@@ -95,7 +115,18 @@ public class ConstantStructure {
      * @return The length in bytes of this {@link ConstantStructure}'s content
      */
     public int getLength() {
-        return type.getLength() > -1 ? type.getLength() : content.length;
+        return this.length;
+    }
+
+    /**
+     * Reads an unsigned short from the given position within this
+     * {@link ConstantStructure}'s content.
+     *
+     * @param position The position to read at, relative to the start of the content
+     * @return The value read
+     */
+    protected int readUshort(int position) {
+        return Util.readUshort(buffer, offset + position);
     }
 
     public static ConstantStructure createConstantStructure(ClassInfo parent, byte tag, byte[] content) {
@@ -137,6 +168,57 @@ public class ConstantStructure {
         }
     }
 
+    /**
+     * Creates a {@link ConstantStructure} of the type denoted by the given
+     * tag which acts as a view of the given range of the given buffer.
+     *
+     * @param parent The parent {@link ClassInfo} of the new {@link ConstantStructure}
+     * @param tag    The byte tag denoting the structure's type
+     * @param buffer The buffer containing the content of the structure
+     * @param offset The absolute offset of the content within the buffer
+     * @param length The length in bytes of the content
+     * @return The new {@link ConstantStructure}
+     */
+    public static ConstantStructure createConstantStructure(ClassInfo parent, byte tag, ByteBuffer buffer,
+                                                            int offset, int length) {
+        StructureType type = StructureType.fromTag(tag);
+        if (type == null) {
+            throw new IllegalArgumentException("Invalid structure type tag");
+        }
+        switch (type) {
+            case UTF_8:
+                return new Utf8Structure(parent, buffer, offset, length);
+            case INTEGER:
+                return new IntegerStructure(parent, buffer, offset);
+            case FLOAT:
+                return new FloatStructure(parent, buffer, offset);
+            case LONG:
+                return new LongStructure(parent, buffer, offset);
+            case DOUBLE:
+                return new DoubleStructure(parent, buffer, offset);
+            case CLASS:
+                return new ClassStructure(parent, buffer, offset);
+            case STRING:
+                return new StringStructure(parent, buffer, offset);
+            case FIELD_REF:
+                return new FieldrefStructure(parent, buffer, offset);
+            case METHOD_REF:
+                return new MethodrefStructure(parent, buffer, offset);
+            case INTERFACE_METHOD_REF:
+                return new InterfaceMethodrefStructure(parent, buffer, offset);
+            case NAME_AND_TYPE:
+                return new NameAndTypeStructure(parent, buffer, offset);
+            case METHOD_HANDLE:
+                return new MethodHandleStructure(parent, buffer, offset);
+            case METHOD_TYPE:
+                return new MethodTypeStructure(parent, buffer, offset);
+            case INVOKE_DYNAMIC:
+                return new InvokeDynamicStructure(parent, buffer, offset);
+            default:
+                return new ConstantStructure(parent, tag, buffer, offset, length);
+        }
+    }
+
     /**
      * Represents a particular type of {@link ConstantStructure}.
      */
@@ -157,7 +239,13 @@ public class ConstantStructure {
         METHOD_TYPE(0x10, 2),
         INVOKE_DYNAMIC(0x12, 4);
 
-        private static Map<Byte, StructureType> types;
+        private static final StructureType[] TYPES = new StructureType[256];
+
+        static {
+            for (StructureType type : values()) {
+                TYPES[type.tag & 0xFF] = type;
+            }
+        }
 
         private byte tag;
         private int length;
@@ -165,19 +253,6 @@ public class ConstantStructure {
         StructureType(int tag, int length) {
             this.tag = (byte)tag;
             this.length = length;
-            register((byte)tag);
-        }
-
-        /**
-         * Adds this {@link StructureType} to the registry with the given tag.
-         *
-         * @param tag The tag to associated with this {@link StructureType}
-         */
-        private void register(byte tag) {
-            if (types == null) {
-                types = new HashMap<>();
-            }
-            types.put(tag, this);
         }
 
         /**
@@ -205,7 +280,7 @@ public class ConstantStructure {
          * @return The {@link StructureType} associated with the given byte tag
          */
         public static StructureType fromTag(byte tag) {
-            return types.get(tag);
+            return TYPES[tag & 0xFF];
         }
 
     }
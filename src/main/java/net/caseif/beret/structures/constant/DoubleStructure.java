@@ -28,19 +28,24 @@
  */
 package net.caseif.beret.structures.constant;
 
-import net.caseif.beret.Util;
 import net.caseif.beret.wrapper.ClassInfo;
 
+import java.nio.ByteBuffer;
+
 /**
  * Represents a <code>CONSTANT_Float_info</code> structure.
  */
 public class DoubleStructure extends ConstantStructure {
 
-    private double value;
+    private final double value;
 
     public DoubleStructure(ClassInfo parent, byte[] content) {
-        super(parent, StructureType.DOUBLE.getTag(), content);
-        value = Double.longBitsToDouble(Util.bytesToLong(content));
+        this(parent, ByteBuffer.wrap(content), 0);
+    }
+
+    public DoubleStructure(ClassInfo parent, ByteBuffer buffer, int offset) {
+        super(parent, StructureType.DOUBLE.getTag(), buffer, offset, StructureType.DOUBLE.getLength());
+        value = Double.longBitsToDouble(buffer.getLong(offset));
     }
 
     public double doubleValue() {
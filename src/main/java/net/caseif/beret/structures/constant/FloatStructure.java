@@ -28,19 +28,24 @@
  */
 package net.caseif.beret.structures.constant;
 
-import net.caseif.beret.Util;
 import net.caseif.beret.wrapper.ClassInfo;
 
+import java.nio.ByteBuffer;
+
 /**
  * Represents a <code>CONSTANT_Float_info</code> structure.
  */
 public class FloatStructure extends ConstantStructure {
 
-    private float value;
+    private final float value;
 
     public FloatStructure(ClassInfo parent, byte[] content) {
-        super(parent, StructureType.FLOAT.getTag(), content);
-        value = Float.intBitsToFloat(Util.bytesToInt(content));
+        this(parent, ByteBuffer.wrap(content), 0);
+    }
+
+    public FloatStructure(ClassInfo parent, ByteBuffer buffer, int offset) {
+        super(parent, StructureType.FLOAT.getTag(), buffer, offset, StructureType.FLOAT.getLength());
+        value = Float.intBitsToFloat(buffer.getInt(offset));
     }
 
     public float floatValue() {
@@ -28,19 +28,24 @@
  */
 package net.caseif.beret.structures.constant;
 
-import net.caseif.beret.Util;
 import net.caseif.beret.wrapper.ClassInfo;
 
+import java.nio.ByteBuffer;
+
 /**
  * Represents a <code>CONSTANT_Integer_info</code> structure.
  */
 public class IntegerStructure extends ConstantStructure {
 
-    private int value;
+    private final int value;
 
     public IntegerStructure(ClassInfo parent, byte[] content) {
-        super(parent, StructureType.INTEGER.getTag(), content);
-        this.value = Util.bytesToInt(content);
+        this(parent, ByteBuffer.wrap(content), 0);
+    }
+
+    public IntegerStructure(ClassInfo parent, ByteBuffer buffer, int offset) {
+        super(parent, StructureType.INTEGER.getTag(), buffer, offset, StructureType.INTEGER.getLength());
+        this.value = buffer.getInt(offset);
     }
 
     public int intValue() {
@@ -30,20 +30,26 @@ package net.caseif.beret.structures.constant;
 
 import net.caseif.beret.wrapper.ClassInfo;
 
+import java.nio.ByteBuffer;
+
 /**
  * Represents a <code>CONSTANT_InterfaceMethodref</code> structure.
  */
 public class InterfaceMethodrefStructure extends ConstantStructure {
 
     public InterfaceMethodrefStructure(ClassInfo parent, byte[] content) {
-        super(parent, StructureType.INTERFACE_METHOD_REF.getTag(), content);
+        this(parent, ByteBuffer.wrap(content), 0);
+    }
+
+    public InterfaceMethodrefStructure(ClassInfo parent, ByteBuffer buffer, int offset) {
+        super(parent, StructureType.INTERFACE_METHOD_REF.getTag(), buffer, offset, StructureType.INTERFACE_METHOD_REF.getLength());
     }
 
     public ClassStructure getClassStructure() {
-        return ((ClassStructure)getParent().getFromPool(content[0], content[1]));
+        return ((ClassStructure)getParent().getFromPool(readUshort(0)));
     }
 
     public NameAndTypeStructure getNameAndType() {
-        return ((NameAndTypeStructure)getParent().getFromPool(content[2], content[3]));
+        return ((NameAndTypeStructure)getParent().getFromPool(readUshort(2)));
     }
 }
@@ -31,16 +31,22 @@ package net.caseif.beret.structures.constant;
 import net.caseif.beret.Util;
 import net.caseif.beret.wrapper.ClassInfo;
 
+import java.nio.ByteBuffer;
+
 /**
  * Represents a <code>CONSTANT_InvokeDynamic_info</code> structure.
  */
 public class InvokeDynamicStructure extends ConstantStructure {
 
-    private int bootstrapMethodIndex;
+    private final int bootstrapMethodIndex;
 
     public InvokeDynamicStructure(ClassInfo parent, byte[] content) {
-        super(parent, StructureType.INVOKE_DYNAMIC.getTag(), content);
-        this.bootstrapMethodIndex = Util.bytesToUshort(content[0], content[1]);
+        this(parent, ByteBuffer.wrap(content), 0);
+    }
+
+    public InvokeDynamicStructure(ClassInfo parent, ByteBuffer buffer, int offset) {
+        super(parent, StructureType.INVOKE_DYNAMIC.getTag(), buffer, offset, StructureType.INVOKE_DYNAMIC.getLength());
+        this.bootstrapMethodIndex = Util.readUshort(buffer, offset);
     }
 
     public int getBootstrapMethodIndex() {
@@ -48,6 +54,6 @@ public class InvokeDynamicStructure extends ConstantStructure {
     }
 
     public NameAndTypeStructure getNameAndType() {
-        return ((NameAndTypeStructure)getParent().getFromPool(content[2], content[3]));
+        return ((NameAndTypeStructure)getParent().getFromPool(readUshort(2)));
     }
 }
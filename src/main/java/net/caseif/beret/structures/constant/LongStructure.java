@@ -28,19 +28,24 @@
  */
 package net.caseif.beret.structures.constant;
 
-import net.caseif.beret.Util;
 import net.caseif.beret.wrapper.ClassInfo;
 
+import java.nio.ByteBuffer;
+
 /**
  * Represents a <code>CONSTANT_Long_info</code> structure.
  */
 public class LongStructure extends ConstantStructure {
 
-    private long value;
+    private final long value;
 
     public LongStructure(ClassInfo parent, byte[] content) {
-        super(parent, StructureType.LONG.getTag(), content);
-        this.value = Util.bytesToLong(content);
+        this(parent, ByteBuffer.wrap(content), 0);
+    }
+
+    public LongStructure(ClassInfo parent, ByteBuffer buffer, int offset) {
+        super(parent, StructureType.LONG.getTag(), buffer, offset, StructureType.LONG.getLength());
+        this.value = buffer.getLong(offset);
     }
 
     public long longValue() {
@@ -30,6 +30,7 @@ package net.caseif.beret.structures.constant;
 
 import net.caseif.beret.wrapper.ClassInfo;
 
+import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -38,12 +39,15 @@ import java.util.Map;
  */
 public class MethodHandleStructure extends ConstantStructure {
 
-    private ReferenceKind kind;
-    private ConstantStructure ref;
+    private final ReferenceKind kind;
 
     public MethodHandleStructure(ClassInfo parent, byte[] content) {
-        super(parent, StructureType.METHOD_HANDLE.getTag(), content);
-        this.kind = ReferenceKind.fromMagicNumber(content[0]);
+        this(parent, ByteBuffer.wrap(content), 0);
+    }
+
+    public MethodHandleStructure(ClassInfo parent, ByteBuffer buffer, int offset) {
+        super(parent, StructureType.METHOD_HANDLE.getTag(), buffer, offset, StructureType.METHOD_HANDLE.getLength());
+        this.kind = ReferenceKind.fromMagicNumber(buffer.get(offset));
     }
 
     public ReferenceKind getReferenceKind() {
@@ -51,7 +55,7 @@ public class MethodHandleStructure extends ConstantStructure {
     }
 
     public ConstantStructure getReference() {
-        return getParent().getFromPool(content[2], content[3]);
+        return getParent().getFromPool(readUshort(1));
     }
 
     public enum ReferenceKind {
@@ -30,16 +30,22 @@ package net.caseif.beret.structures.constant;
 
 import net.caseif.beret.wrapper.ClassInfo;
 
+import java.nio.ByteBuffer;
+
 /**
  * Represents a <code>CONSTANT_MethodType_info</code> structure.
  */
 public class MethodTypeStructure extends ConstantStructure {
 
     public MethodTypeStructure(ClassInfo parent, byte[] content) {
-        super(parent, StructureType.METHOD_TYPE.getTag(), content);
+        this(parent, ByteBuffer.wrap(content), 0);
+    }
+
+    public MethodTypeStructure(ClassInfo parent, ByteBuffer buffer, int offset) {
+        super(parent, StructureType.METHOD_TYPE.getTag(), buffer, offset, StructureType.METHOD_TYPE.getLength());
     }
 
     public Utf8Structure getDescriptor() {
-        return ((Utf8Structure)getParent().getFromPool(content));
+        return ((Utf8Structure)getParent().getFromPool(readUshort(0)));
     }
 }
@@ -30,20 +30,26 @@ package net.caseif.beret.structures.constant;
 
 import net.caseif.beret.wrapper.ClassInfo;
 
+import java.nio.ByteBuffer;
+
 /**
  * Represents a <code>CONSTANT_NameAndType_info</code> structure.
  */
 public class NameAndTypeStructure extends ConstantStructure {
 
     public NameAndTypeStructure(ClassInfo parent, byte[] content) {
-        super(parent, StructureType.NAME_AND_TYPE.getTag(), content);
+        this(parent, ByteBuffer.wrap(content), 0);
+    }
+
+    public NameAndTypeStructure(ClassInfo parent, ByteBuffer buffer, int offset) {
+        super(parent, StructureType.NAME_AND_TYPE.getTag(), buffer, offset, StructureType.NAME_AND_TYPE.getLength());
     }
 
     public Utf8Structure getName() {
-        return ((Utf8Structure)getParent().getFromPool(content[0], content[1]));
+        return ((Utf8Structure)getParent().getFromPool(readUshort(0)));
     }
 
     public Utf8Structure getDescriptor() {
-        return ((Utf8Structure)getParent().getFromPool(content[2], content[3]));
+        return ((Utf8Structure)getParent().getFromPool(readUshort(2)));
     }
 }
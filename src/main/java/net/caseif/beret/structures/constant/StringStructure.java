@@ -30,16 +30,22 @@ package net.caseif.beret.structures.constant;
 
 import net.caseif.beret.wrapper.ClassInfo;
 
+import java.nio.ByteBuffer;
+
 /**
  * Represents a <code>CONSTANT_Class_info</code> structure.
  */
 public class StringStructure extends ConstantStructure {
 
     public StringStructure(ClassInfo parent, byte[] content) {
-        super(parent, StructureType.STRING.getTag(), content);
+        this(parent, ByteBuffer.wrap(content), 0);
+    }
+
+    public StringStructure(ClassInfo parent, ByteBuffer buffer, int offset) {
+        super(parent, StructureType.STRING.getTag(), buffer, offset, StructureType.STRING.getLength());
     }
 
     public Utf8Structure getBody() {
-        return ((Utf8Structure)getParent().getFromPool(content));
+        return ((Utf8Structure)getParent().getFromPool(readUshort(0)));
     }
 }
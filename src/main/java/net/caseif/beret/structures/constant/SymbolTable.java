@@ -0,0 +1,213 @@
+/*
+ * New BSD License (BSD-new)
+ *
+ * Copyright (c) 2015 Maxim Roncacé
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     - Neither the name of the copyright holder nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.caseif.beret.structures.constant;
+
+import net.caseif.beret.Util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A table of decoded UTF-8 constants which may be shared between the
+ * constant pools of any number of classes, so that each distinct string is
+ * held in memory only once.
+ *
+ * <p>Lookups are keyed on the raw bytes of a constant, and thus a string which
+ * is already present in the table is returned without being decoded again.
+ * Strings containing multi-byte sequences keep a copy of their raw bytes to
+ * be compared against. The table may safely be shared between threads.</p>
+ *
+ * @author Max Roncacé
+ */
+public class SymbolTable {
+
+    private static final int SEGMENT_COUNT = 16; // must be a power of two
+    private static final int INITIAL_SEGMENT_CAPACITY = 64; // must be a power of two
+
+    private final Segment[] segments = new Segment[SEGMENT_COUNT];
+
+    /**
+     * Creates a new, empty {@link SymbolTable}.
+     */
+    public SymbolTable() {
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    /**
+     * Returns the string encoded by the given range of the given buffer,
+     * adding it to this table if it is not yet present.
+     *
+     * @param buffer The buffer containing the encoded string
+     * @param offset The absolute offset of the encoded string
+     * @param length The length in bytes of the encoded string
+     * @return The canonical instance of the decoded string
+     */
+    public String intern(ByteBuffer buffer, int offset, int length) {
+        int hash = 0;
+        if (buffer.hasArray()) {
+            byte[] array = buffer.array();
+            int start = buffer.arrayOffset() + offset;
+            for (int i = start; i < start + length; i++) {
+                hash = 31 * hash + array[i];
+            }
+        } else {
+            for (int i = 0; i < length; i++) {
+                hash = 31 * hash + buffer.get(offset + i);
+            }
+        }
+        // mix every bit into both the low bits, which select a slot, and the high bits, which select a segment
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        hash ^= hash >>> 16;
+        return segments[hash >>> 28 & (SEGMENT_COUNT - 1)].intern(buffer, offset, length, hash);
+    }
+
+    /**
+     * Returns the number of distinct strings in this table.
+     *
+     * @return The number of distinct strings in this table
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * Checks whether the given range of the given buffer holds the given
+     * encoded bytes, or, if there are none, the given string, every
+     * character of which is encoded as a single byte.
+     *
+     * @param value   The string to compare
+     * @param encoded The encoded form of the string, or <code>null</code> if
+     *                it is identical to the string's characters
+     * @param buffer  The buffer containing the encoded string
+     * @param offset  The absolute offset of the encoded string
+     * @param length  The length in bytes of the encoded string
+     * @return <code>true</code> if the range encodes the given string
+     */
+    private static boolean matches(String value, byte[] encoded, ByteBuffer buffer, int offset, int length) {
+        if ((encoded != null ? encoded.length : value.length()) != length) {
+            return false;
+        }
+        byte[] array = buffer.hasArray() ? buffer.array() : null;
+        int start = buffer.hasArray() ? buffer.arrayOffset() + offset : 0;
+        for (int i = 0; i < length; i++) {
+            byte b = array != null ? array[start + i] : buffer.get(offset + i);
+            if (encoded != null ? encoded[i] != b : value.charAt(i) != b) {
+                return false; // a negative byte never equals a character of a single-byte string
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns a copy of the given range of the given buffer if it contains
+     * any multi-byte sequences, which is to say any byte which does not map
+     * directly to a character.
+     *
+     * @param buffer The buffer containing the encoded string
+     * @param offset The absolute offset of the encoded string
+     * @param length The length in bytes of the encoded string
+     * @return A copy of the range, or <code>null</code> if every byte maps directly to a character
+     */
+    private static byte[] encodedForm(ByteBuffer buffer, int offset, int length) {
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(offset + i) < 0) {
+                return Util.copyBytes(buffer, offset, length);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * An open-addressed hash table holding a portion of the strings of a
+     * {@link SymbolTable} under its own lock.
+     */
+    private static class Segment {
+
+        private String[] values = new String[INITIAL_SEGMENT_CAPACITY];
+        // the raw bytes of strings containing multi-byte sequences, so that they need never be decoded to compare
+        private byte[][] encoded = new byte[INITIAL_SEGMENT_CAPACITY][];
+        private int[] hashes = new int[INITIAL_SEGMENT_CAPACITY];
+        private int size;
+
+        private synchronized String intern(ByteBuffer buffer, int offset, int length, int hash) {
+            int mask = values.length - 1;
+            for (int i = hash & mask; ; i = (i + 1) & mask) {
+                String value = values[i];
+                if (value == null) {
+                    value = Util.decodeModifiedUtf8(buffer, offset, length);
+                    values[i] = value;
+                    encoded[i] = encodedForm(buffer, offset, length);
+                    hashes[i] = hash;
+                    if (++size * 2 > values.length) {
+                        resize();
+                    }
+                    return value;
+                }
+                if (hashes[i] == hash && matches(value, encoded[i], buffer, offset, length)) {
+                    return value;
+                }
+            }
+        }
+
+        private synchronized int size() {
+            return size;
+        }
+
+        private void resize() {
+            String[] oldValues = values;
+            byte[][] oldEncoded = encoded;
+            int[] oldHashes = hashes;
+            values = new String[oldValues.length * 2];
+            encoded = new byte[oldValues.length * 2][];
+            hashes = new int[oldValues.length * 2];
+            int mask = values.length - 1;
+            for (int i = 0; i < oldValues.length; i++) {
+                if (oldValues[i] != null) {
+                    int j = oldHashes[i] & mask;
+                    while (values[j] != null) {
+                        j = (j + 1) & mask;
+                    }
+                    values[j] = oldValues[i];
+                    encoded[j] = oldEncoded[i];
+                    hashes[j] = oldHashes[i];
+                }
+            }
+        }
+
+    }
+
+}
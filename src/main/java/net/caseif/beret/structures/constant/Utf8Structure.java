@@ -31,20 +31,36 @@ package net.caseif.beret.structures.constant;
 import net.caseif.beret.Util;
 import net.caseif.beret.wrapper.ClassInfo;
 
+import java.nio.ByteBuffer;
+
 /**
  * Represents a <code>CONSTANT_Utf8_info</code> structure.
  */
 public class Utf8Structure extends ConstantStructure {
 
-    private String value;
+    private final String value;
 
     public Utf8Structure(ClassInfo parent, byte[] content) {
-        super(parent, StructureType.UTF_8.getTag(), content);
-        this.value = Util.asUtf8(content);
+        this(parent, ByteBuffer.wrap(content), 0, content.length);
+    }
+
+    public Utf8Structure(ClassInfo parent, ByteBuffer buffer, int offset, int length) {
+        this(parent, buffer, offset, length, Util.decodeModifiedUtf8(buffer, offset, length));
     }
 
-    public int getLength() {
-        return getContent().length;
+    /**
+     * Creates a new {@link Utf8Structure} whose string value has already
+     * been decoded.
+     *
+     * @param parent The parent {@link ClassInfo} of the new {@link Utf8Structure}
+     * @param buffer The buffer containing the encoded string
+     * @param offset The absolute offset of the encoded string within the buffer
+     * @param length The length in bytes of the encoded string
+     * @param value  The decoded string
+     */
+    public Utf8Structure(ClassInfo parent, ByteBuffer buffer, int offset, int length, String value) {
+        super(parent, StructureType.UTF_8.getTag(), buffer, offset, length);
+        this.value = value;
     }
 
     @Override
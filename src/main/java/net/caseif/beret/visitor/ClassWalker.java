@@ -0,0 +1,235 @@
+/*
+ * New BSD License (BSD-new)
+ *
+ * Copyright (c) 2015 Maxim Roncacé
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     - Neither the name of the copyright holder nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.caseif.beret.visitor;
+
+import net.caseif.beret.Opcode;
+import net.caseif.beret.Util;
+import net.caseif.beret.structures.InstructionStream;
+import net.caseif.beret.structures.constant.ConstantPool;
+import net.caseif.beret.structures.constant.SymbolTable;
+import net.caseif.beret.wrapper.ClassHeader;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Drives a {@link ClassVisitor} over a class file in a single forward pass.
+ *
+ * <p>Unlike {@link net.caseif.beret.wrapper.ClassInfo}, no objects are
+ * retained for the members, attributes, or instructions of the class, so the
+ * memory used by a walk is bounded by the size of the class header.</p>
+ *
+ * @author Max Roncacé
+ */
+public final class ClassWalker {
+
+    private ClassWalker() {
+    }
+
+    /**
+     * Walks the class file contained by the given byte array.
+     *
+     * @param bytes   The bytes comprising the class file
+     * @param visitor The visitor to notify
+     * @return <code>true</code> if the class was walked in its entirety,
+     *     <code>false</code> if the visitor aborted the walk
+     * @throws IllegalStateException If the array does not begin with the standard magic number
+     */
+    public static boolean walk(byte[] bytes, ClassVisitor visitor) throws IllegalStateException {
+        return walk(ByteBuffer.wrap(bytes), visitor);
+    }
+
+    /**
+     * Walks the class file contained by the remaining content of the given
+     * {@link ByteBuffer}. The position, limit, and byte order of the buffer
+     * are left untouched.
+     *
+     * @param buffer  The buffer containing the class file
+     * @param visitor The visitor to notify
+     * @return <code>true</code> if the class was walked in its entirety,
+     *     <code>false</code> if the visitor aborted the walk
+     * @throws IllegalStateException If the buffer does not begin with the standard magic number
+     */
+    public static boolean walk(ByteBuffer buffer, ClassVisitor visitor) throws IllegalStateException {
+        return walk(buffer, visitor, null);
+    }
+
+    /**
+     * Walks the class file contained by the remaining content of the given
+     * {@link ByteBuffer}, interning the strings of its constant pool in the
+     * given {@link SymbolTable}. The position, limit, and byte order of the
+     * buffer are left untouched.
+     *
+     * @param buffer  The buffer containing the class file
+     * @param visitor The visitor to notify
+     * @param symbols The table to intern strings in, or <code>null</code> to not intern them
+     * @return <code>true</code> if the class was walked in its entirety,
+     *     <code>false</code> if the visitor aborted the walk
+     * @throws IllegalStateException If the buffer does not begin with the standard magic number
+     */
+    public static boolean walk(ByteBuffer buffer, ClassVisitor visitor, SymbolTable symbols)
+            throws IllegalStateException {
+        buffer = buffer.slice(); // slices are always big-endian, as is the class file format
+        ClassHeader header = new ClassHeader(buffer, symbols);
+        if (!visitor.visit(header)) {
+            return false;
+        }
+        ConstantPool pool = header.getPool();
+        int offset = header.getEndOffset();
+
+        int fieldCount = Util.readUshort(buffer, offset);
+        offset += 2;
+        for (int i = 0; i < fieldCount; i++) {
+            if (!visitor.visitField(Util.readUshort(buffer, offset), pool.utf8At(Util.readUshort(buffer, offset + 2)),
+                    pool.utf8At(Util.readUshort(buffer, offset + 4)))) {
+                return false;
+            }
+            offset = skipAttributes(buffer, offset + 6);
+        }
+
+        int methodCount = Util.readUshort(buffer, offset);
+        offset += 2;
+        for (int i = 0; i < methodCount; i++) {
+            MethodVisitor mv = visitor.visitMethod(Util.readUshort(buffer, offset),
+                    pool.utf8At(Util.readUshort(buffer, offset + 2)), pool.utf8At(Util.readUshort(buffer, offset + 4)));
+            if (mv == null) {
+                offset = skipAttributes(buffer, offset + 6);
+                continue;
+            }
+            int attrCount = Util.readUshort(buffer, offset + 6);
+            offset += 8;
+            for (int j = 0; j < attrCount; j++) {
+                String name = pool.utf8At(Util.readUshort(buffer, offset));
+                int length = readAttributeLength(buffer, offset + 2);
+                offset += 6;
+                if (name.equals("Code")) {
+                    if (!walkCode(buffer, pool, offset, mv)) {
+                        return false;
+                    }
+                } else if (!mv.visitAttribute(name, buffer, offset, length)) {
+                    return false;
+                }
+                offset += length;
+            }
+            mv.visitEnd();
+        }
+
+        int attrCount = Util.readUshort(buffer, offset);
+        offset += 2;
+        for (int i = 0; i < attrCount; i++) {
+            String name = pool.utf8At(Util.readUshort(buffer, offset));
+            int length = readAttributeLength(buffer, offset + 2);
+            offset += 6;
+            if (!visitor.visitAttribute(name, buffer, offset, length)) {
+                return false;
+            }
+            offset += length;
+        }
+        visitor.visitEnd();
+        return true;
+    }
+
+    /**
+     * Walks the <code>Code</code> attribute at the given offset.
+     *
+     * @param buffer The buffer containing the class file
+     * @param pool   The constant pool of the class
+     * @param offset The absolute offset of the attribute's content
+     * @param mv     The visitor of the method containing the attribute
+     * @return <code>false</code> if the visitor aborted the walk
+     */
+    private static boolean walkCode(ByteBuffer buffer, ConstantPool pool, int offset, MethodVisitor mv) {
+        int codeLength = readAttributeLength(buffer, offset + 4);
+        CodeVisitor cv = mv.visitCode(Util.readUshort(buffer, offset), Util.readUshort(buffer, offset + 2),
+                codeLength);
+        if (cv == null) {
+            return true;
+        }
+        int codeStart = offset + 8;
+        for (int pos = 0; pos < codeLength; ) {
+            int length = InstructionStream.getInstructionLength(buffer, codeStart, pos, codeLength);
+            Opcode opcode = Opcode.fromByte(buffer.get(codeStart + pos));
+            if (!cv.visitInstruction(pos, opcode != null ? opcode : Opcode.UNKNOWN, buffer, codeStart + pos + 1,
+                    length - 1)) {
+                return false;
+            }
+            pos += length;
+        }
+        offset = codeStart + codeLength;
+
+        int handlerCount = Util.readUshort(buffer, offset);
+        offset += 2;
+        for (int i = 0; i < handlerCount; i++) {
+            int catchType = Util.readUshort(buffer, offset + 6);
+            if (!cv.visitExceptionHandler(Util.readUshort(buffer, offset), Util.readUshort(buffer, offset + 2),
+                    Util.readUshort(buffer, offset + 4), catchType > 0 ? pool.classNameAt(catchType) : null)) {
+                return false;
+            }
+            offset += 8;
+        }
+
+        int attrCount = Util.readUshort(buffer, offset);
+        offset += 2;
+        for (int i = 0; i < attrCount; i++) {
+            String name = pool.utf8At(Util.readUshort(buffer, offset));
+            int length = readAttributeLength(buffer, offset + 2);
+            offset += 6;
+            if (!cv.visitAttribute(name, buffer, offset, length)) {
+                return false;
+            }
+            offset += length;
+        }
+        cv.visitEnd();
+        return true;
+    }
+
+    /**
+     * Skips over the attribute table at the given offset.
+     *
+     * @param buffer The buffer containing the class file
+     * @param offset The absolute offset of the attribute count
+     * @return The offset immediately following the attribute table
+     */
+    private static int skipAttributes(ByteBuffer buffer, int offset) {
+        int attrCount = Util.readUshort(buffer, offset);
+        offset += 2;
+        for (int i = 0; i < attrCount; i++) {
+            offset += 6 + readAttributeLength(buffer, offset + 2);
+        }
+        return offset;
+    }
+
+    private static int readAttributeLength(ByteBuffer buffer, int offset) {
+        long length = Util.readUint(buffer, offset);
+        if (length > Integer.MAX_VALUE) {
+            throw new UnsupportedOperationException("Attribute is too long");
+        }
+        return (int)length;
+    }
+
+}
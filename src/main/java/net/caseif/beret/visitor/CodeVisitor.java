@@ -0,0 +1,98 @@
+/*
+ * New BSD License (BSD-new)
+ *
+ * Copyright (c) 2015 Maxim Roncacé
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     - Neither the name of the copyright holder nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.caseif.beret.visitor;
+
+import net.caseif.beret.Opcode;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Receives the content of a <code>Code</code> attribute as it is walked by a
+ * {@link ClassWalker}.
+ *
+ * <p>Methods returning <code>boolean</code> may return <code>false</code> to
+ * abort the walk of the entire class.</p>
+ *
+ * @author Max Roncacé
+ */
+public interface CodeVisitor {
+
+    /**
+     * Visits an instruction. Instructions are visited in order of their
+     * offsets.
+     *
+     * <p>Operands should be read with the absolute getters of the given
+     * buffer. For <code>tableswitch</code> and <code>lookupswitch</code>, the
+     * operands begin with the padding which aligns the jump table.</p>
+     *
+     * @param offset        The offset of the instruction relative to the start of the code
+     * @param opcode        The opcode of the instruction, or {@link Opcode#UNKNOWN} if it is not recognized
+     * @param buffer        The buffer containing the code
+     * @param operandOffset The absolute offset of the instruction's first operand byte
+     * @param operandLength The number of operand bytes following the opcode
+     * @return <code>false</code> to abort the walk
+     */
+    default boolean visitInstruction(int offset, Opcode opcode, ByteBuffer buffer, int operandOffset,
+                                     int operandLength) {
+        return true;
+    }
+
+    /**
+     * Visits an entry of the exception table.
+     *
+     * @param start     The offset at which the protected range begins
+     * @param end       The offset at which the protected range ends, exclusively
+     * @param handler   The offset of the handler
+     * @param catchType The name of the caught class, or <code>null</code> if the handler catches everything
+     * @return <code>false</code> to abort the walk
+     */
+    default boolean visitExceptionHandler(int start, int end, int handler, String catchType) {
+        return true;
+    }
+
+    /**
+     * Visits an attribute of the <code>Code</code> attribute.
+     *
+     * @param name   The name of the attribute
+     * @param buffer The buffer containing the attribute's content
+     * @param offset The absolute offset of the attribute's content
+     * @param length The length of the attribute's content
+     * @return <code>false</code> to abort the walk
+     */
+    default boolean visitAttribute(String name, ByteBuffer buffer, int offset, int length) {
+        return true;
+    }
+
+    /**
+     * Signals that the code has been walked in its entirety.
+     */
+    default void visitEnd() {
+    }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * New BSD License (BSD-new)
+ *
+ * Copyright (c) 2015 Maxim Roncacé
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     - Neither the name of the copyright holder nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.caseif.beret.visitor;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Receives the content of a method as it is walked by a {@link ClassWalker}.
+ *
+ * <p>Methods returning <code>boolean</code> may return <code>false</code> to
+ * abort the walk of the entire class.</p>
+ *
+ * @author Max Roncacé
+ */
+public interface MethodVisitor {
+
+    /**
+     * Visits the <code>Code</code> attribute of the method.
+     *
+     * @param maxStack   The maximum depth of the operand stack
+     * @param maxLocals  The maximum number of local variables
+     * @param codeLength The length in bytes of the method's bytecode
+     * @return A {@link CodeVisitor} to visit the bytecode with, or
+     *     <code>null</code> to skip it
+     */
+    default CodeVisitor visitCode(int maxStack, int maxLocals, int codeLength) {
+        return null;
+    }
+
+    /**
+     * Visits an attribute of the method other than <code>Code</code>.
+     *
+     * @param name   The name of the attribute
+     * @param buffer The buffer containing the attribute's content
+     * @param offset The absolute offset of the attribute's content
+     * @param length The length of the attribute's content
+     * @return <code>false</code> to abort the walk
+     */
+    default boolean visitAttribute(String name, ByteBuffer buffer, int offset, int length) {
+        return true;
+    }
+
+    /**
+     * Signals that the method has been walked in its entirety.
+     */
+    default void visitEnd() {
+    }
+
+}
@@ -0,0 +1,394 @@
+/*
+ * New BSD License (BSD-new)
+ *
+ * Copyright (c) 2015 Maxim Roncacé
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     - Neither the name of the copyright holder nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.caseif.beret.wrapper;
+
+import net.caseif.beret.Util;
+import net.caseif.beret.structures.constant.ConstantPool;
+import net.caseif.beret.structures.constant.ConstantStructure;
+import net.caseif.beret.structures.constant.SymbolTable;
+import net.caseif.beret.wrapper.synthetic.AccessFlag;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Represents the header of a class file, consisting of its version, access
+ * flags, name, superclass, and interfaces.
+ *
+ * <p>Parsing stops after the interfaces, so fields, methods, and attributes
+ * are skipped entirely. This makes a {@link ClassHeader} suitable for
+ * scanning large numbers of classes, e.g. to build a class hierarchy.</p>
+ *
+ * @author Max Roncacé
+ */
+public class ClassHeader {
+
+    private static final int CONSTANT_POOL_START = 10; // this will never change
+
+    private final ByteBuffer buffer;
+
+    private int majorVersion;
+    private int minorVersion;
+
+    private ConstantPool constantPool;
+
+    private AccessFlag accessFlag;
+
+    private String className;
+    private String superName;
+
+    private String[] interfacePool;
+
+    private int endOffset;
+
+    /**
+     * Loads a class header from the given {@link InputStream}.
+     *
+     * @param stream The stream to load the class file from
+     * @throws IllegalStateException If the stream does not begin with the standard magic number
+     * @throws IOException           If an exception occurs while reading the stream
+     */
+    public ClassHeader(InputStream stream) throws IllegalStateException, IOException {
+        this(Util.readFully(stream));
+    }
+
+    /**
+     * Loads a class header from the given byte array.
+     *
+     * <p>The array is not copied, and thus must not be modified after being
+     * passed to this constructor.</p>
+     *
+     * @param bytes The bytes comprising the class file
+     * @throws IllegalStateException If the array does not begin with the standard magic number
+     */
+    public ClassHeader(byte[] bytes) throws IllegalStateException {
+        this(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Loads a class header from the given range of a byte array.
+     *
+     * <p>The array is not copied, and thus the given range must not be
+     * modified after being passed to this constructor.</p>
+     *
+     * @param bytes  The array containing the class file
+     * @param offset The index of the first byte of the class file within the array
+     * @param length The length in bytes of the class file
+     * @throws IllegalStateException     If the range does not begin with the standard magic number
+     * @throws IndexOutOfBoundsException If the given range does not lie within the array
+     */
+    public ClassHeader(byte[] bytes, int offset, int length) throws IllegalStateException, IndexOutOfBoundsException {
+        this(ByteBuffer.wrap(bytes, offset, length));
+    }
+
+    /**
+     * Loads a class header from the remaining content of the given
+     * {@link ByteBuffer}, which may be either a heap or a direct buffer.
+     *
+     * <p>The content of the buffer is not copied, and thus must not be
+     * modified after being passed to this constructor. The position, limit,
+     * and byte order of the given buffer are left untouched.</p>
+     *
+     * @param buffer The buffer containing the class file
+     * @throws IllegalStateException If the buffer does not begin with the standard magic number
+     */
+    public ClassHeader(ByteBuffer buffer) throws IllegalStateException {
+        this(buffer, null);
+    }
+
+    /**
+     * Loads a class header from the remaining content of the given
+     * {@link ByteBuffer}, interning the strings of its constant pool in the
+     * given {@link SymbolTable}.
+     *
+     * @param buffer  The buffer containing the class file
+     * @param symbols The table to intern strings in, or <code>null</code> to not intern them
+     * @throws IllegalStateException If the buffer does not begin with the standard magic number
+     */
+    public ClassHeader(ByteBuffer buffer, SymbolTable symbols) throws IllegalStateException {
+        this(null, buffer.slice(), symbols); // slices are always big-endian, as is the class file format
+    }
+
+    /**
+     * Loads the header of the class file contained by the given buffer on
+     * behalf of the given {@link ClassInfo}.
+     *
+     * @param parent The {@link ClassInfo} the header belongs to, or
+     *               <code>null</code> if the header stands alone
+     * @param buffer  The big-endian buffer containing the class file,
+     *                starting at index <code>0</code>
+     * @param symbols The table to intern strings in, or <code>null</code> to
+     *                not intern them
+     * @throws IllegalStateException If the buffer does not begin with the standard magic number
+     */
+    ClassHeader(ClassInfo parent, ByteBuffer buffer, SymbolTable symbols) throws IllegalStateException {
+        this.buffer = buffer;
+        parse(parent, symbols);
+    }
+
+    /**
+     * Loads a class header from the file at the given path by mapping it into
+     * memory.
+     *
+     * @param path The path of the class file to load
+     * @return The loaded {@link ClassHeader}
+     * @throws IllegalStateException If the file does not begin with the standard magic number
+     * @throws IOException           If an exception occurs while mapping the file
+     */
+    public static ClassHeader fromFile(Path path) throws IllegalStateException, IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // the mapping remains valid after the channel is closed
+            return new ClassHeader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Parses the header of the loaded bytecode.
+     *
+     * @param parent  The {@link ClassInfo} the header belongs to, if any
+     * @param symbols The table to intern strings in, if any
+     */
+    private void parse(ClassInfo parent, SymbolTable symbols) {
+        if (!checkMagicNumber()) {
+            throw new IllegalStateException("Bytecode does not begin with standard magic number!");
+        }
+        parseVersion();
+        // the offset is threaded through each step so that parsing holds no state outside of this instance
+        int offset = loadConstantPool(parent, symbols, CONSTANT_POOL_START);
+        offset = loadAccessFlag(offset);
+        offset = loadClassInfo(offset);
+        endOffset = loadInterfaces(offset);
+    }
+
+    /**
+     * Gets the package of this class.
+     *
+     * @return The name of the package containing this class
+     */
+    public String getPackage() {
+        if (getName().contains("/")) {
+            return getName().substring(0, getName().lastIndexOf("/")).replace("/", ".");
+        }
+        return "";
+    }
+
+    /**
+     * Gets the qualified name of this class.
+     *
+     * @return The qualified name of this class
+     */
+    public String getName() {
+        return className;
+    }
+
+    /**
+     * Gets the unqualified name of this class.
+     *
+     * @return The unqualified name of this class
+     */
+    public String getBaseName() {
+        return getName().substring(getPackage().length() > 0 ? getPackage().length() + 1 : 0);
+    }
+
+    /**
+     * Gets the qualified name of this class's superclass.
+     *
+     * @return The qualified name of this class's superclass
+     */
+    public String getSuperName() {
+        return superName;
+    }
+
+    /**
+     * Gets the qualified names of the interfaces this class implements.
+     *
+     * @return The qualified names of this class's interfaces
+     */
+    public String[] getInterfaces() {
+        return interfacePool;
+    }
+
+    /**
+     * Gets this class's access modifiers.
+     *
+     * @return This class's access modifiers
+     */
+    public AccessFlag getAccessModifiers() {
+        return accessFlag;
+    }
+
+    /**
+     * Gets this class's major version.
+     *
+     * @return This class's major version
+     */
+    public int getMajorVersion() {
+        return majorVersion;
+    }
+
+    /**
+     * Gets this class's minor version.
+     *
+     * @return This class's minor version
+     */
+    public int getMinorVersion() {
+        return minorVersion;
+    }
+
+    /**
+     * Returns the index of this class's constant pool.
+     *
+     * <p>If this header was loaded on its own rather than as part of a
+     * {@link ClassInfo}, entries should be read through the pool's typed
+     * accessors, as the views returned by {@link ConstantPool#get(int)}
+     * resolve references through their parent {@link ClassInfo}.</p>
+     *
+     * @return The index of this class's constant pool
+     */
+    public ConstantPool getPool() {
+        return constantPool;
+    }
+
+    /**
+     * Returns the offset immediately following the header, at which the field
+     * pool begins.
+     *
+     * @return The offset immediately following the header
+     */
+    public int getEndOffset() {
+        return endOffset;
+    }
+
+    /**
+     * Checks the magic number at the top of the loaded bytecode.
+     *
+     * @return <code>true</code> if the top four bytes equal 0xCAFEBABE, otherwise, <code>false</code>.
+     */
+    private boolean checkMagicNumber() {
+        // grab and check the first four bytes to ensure compliance with the format standard
+        return buffer.capacity() >= 4 && buffer.getInt(0) == 0xCAFEBABE;
+    }
+
+    /**
+     * Parses the major/minor version from the loaded bytecode.
+     */
+    private void parseVersion() {
+        this.minorVersion = Util.readUshort(buffer, 4);
+        this.majorVersion = Util.readUshort(buffer, 6);
+    }
+
+    /**
+     * Indexes the constant pool of the loaded bytecode. Individual entries
+     * are not created until they are first requested.
+     *
+     * @param parent  The {@link ClassInfo} the pool belongs to, if any
+     * @param symbols The table to intern strings in, if any
+     * @param offset  The offset of the first constant pool entry, which is immediately preceded by the pool size
+     * @return The offset immediately following the constant pool
+     */
+    private int loadConstantPool(ClassInfo parent, SymbolTable symbols, int offset) {
+        constantPool = new ConstantPool(parent, buffer, offset - 2, symbols);
+        return constantPool.getEndOffset();
+    }
+
+    /**
+     * Loads the class access flag.
+     *
+     * @param offset The offset of the access flag
+     * @return The offset immediately following the access flag
+     */
+    private int loadAccessFlag(int offset) {
+        accessFlag = new AccessFlag(AccessFlag.AccessTarget.CLASS, buffer.get(offset), buffer.get(offset + 1));
+        return offset + 2;
+    }
+
+    /**
+     * Loads the class and superclass info.
+     *
+     * @param offset The offset of the class info pointer
+     * @return The offset immediately following the superclass info pointer
+     */
+    private int loadClassInfo(int offset) {
+        int classInfoPointer = Util.readUshort(buffer, offset);
+        if (constantPool.getType(classInfoPointer) != ConstantStructure.StructureType.CLASS) {
+            throw new IllegalStateException("Class info pointer does not point to a class info structure: found "
+                    + constantPool.getType(classInfoPointer));
+        }
+        try {
+            className = constantPool.classNameAt(classInfoPointer);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalStateException("Class name pointer does not point to a UTF-8 structure");
+        }
+
+        int superInfoPointer = Util.readUshort(buffer, offset + 2);
+        if (superInfoPointer > 0) {
+            if (constantPool.getType(superInfoPointer) != ConstantStructure.StructureType.CLASS) {
+                throw new IllegalStateException("Superclass info pointer does not point to a class info structure");
+            }
+            try {
+                superName = constantPool.classNameAt(superInfoPointer);
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalStateException("Superclass name pointer does not point to a UTF-8 structure");
+            }
+        } else { // super pointer is 0x00, so it defaults to Object
+            superName = "java/lang/Object";
+        }
+        return offset + 4;
+    }
+
+    /**
+     * Loads the interface pool.
+     *
+     * @param offset The offset of the interface pool
+     * @return The offset immediately following the interface pool
+     */
+    private int loadInterfaces(int offset) {
+        int poolLength = Util.readUshort(buffer, offset); // indexing starts at 1
+        interfacePool = new String[poolLength];
+        offset += 2;
+        for (int i = 0; i < poolLength; i++) {
+            int pointer = Util.readUshort(buffer, offset);
+            if (pointer > 0) {
+                if (constantPool.getType(pointer) != ConstantStructure.StructureType.CLASS) {
+                    throw new IllegalStateException("Interface pointer does not point to a class structure");
+                }
+                interfacePool[i] = constantPool.classNameAt(pointer);
+            } else {
+                interfacePool[i] = "";
+            }
+            offset += 2; // move to the next pointer
+        }
+        return offset;
+    }
+
+}
@@ -28,23 +28,29 @@
  */
 package net.caseif.beret.wrapper;
 
-import static net.caseif.beret.Util.setTabSize;
 import static net.caseif.beret.Util.tab;
 
 import net.caseif.beret.Util;
 import net.caseif.beret.structures.AttributeStructure;
 import net.caseif.beret.structures.CodeStructure;
-import net.caseif.beret.structures.constant.ClassStructure;
+import net.caseif.beret.structures.InstructionCursor;
+import net.caseif.beret.structures.constant.ConstantPool;
 import net.caseif.beret.structures.constant.ConstantStructure;
+import net.caseif.beret.structures.constant.SymbolTable;
 import net.caseif.beret.wrapper.synthetic.AccessFlag;
-import net.caseif.beret.wrapper.synthetic.Instruction;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.nio.charset.Charset;
-import java.util.ArrayList;
-import java.util.List;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 import java.util.Set;
 
 /**
@@ -54,26 +60,14 @@ import java.util.Set;
  */
 public class ClassInfo {
 
-    private static final int CONSTANT_POOL_START = 10; // this will never change
-    private static int INTERFACE_POOL_START;
-    private static int FIELD_POOL_START;
-    private static int METHOD_POOL_START;
-    private static int ATTRIBUTE_POOL_START;
+    private final ByteBuffer buffer;
+    private volatile byte[] bytes;
 
-    private final byte[] bytes;
+    private final ClassHeader header;
+    private final ConstantPool constantPool;
 
-    private int majorVersion;
-    private int minorVersion;
+    private final MemberFilter filter;
 
-    private ConstantStructure[] constantPool;
-    private int constantPoolLength;
-
-    private AccessFlag accessFlag;
-
-    private String className;
-    private String superName;
-
-    private String[] interfacePool;
     private FieldInfo[] fields;
     private MethodInfo[] methods;
     private AttributeStructure[] attributes;
@@ -86,28 +80,179 @@ public class ClassInfo {
      * @throws IOException           If an exception occurs while reading the stream
      */
     public ClassInfo(InputStream stream) throws IllegalStateException, IOException {
-        int b;
-        List<Byte> byteList = new ArrayList<Byte>();
-        while ((b = stream.read()) != -1) {
-            byteList.add((byte)b);
-        }
-        bytes = new byte[byteList.size()];
-        int i = 0;
-        for (Byte wrapped : byteList) {
-            bytes[i] = wrapped;
-            ++i;
-        }
-        if (!checkMagicNumber()) {
-            throw new IllegalStateException("Bytecode does not begin with standard magic number!");
+        this(Util.readFully(stream));
+    }
+
+    /**
+     * Loads a class file from the given byte array.
+     *
+     * <p>The array is not copied, and thus must not be modified after being
+     * passed to this constructor.</p>
+     *
+     * @param bytes The bytes comprising the class file
+     * @throws IllegalStateException If the array does not begin with the standard magic number
+     */
+    public ClassInfo(byte[] bytes) throws IllegalStateException {
+        this(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Loads a class file from the given range of a byte array.
+     *
+     * <p>The array is not copied, and thus the given range must not be
+     * modified after being passed to this constructor.</p>
+     *
+     * @param bytes  The array containing the class file
+     * @param offset The index of the first byte of the class file within the array
+     * @param length The length in bytes of the class file
+     * @throws IllegalStateException     If the range does not begin with the standard magic number
+     * @throws IndexOutOfBoundsException If the given range does not lie within the array
+     */
+    public ClassInfo(byte[] bytes, int offset, int length) throws IllegalStateException, IndexOutOfBoundsException {
+        this(ByteBuffer.wrap(bytes, offset, length));
+    }
+
+    /**
+     * Loads a class file from the remaining content of the given
+     * {@link ByteBuffer}, which may be either a heap or a direct buffer.
+     *
+     * <p>The content of the buffer is not copied, and thus must not be
+     * modified after being passed to this constructor. The position, limit,
+     * and byte order of the given buffer are left untouched.</p>
+     *
+     * @param buffer The buffer containing the class file
+     * @throws IllegalStateException If the buffer does not begin with the standard magic number
+     */
+    public ClassInfo(ByteBuffer buffer) throws IllegalStateException {
+        this(buffer, MemberFilter.ALL);
+    }
+
+    /**
+     * Loads a class file from the given byte array, loading only the fields
+     * and methods accepted by the given {@link MemberFilter}.
+     *
+     * <p>The array is not copied, and thus must not be modified after being
+     * passed to this constructor.</p>
+     *
+     * @param bytes  The bytes comprising the class file
+     * @param filter The filter deciding which members to load
+     * @throws IllegalStateException If the array does not begin with the standard magic number
+     */
+    public ClassInfo(byte[] bytes, MemberFilter filter) throws IllegalStateException {
+        this(ByteBuffer.wrap(bytes), filter);
+    }
+
+    /**
+     * Loads a class file from the remaining content of the given
+     * {@link ByteBuffer}, loading only the fields and methods accepted by the
+     * given {@link MemberFilter}.
+     *
+     * <p>The content of the buffer is not copied, and thus must not be
+     * modified after being passed to this constructor. The position, limit,
+     * and byte order of the given buffer are left untouched.</p>
+     *
+     * @param buffer The buffer containing the class file
+     * @param filter The filter deciding which members to load
+     * @throws IllegalStateException If the buffer does not begin with the standard magic number
+     */
+    public ClassInfo(ByteBuffer buffer, MemberFilter filter) throws IllegalStateException {
+        this(buffer, filter, null);
+    }
+
+    /**
+     * Loads a class file from the remaining content of the given
+     * {@link ByteBuffer}, loading only the fields and methods accepted by the
+     * given {@link MemberFilter} and interning the strings of its constant
+     * pool in the given {@link SymbolTable}.
+     *
+     * <p>The content of the buffer is not copied, and thus must not be
+     * modified after being passed to this constructor. The position, limit,
+     * and byte order of the given buffer are left untouched.</p>
+     *
+     * @param buffer  The buffer containing the class file
+     * @param filter  The filter deciding which members to load
+     * @param symbols The table to intern strings in, which may be shared between any number of classes, or
+     *                <code>null</code> to not intern them
+     * @throws IllegalStateException If the buffer does not begin with the standard magic number
+     */
+    public ClassInfo(ByteBuffer buffer, MemberFilter filter, SymbolTable symbols) throws IllegalStateException {
+        this.filter = filter;
+        this.buffer = buffer.slice(); // slices are always big-endian, as is the class file format
+        this.header = new ClassHeader(this, this.buffer, symbols);
+        this.constantPool = header.getPool();
+        parse();
+    }
+
+    /**
+     * Loads a class file from the file at the given path by mapping it into
+     * memory, thus avoiding copying its content into the heap.
+     *
+     * @param path The path of the class file to load
+     * @return The loaded {@link ClassInfo}
+     * @throws IllegalStateException If the file does not begin with the standard magic number
+     * @throws IOException           If an exception occurs while mapping the file
+     */
+    public static ClassInfo fromFile(Path path) throws IllegalStateException, IOException {
+        return fromFile(path, MemberFilter.ALL);
+    }
+
+    /**
+     * Loads a class file from the file at the given path by mapping it into
+     * memory, loading only the fields and methods accepted by the given
+     * {@link MemberFilter}.
+     *
+     * @param path   The path of the class file to load
+     * @param filter The filter deciding which members to load
+     * @return The loaded {@link ClassInfo}
+     * @throws IllegalStateException If the file does not begin with the standard magic number
+     * @throws IOException           If an exception occurs while mapping the file
+     */
+    public static ClassInfo fromFile(Path path, MemberFilter filter) throws IllegalStateException, IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // the mapping remains valid after the channel is closed
+            return new ClassInfo(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), filter);
         }
-        parseVersion();
-        loadConstantPool();
-        loadAccessFlag();
-        loadClassInfo();
-        loadInterfaces();
-        loadFields();
-        loadMethods();
-        loadAttributes();
+    }
+
+    /**
+     * Parses the members and attributes following the header of the loaded
+     * bytecode.
+     */
+    private void parse() {
+        // the offset is threaded through each step so that parsing holds no state outside of this instance
+        int offset = loadFields(header.getEndOffset());
+        offset = loadMethods(offset);
+        loadAttributes(offset);
+    }
+
+    /**
+     * Loads the class and superclass info.
+     *
+     * @deprecated The class and superclass info are read by the
+     *     {@link ClassHeader} upon construction, so this method has no effect
+     */
+    @Deprecated
+    public void loadClassInfo() {
+    }
+
+    /**
+     * Loads the field pool.
+     *
+     * @deprecated The field pool is loaded upon construction, so this method
+     *     has no effect
+     */
+    @Deprecated
+    public void loadFields() {
+    }
+
+    /**
+     * Loads the method pool.
+     *
+     * @deprecated The method pool is loaded upon construction, so this
+     *     method has no effect
+     */
+    @Deprecated
+    public void loadMethods() {
     }
 
     /**
@@ -116,10 +261,7 @@ public class ClassInfo {
      * @return The name of the package containing this class
      */
     public String getPackage() {
-        if (getName().contains("/")) {
-            return getName().substring(0, getName().lastIndexOf("/")).replace("/", ".");
-        }
-        return "";
+        return header.getPackage();
     }
 
     /**
@@ -128,7 +270,7 @@ public class ClassInfo {
      * @return The qualified name of this class
      */
     public String getName() {
-        return className;
+        return header.getName();
     }
 
     /**
@@ -137,7 +279,7 @@ public class ClassInfo {
      * @return The unqualified name of this class
      */
     public String getBaseName() {
-        return getName().substring(getPackage().length() > 0 ? getPackage().length() + 1 : 0);
+        return header.getBaseName();
     }
 
     /**
@@ -146,7 +288,16 @@ public class ClassInfo {
      * @return The qualified name of this class's superclass
      */
     public String getSuperName() {
-        return superName;
+        return header.getSuperName();
+    }
+
+    /**
+     * Gets the qualified names of the interfaces this class implements.
+     *
+     * @return The qualified names of this class's interfaces
+     */
+    public String[] getInterfaces() {
+        return header.getInterfaces();
     }
 
     /**
@@ -155,7 +306,7 @@ public class ClassInfo {
      * @return This class's access modifiers
      */
     public AccessFlag getAccessModifiers() {
-        return accessFlag;
+        return header.getAccessModifiers();
     }
 
     /**
@@ -164,7 +315,7 @@ public class ClassInfo {
      * @return This class's major version
      */
     public int getMajorVersion() {
-        return majorVersion;
+        return header.getMajorVersion();
     }
 
     /**
@@ -173,7 +324,7 @@ public class ClassInfo {
      * @return This class's major version
      */
     public int getMinorVersion() {
-        return minorVersion;
+        return header.getMinorVersion();
     }
 
     /**
@@ -203,305 +354,329 @@ public class ClassInfo {
         return attributes;
     }
 
+    /**
+     * Gets the header of this class.
+     *
+     * @return The header of this class
+     */
+    public ClassHeader getHeader() {
+        return header;
+    }
+
     /**
      * Gets the bytes comprising this class.
      *
+     * <p>If the class does not occupy the whole of an array, as is the case
+     * for classes loaded from a stream or a range of an array, its bytes are
+     * copied upon the first call to this method and the copy is reused
+     * thereafter.</p>
+     *
      * @return The bytes comprising this class
      */
     public byte[] getBytes() {
-        return this.bytes;
+        if (buffer.hasArray() && buffer.arrayOffset() == 0 && buffer.capacity() == buffer.array().length) {
+            return buffer.array();
+        }
+        byte[] bytes = this.bytes;
+        if (bytes == null) {
+            // racing threads make equal copies, so whichever is published last is as good as any
+            bytes = Util.copyBytes(buffer, 0, buffer.capacity());
+            this.bytes = bytes;
+        }
+        return bytes;
     }
 
     /**
-     * Returns this class's constant pool.
+     * Gets a read-only view of the buffer containing this class.
      *
-     * @return This class's constant pool
+     * @return A read-only view of the buffer containing this class
      */
-    public ConstantStructure[] getConstantPool() {
-        return this.constantPool;
+    public ByteBuffer getBuffer() {
+        return buffer.asReadOnlyBuffer();
     }
 
     /**
-     * Checks the magic number at the top of the loaded bytecode.
+     * Returns this class's constant pool, creating any entries which have
+     * not yet been requested.
      *
-     * @return <code>true</code> if the top four bytes equal 0xCAFEBABE, otherwise, <code>false</code>.
+     * @return This class's constant pool
      */
-    private boolean checkMagicNumber() {
-        // grab and check the first four bytes to ensure compliance with the format standard
-        return bytes[0] == (byte)0xCA && bytes[1] == (byte)0xFE && bytes[2] == (byte)0xBA && bytes[3] == (byte)0xBE;
+    public ConstantStructure[] getConstantPool() {
+        return this.constantPool.toArray();
     }
 
     /**
-     * Parses the major/minor version from the loaded bytecode.
+     * Returns the index of this class's constant pool, through which entries
+     * may be read without creating {@link ConstantStructure} views of them.
+     *
+     * @return The index of this class's constant pool
      */
-    private void parseVersion() {
-        this.minorVersion = Util.bytesToUshort(bytes[4], bytes[5]);
-        this.majorVersion = Util.bytesToUshort(bytes[6], bytes[7]);
+    public ConstantPool getPool() {
+        return this.constantPool;
     }
 
     /**
-     * Loads the constant pool from the loaded bytecode.
+     * Loads the field pool.
+     *
+     * @param offset The offset of the field pool
+     * @return The offset immediately following the field pool
      */
-    private void loadConstantPool() {
-        int poolSize = Util.bytesToUshort(bytes[8], bytes[9]);
-        --poolSize; // indices start at 1 for whatever reason
-        constantPool = new ConstantStructure[poolSize];
-        int offset = 10;
-        for (int i = 0; i < poolSize; i++) {
-            byte tag = bytes[offset]; // get the tag of the current structure
-            ++offset; // move the offset to the content start
-            ConstantStructure.StructureType structType = ConstantStructure.StructureType.fromTag(tag);
-            int length = structType.getLength();
-            if (structType == ConstantStructure.StructureType.UTF_8) {
-                length = Util.bytesToUshort(bytes[offset], bytes[offset + 1]);
-                offset += 2;
-            }
-            byte[] content = new byte[length]; // create empty array of expected size
-            System.arraycopy(bytes, offset, content, 0, length);
-            ConstantStructure struct = ConstantStructure.createConstantStructure(this, tag, content);
-            offset += length; // move the offset to the next structure
-            constantPool[i] = struct; // globally store the loaded structure
-            if (struct.getType() == ConstantStructure.StructureType.DOUBLE
-                    || struct.getType() == ConstantStructure.StructureType.LONG) {
-                ++i; // doubles and longs take up two slots in the constant table
+    private int loadFields(int offset) {
+        int fieldCount = Util.readUshort(buffer, offset);
+        FieldInfo[] fields = new FieldInfo[fieldCount];
+        int loaded = 0;
+        offset += 2;
+        for (int i = 0; i < fieldCount; i++) {
+            if (accept(AccessFlag.AccessTarget.FIELD, offset)) {
+                FieldInfo field = new FieldInfo(this, buffer, offset);
+                fields[loaded++] = field;
+                offset += field.getLength();
+            } else {
+                offset = skipMember(offset);
             }
         }
-        constantPoolLength = offset - 10;
+        this.fields = loaded == fieldCount ? fields : Arrays.copyOf(fields, loaded);
+        return offset;
     }
 
     /**
-     * Loads the class access flag.
-     */
-    private void loadAccessFlag() {
-        accessFlag = new AccessFlag(AccessFlag.AccessTarget.CLASS,
-                bytes[CONSTANT_POOL_START + constantPoolLength],
-                bytes[CONSTANT_POOL_START + constantPoolLength + 1]);
-    }
-
-    /**
-     * Loads the class and superclass info.
+     * Loads the method pool.
+     *
+     * @param offset The offset of the method pool
+     * @return The offset immediately following the method pool
      */
-    public void loadClassInfo() {
-        int offset = CONSTANT_POOL_START + constantPoolLength + 2;
-        ConstantStructure classInfo = getFromPool(bytes[offset], bytes[offset + 1]);
-        if (classInfo.getType() != ConstantStructure.StructureType.CLASS) {
-            throw new IllegalStateException("Class info pointer does not point to a class info structure: found "
-                    + classInfo.getType());
-        }
-        ConstantStructure classNameStruct = getFromPool(classInfo.getContent()[0], classInfo.getContent()[1]);
-        if (classNameStruct.getType() != ConstantStructure.StructureType.UTF_8) {
-            throw new IllegalStateException("Class name pointer does not point to a UTF-8 structure");
-        }
-        className = Util.asUtf8(classNameStruct.getContent());
-
-        int superInfoPointer = Util.bytesToUshort(bytes[offset + 2], bytes[offset + 3]);
-        if (superInfoPointer > 0) {
-            ConstantStructure superInfo = constantPool[superInfoPointer - 1];
-            if (superInfo.getType() != ConstantStructure.StructureType.CLASS) {
-                throw new IllegalStateException("Superclass info pointer does not point to a class info structure");
-            }
-            ConstantStructure superNameStruct = getFromPool(superInfo.getContent()[0], superInfo.getContent()[1]);
-            if (superNameStruct.getType() != ConstantStructure.StructureType.UTF_8) {
-                throw new IllegalStateException("Superclass name pointer does not point to a UTF-8 structure");
-            }
-            superName = Util.asUtf8(superNameStruct.getContent());
-        } else { // super pointer is 0x00, so it defaults to Object
-            superName = "java/lang/Object";
-        }
-        INTERFACE_POOL_START = CONSTANT_POOL_START + constantPoolLength + 6;
-    }
-
-    private void loadInterfaces() {
-        int offset = INTERFACE_POOL_START; // byte offset in the binary file
-        int poolLength = Util.bytesToUshort(bytes[offset], bytes[offset + 1]); // indexing starts at 1
-        interfacePool = new String[poolLength];
+    private int loadMethods(int offset) {
+        int methodCount = Util.readUshort(buffer, offset);
+        MethodInfo[] methods = new MethodInfo[methodCount];
+        int loaded = 0;
         offset += 2;
-        for (int i = 0; i < poolLength; i++) {
-            int pointer = Util.bytesToUshort(bytes[offset], bytes[offset + 1]);
-            if (pointer > 0) {
-                ConstantStructure classStruct = constantPool[pointer - 1];
-                if (classStruct.getType() != ConstantStructure.StructureType.CLASS) {
-                    throw new IllegalStateException("Interface pointer does not point to a class structure");
-                }
-                interfacePool[i] = Util.asUtf8(((ClassStructure)classStruct).getName().getContent());
+        for (int i = 0; i < methodCount; i++) {
+            if (accept(AccessFlag.AccessTarget.METHOD, offset)) {
+                MethodInfo method = new MethodInfo(this, buffer, offset);
+                methods[loaded++] = method;
+                offset += method.getLength();
             } else {
-                interfacePool[i] = "";
+                offset = skipMember(offset);
             }
-            offset += 2; // move to the next pointer
         }
-        FIELD_POOL_START = INTERFACE_POOL_START + 2 + interfacePool.length * 2;
+        this.methods = loaded == methodCount ? methods : Arrays.copyOf(methods, loaded);
+        return offset;
     }
 
-    public void loadFields() {
-        int offset = FIELD_POOL_START;
-        int fieldCount = Util.bytesToUshort(bytes[offset], bytes[offset + 1]);
-        fields = new FieldInfo[fieldCount];
-        offset += 2;
-        for (int i = 0; i < fieldCount; i++) {
-            byte[] info = new byte[bytes.length - offset];
-            System.arraycopy(bytes, offset, info, 0, info.length);
-            fields[i] = new FieldInfo(this, info);
-            offset += 8; // field access, name, descriptor, and attribute count
-            for (AttributeStructure attr : fields[i].getAttributes()) {
-                offset += 6; // attribute name and length
-                offset += attr.getContent().length;
-            }
+    /**
+     * Checks whether the member at the given offset is accepted by this
+     * class's {@link MemberFilter}.
+     *
+     * @param target The type of the member
+     * @param offset The offset of the member's info
+     * @return <code>true</code> if the member should be loaded
+     */
+    private boolean accept(AccessFlag.AccessTarget target, int offset) {
+        if (filter == MemberFilter.ALL) {
+            return true;
         }
-        METHOD_POOL_START = offset;
+        return filter.accept(target, Util.readUshort(buffer, offset),
+                constantPool.utf8At(Util.readUshort(buffer, offset + 2)),
+                constantPool.utf8At(Util.readUshort(buffer, offset + 4)));
     }
 
-    public void loadMethods() {
-        int offset = METHOD_POOL_START;
-        int methodCount = Util.bytesToUshort(bytes[offset], bytes[offset + 1]);
-        methods = new MethodInfo[methodCount];
-        offset += 2;
-        for (int i = 0; i < methodCount; i++) {
-            byte[] info = new byte[bytes.length - offset];
-            System.arraycopy(bytes, offset, info, 0, info.length);
-            methods[i] = new MethodInfo(this, info);
-            offset += 8; // field access, name, descriptor, and attribute count
-            for (AttributeStructure attr : methods[i].getAttributes()) {
-                offset += 6; // attribute name and length
-                offset += attr.getContent().length;
-            }
+    /**
+     * Skips over the field or method info at the given offset without
+     * loading it.
+     *
+     * @param offset The offset of the member's info
+     * @return The offset immediately following the member's info
+     */
+    private int skipMember(int offset) {
+        int attrCount = Util.readUshort(buffer, offset + 6);
+        offset += 8;
+        for (int i = 0; i < attrCount; i++) {
+            offset += 6 + (int)Util.readUint(buffer, offset + 2);
         }
-        ATTRIBUTE_POOL_START = offset;
+        return offset;
     }
 
-    private void loadAttributes() {
-        int offset = ATTRIBUTE_POOL_START;
-        int attrSize = Util.bytesToUshort(getBytes()[offset], getBytes()[offset + 1]);
+    /**
+     * Loads the class attributes.
+     *
+     * @param offset The offset of the attribute pool
+     */
+    private void loadAttributes(int offset) {
+        int attrSize = Util.readUshort(buffer, offset);
         offset += 2;
         attributes = new AttributeStructure[attrSize];
         for (int i = 0; i < attrSize; i++) {
-            String name = getFromPool(getBytes()[offset], getBytes()[offset + 1]).toString();
+            String name = constantPool.utf8At(Util.readUshort(buffer, offset));
             offset += 2;
             //TODO: add support for long arrays
-            long infoLength = Util.bytesToUint(getBytes()[offset], getBytes()[offset + 1],
-                    getBytes()[offset + 2], getBytes()[offset + 3]);
+            long infoLength = Util.readUint(buffer, offset);
             if (infoLength > Integer.MAX_VALUE) {
                 throw new UnsupportedOperationException("Attribute is too long");
             }
             offset += 4;
-            byte[] finalInfo = new byte[(int)infoLength];
-            System.arraycopy(getBytes(), offset, finalInfo, 0, (int)infoLength);
+            attributes[i] = new AttributeStructure(this, name, buffer, offset, (int)infoLength);
             offset += infoLength;
-            attributes[i] = new AttributeStructure(this, name, finalInfo);
         }
     }
 
     /**
      * Dumps a textual representation of this {@link ClassInfo} to the given {@link OutputStream}.
      *
+     * <p>The representation is encoded as UTF-8 and written incrementally
+     * through a buffered writer. The stream is flushed but not closed.</p>
+     *
      * @param stream The {@link OutputStream} to write to
      * @throws IOException If an exception occurs while writing to the {@link OutputStream}
      */
-    @SuppressWarnings("unchecked")
     public void dump(OutputStream stream) throws IOException {
-        StringBuilder sb = new StringBuilder();
-        sb.append("Generated by Beret").append("\n\n");
-        sb.append("Class name: ").append(className).append("\n");
-        sb.append("Superclass name: ").append(superName).append("\n");
-        sb.append("Class major/minor version: ").append(majorVersion).append(".").append(minorVersion).append("\n");
-        sb.append("\n");
-        sb.append("Constant pool dump:").append("\n");
+        Writer writer = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8));
+        dump(writer);
+        writer.flush();
+    }
+
+    /**
+     * Dumps a textual representation of this {@link ClassInfo} to the given {@link Appendable}.
+     *
+     * <p>The representation is appended piece by piece as it is generated,
+     * so it is never held in memory in its entirety. Callers writing to an
+     * unbuffered destination should wrap it in a buffer first.</p>
+     *
+     * @param out The {@link Appendable} to write to
+     * @throws IOException If an exception occurs while writing to the {@link Appendable}
+     */
+    @SuppressWarnings("unchecked")
+    public void dump(Appendable out) throws IOException {
+        out.append("Generated by Beret").append("\n\n");
+        out.append("Class name: ").append(getName()).append("\n");
+        out.append("Superclass name: ").append(getSuperName()).append("\n");
+        out.append("Class major/minor version: ").append(Integer.toString(getMajorVersion())).append(".")
+                .append(Integer.toString(getMinorVersion())).append("\n");
+        out.append("\n");
+        out.append("Constant pool dump:").append("\n");
         int i = 0;
-        for (ConstantStructure cs : constantPool) {
+        for (ConstantStructure cs : getConstantPool()) {
             if (cs != null) {
-                sb.append(tab(1));
-                sb.append(i + 1).append(": ");
-                sb.append(cs.getType().toString()).append(" - ");
+                out.append(tab(1, 4));
+                out.append(Integer.toString(i + 1)).append(": ");
+                out.append(cs.getType().toString()).append(" - ");
                 if (cs.getType() == ConstantStructure.StructureType.UTF_8) {
-                    sb.append(Util.asUtf8(cs.getContent()).replaceAll("\\n", "\\\\n"));
+                    appendEscaped(out, cs.toString());
                 } else {
-                    sb.append(Util.bytesToHex(cs.getContent()));
+                    Util.appendHex(out, cs.getContent());
                 }
-                sb.append("\n");
+                out.append("\n");
             }
             ++i;
         }
 
-        sb.append("\n");
-        sb.append("Flags: ");
-        assert accessFlag.getTargetType() == AccessFlag.AccessTarget.CLASS;
-        for (AccessFlag.ClassFlag ft : (Set<AccessFlag.ClassFlag>)accessFlag.getFlags()) {
-            sb.append(ft.toString()).append(" ");
+        out.append("\n");
+        out.append("Flags:");
+        assert getAccessModifiers().getTargetType() == AccessFlag.AccessTarget.CLASS;
+        for (AccessFlag.ClassFlag ft : (Set<AccessFlag.ClassFlag>)getAccessModifiers().getFlags()) {
+            out.append(" ").append(ft.toString());
         }
-        sb.deleteCharAt(sb.length() - 1);
 
-        sb.append("\n\n");
-        sb.append("Interfaces:").append("\n");
-        for (String s : interfacePool) {
-            sb.append(tab(1)).append(s).append("\n");
+        out.append("\n\n");
+        out.append("Interfaces:").append("\n");
+        for (String s : getInterfaces()) {
+            out.append(tab(1, 4)).append(s).append("\n");
         }
 
-        sb.append("\n");
-        sb.append("Fields:").append("\n");
+        out.append("\n");
+        out.append("Fields:").append("\n");
         for (FieldInfo f : fields) {
-            setTabSize(2);
-            sb.append(tab(1)).append(f.getName()).append(":").append("\n");
-            sb.append(tab(2)).append("Flags: ");
+            out.append(tab(1, 2)).append(f.getName()).append(":").append("\n");
+            out.append(tab(2, 2)).append("Flags:");
             assert f.getAccess().getTargetType() == AccessFlag.AccessTarget.FIELD;
             for (AccessFlag.FieldFlag flag : (Set<AccessFlag.FieldFlag>)f.getAccess().getFlags()) {
-                sb.append(flag.toString()).append(" ");
+                out.append(" ").append(flag.toString());
             }
-            sb.deleteCharAt(sb.length() - 1).append("\n");
-            sb.append(tab(2)).append("Descriptor: ").append(f.getDescriptor()).append("\n");
-            sb.append(tab(2)).append("Attributes:").append("\n");
+            out.append("\n");
+            out.append(tab(2, 2)).append("Descriptor: ").append(f.getDescriptor().toString()).append("\n");
+            out.append(tab(2, 2)).append("Attributes:").append("\n");
             for (AttributeStructure attr : f.getAttributes()) {
-                sb.append(tab(3)).append(attr.getName()).append(": ")
-                        .append(Util.bytesToHex(attr.getContent())).append("\n");
+                out.append(tab(3, 2)).append(attr.getName()).append(": ");
+                Util.appendHex(out, attr.getContent());
+                out.append("\n");
             }
         }
 
-        sb.append("\n");
-        sb.append("Methods:").append("\n");
+        out.append("\n");
+        out.append("Methods:").append("\n");
         for (MethodInfo f : methods) {
-            sb.append(tab(1)).append(f.getName()).append(":").append("\n");
-            sb.append(tab(2)).append("Flags: ");
+            out.append(tab(1, 2)).append(f.getName()).append(":").append("\n");
+            out.append(tab(2, 2)).append("Flags:");
             assert f.getAccess().getTargetType() == AccessFlag.AccessTarget.METHOD;
             for (AccessFlag.MethodFlag flag : (Set<AccessFlag.MethodFlag>)f.getAccess().getFlags()) {
-                sb.append(flag.toString()).append(" ");
+                out.append(" ").append(flag.toString());
             }
-            sb.deleteCharAt(sb.length() - 1).append("\n");
-            sb.append(tab(2)).append("Descriptor: ").append(f.getDescriptor()).append("\n");
-            sb.append(tab(2)).append("Attributes:").append("\n");
+            out.append("\n");
+            out.append(tab(2, 2)).append("Descriptor: ").append(f.getDescriptor()).append("\n");
+            out.append(tab(2, 2)).append("Attributes:").append("\n");
             for (AttributeStructure attr : f.getAttributes()) {
-                sb.append(tab(3)).append(attr.getName()).append(":");
+                out.append(tab(3, 2)).append(attr.getName()).append(":");
                 if (attr instanceof CodeStructure) {
                     CodeStructure cs = (CodeStructure)attr;
-                    sb.append("\n").append(tab(4))
-                            .append("Max stack size: ").append(cs.getMaxStackSize()).append("\n");
-                    sb.append(tab(4)).append("Max local variables: ").append(cs.getMaxLocalSize()).append("\n");
-                    sb.append(tab(4)).append("Exception handlers: ").append(cs.getExceptionHandlers().length)
+                    out.append("\n").append(tab(4, 2))
+                            .append("Max stack size: ").append(Integer.toString(cs.getMaxStackSize())).append("\n");
+                    out.append(tab(4, 2)).append("Max local variables: ")
+                            .append(Integer.toString(cs.getMaxLocalSize())).append("\n");
+                    out.append(tab(4, 2)).append("Exception handlers: ")
+                            .append(Integer.toString(cs.getExceptionHandlers().length))
                             .append(" (not dumped)").append("\n");
-                    sb.append(tab(4)).append("Attributes: ").append(cs.getAttributes().length)
+                    out.append(tab(4, 2)).append("Attributes: ").append(Integer.toString(cs.getAttributes().length))
                             .append(" (not dumped)").append("\n");
-                    sb.append(tab(4)).append("Body:").append("\n");
-                    for (Instruction instr : cs.getCode()) {
-                        sb.append(tab(5)).append(instr.getOpcode().toString().toLowerCase())
-                                .append(instr.getExtraBytes().length > 0 ? " " : "")
-                                .append(Util.bytesToHex(instr.getExtraBytes())).append("\n");
+                    out.append(tab(4, 2)).append("Body:").append("\n");
+                    InstructionCursor cursor = cs.getInstructions().cursor();
+                    while (cursor.next()) {
+                        out.append(tab(5, 2)).append(cursor.getOpcode().getLowerCaseName());
+                        int operandLength = cursor.getOperandLength();
+                        if (operandLength > 0) {
+                            out.append(" ");
+                            for (int j = 0; j < operandLength; j++) {
+                                Util.appendHex(out, cursor.getOperandByte(j));
+                            }
+                        }
+                        out.append("\n");
                     }
                 } else {
-                    sb.append(" ").append(Util.bytesToHex(attr.getContent())).append("\n");
+                    out.append(" ");
+                    Util.appendHex(out, attr.getContent());
+                    out.append("\n");
                 }
             }
         }
 
-        sb.append("Attributes:").append("\n");
+        out.append("Attributes:").append("\n");
         for (AttributeStructure attr : attributes) {
-            sb.append(tab(1)).append(attr.getName()).append(": ").append(Util.bytesToHex(attr.getContent()));
+            out.append(tab(1, 2)).append(attr.getName()).append(": ");
+            Util.appendHex(out, attr.getContent());
         }
 
-        sb.append("\n"); // for good measure
+        out.append("\n"); // for good measure
+    }
 
-        stream.write(sb.toString().getBytes(Charset.forName("UTF-8")));
-        stream.flush();
+    /**
+     * Appends the given string to the given {@link Appendable}, escaping
+     * line feeds so that the string occupies a single line.
+     *
+     * @param out The {@link Appendable} to append to
+     * @param str The string to append
+     * @throws IOException If an exception occurs while appending
+     */
+    private static void appendEscaped(Appendable out, String str) throws IOException {
+        int start = 0;
+        for (int i = 0; i < str.length(); i++) {
+            if (str.charAt(i) == '\n') {
+                out.append(str, start, i).append("\\n");
+                start = i + 1;
+            }
+        }
+        out.append(str, start, str.length());
     }
 
     public ConstantStructure getFromPool(int offset) {
-        return getConstantPool()[offset - 1];
+        return constantPool.get(offset);
     }
 
     public ConstantStructure getFromPool(byte... offset) {
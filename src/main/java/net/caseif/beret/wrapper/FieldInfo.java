@@ -34,6 +34,8 @@ import net.caseif.beret.structures.AttributeStructure;
 import net.caseif.beret.structures.constant.ConstantStructure;
 import net.caseif.beret.wrapper.synthetic.AccessFlag;
 
+import java.nio.ByteBuffer;
+
 /**
  * Contains information regarding a specific field.
  *
@@ -46,6 +48,7 @@ public class FieldInfo {
     private String name;
     private TypeDescriptor descriptor;
     private AttributeStructure[] attributes;
+    private int length;
 
     /**
      * Loads information about a field from the given {@link ConstantStructure}.
@@ -56,35 +59,46 @@ public class FieldInfo {
      * @throws IllegalArgumentException If <code>structure</code> contains invalid data
      */
     public FieldInfo(ClassInfo parent, byte[] info) throws IllegalArgumentException {
+        this(parent, ByteBuffer.wrap(info), 0);
+    }
+
+    /**
+     * Loads information about a field from the given buffer, beginning at
+     * the given offset.
+     *
+     * @param parent The parent {@link ClassInfo} instance
+     * @param buffer The buffer non-exclusively containing this field's info
+     * @param offset The absolute offset within the buffer of the first byte of this field's info
+     * @throws IllegalArgumentException If the buffer contains invalid data
+     */
+    public FieldInfo(ClassInfo parent, ByteBuffer buffer, int offset) throws IllegalArgumentException {
         this.parent = parent;
 
         // get the access flag
-        access = new AccessFlag(AccessFlag.AccessTarget.FIELD, info[0], info[1]);
+        access = new AccessFlag(AccessFlag.AccessTarget.FIELD, buffer.get(offset), buffer.get(offset + 1));
 
         // get the name from the provided pointer
-        name = parent.getFromPool(info[2], info[3]).toString();
+        name = parent.getPool().utf8At(Util.readUshort(buffer, offset + 2));
 
         // get the descriptor from the provided pointer
-        descriptor = new TypeDescriptor(parent.getFromPool(info[4], info[5]).toString());
+        descriptor = TypeDescriptor.of(parent.getPool().utf8At(Util.readUshort(buffer, offset + 4)));
 
-        loadAttributes(parent, info);
+        length = loadAttributes(parent, buffer, offset) - offset;
     }
 
-    private void loadAttributes(ClassInfo parent, byte[] info) {
-        int attrSize = Util.bytesToUshort(info[6], info[7]);
+    private int loadAttributes(ClassInfo parent, ByteBuffer buffer, int offset) {
+        int attrSize = Util.readUshort(buffer, offset + 6);
         attributes = new AttributeStructure[attrSize];
-        int offset = 8;
+        offset += 8;
         for (int i = 0; i < attrSize; i++) {
-            String name = parent.getFromPool(info[offset], info[offset + 1]).toString();
+            String name = parent.getPool().utf8At(Util.readUshort(buffer, offset));
             offset += 2;
-            int infoLength = Util.bytesToInt(info[offset], info[offset + 1],
-                    info[offset + 2], info[offset + 3]);
+            int infoLength = (int)Util.readUint(buffer, offset);
             offset += 4;
-            byte[] finalInfo = new byte[infoLength];
-            System.arraycopy(info, offset, finalInfo, 0, infoLength);
+            attributes[i] = new AttributeStructure(getParent(), name, buffer, offset, infoLength);
             offset += infoLength;
-            attributes[i] = new AttributeStructure(getParent(), name, finalInfo);
         }
+        return offset;
     }
 
     /**
@@ -132,4 +146,13 @@ public class FieldInfo {
         return this.attributes;
     }
 
+    /**
+     * Gets the length in bytes of this field's info within the class file.
+     *
+     * @return The length in bytes of this field's info
+     */
+    public int getLength() {
+        return this.length;
+    }
+
 }
@@ -0,0 +1,85 @@
+/*
+ * New BSD License (BSD-new)
+ *
+ * Copyright (c) 2015 Maxim Roncacé
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     - Neither the name of the copyright holder nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.caseif.beret.wrapper;
+
+import net.caseif.beret.wrapper.synthetic.AccessFlag;
+
+/**
+ * Decides which fields and methods of a class are loaded when it is parsed.
+ *
+ * <p>Members which are rejected are skipped over without creating a
+ * {@link FieldInfo} or {@link MethodInfo} for them, and thus without decoding
+ * any of their attributes.</p>
+ *
+ * @author Max Roncacé
+ */
+@FunctionalInterface
+public interface MemberFilter {
+
+    /**
+     * The bit denoting a public member.
+     */
+    int ACC_PUBLIC = 0x0001;
+
+    /**
+     * The bit denoting a protected member.
+     */
+    int ACC_PROTECTED = 0x0004;
+
+    /**
+     * The bit denoting a synthetic member.
+     */
+    int ACC_SYNTHETIC = 0x1000;
+
+    /**
+     * A filter which accepts every member.
+     */
+    MemberFilter ALL = (target, access, name, descriptor) -> true;
+
+    /**
+     * A filter which accepts only public and protected members which are not
+     * synthetic, i.e. those which make up the API of a class.
+     */
+    MemberFilter PUBLIC_API = (target, access, name, descriptor) ->
+            (access & (ACC_PUBLIC | ACC_PROTECTED)) != 0 && (access & ACC_SYNTHETIC) == 0;
+
+    /**
+     * Returns whether the given member should be loaded.
+     *
+     * @param target     The type of the member, either
+     *                   {@link AccessFlag.AccessTarget#FIELD} or
+     *                   {@link AccessFlag.AccessTarget#METHOD}
+     * @param access     The raw access flags of the member
+     * @param name       The name of the member
+     * @param descriptor The descriptor of the member
+     * @return <code>true</code> if the member should be loaded
+     */
+    boolean accept(AccessFlag.AccessTarget target, int access, String name, String descriptor);
+
+}
@@ -28,13 +28,14 @@
  */
 package net.caseif.beret.wrapper;
 
+import net.caseif.beret.MethodDescriptor;
 import net.caseif.beret.TypeDescriptor;
 import net.caseif.beret.Util;
 import net.caseif.beret.structures.AttributeStructure;
 import net.caseif.beret.structures.CodeStructure;
 import net.caseif.beret.wrapper.synthetic.AccessFlag;
 
-import java.util.ArrayList;
+import java.nio.ByteBuffer;
 
 /**
  * Contains information regarding a specific method.
@@ -47,9 +48,9 @@ public class MethodInfo {
     private AccessFlag access;
     private String name;
     private String descriptor;
-    private TypeDescriptor[] params;
-    private TypeDescriptor returnType;
+    private MethodDescriptor parsedDescriptor;
     private AttributeStructure[] attributes;
+    private int length;
 
     /**
      * Loads information about a method from the given byte array.
@@ -60,59 +61,55 @@ public class MethodInfo {
      * @throws IllegalArgumentException If <code>structure</code> contains invalid data
      */
     public MethodInfo(ClassInfo parent, byte[] info) throws IllegalArgumentException {
+        this(parent, ByteBuffer.wrap(info), 0);
+    }
+
+    /**
+     * Loads information about a method from the given buffer, beginning at
+     * the given offset.
+     *
+     * @param parent The parent {@link ClassInfo} instance
+     * @param buffer The buffer non-exclusively containing this method's info
+     * @param offset The absolute offset within the buffer of the first byte of this method's info
+     * @throws IllegalArgumentException If the buffer contains invalid data
+     */
+    public MethodInfo(ClassInfo parent, ByteBuffer buffer, int offset) throws IllegalArgumentException {
         this.parent = parent;
 
         // get the access flag
-        access = new AccessFlag(AccessFlag.AccessTarget.METHOD, info[0], info[1]);
+        access = new AccessFlag(AccessFlag.AccessTarget.METHOD, buffer.get(offset), buffer.get(offset + 1));
 
         // get the name from the provided pointer
-        name = parent.getFromPool(info[2], info[3]).toString();
+        name = parent.getPool().utf8At(Util.readUshort(buffer, offset + 2));
 
         // get the descriptor from the provided pointer
-        descriptor = parent.getFromPool(info[4], info[5]).toString();
-        returnType = new TypeDescriptor(descriptor.substring(descriptor.lastIndexOf(')') + 1));
-        int start = 1;
-        ArrayList<TypeDescriptor> paramList = new ArrayList<>();
-        for (int i = start; i < descriptor.lastIndexOf(')'); i++) {
-            while (descriptor.charAt(i) == '[') {
-                ++i; // increment until we're past the bit that defines array dimensions
-            }
-            if (descriptor.charAt(i) == 'L') {
-                while (descriptor.charAt(i) != ';') {
-                    ++i; // increment until we're past the class name
-                }
-            }
-            paramList.add(new TypeDescriptor(descriptor.substring(start, i + 1)));
-            start = i + 1;
-        }
-        params = new TypeDescriptor[paramList.size()];
-        paramList.toArray(params);
+        descriptor = parent.getPool().utf8At(Util.readUshort(buffer, offset + 4));
+        parsedDescriptor = MethodDescriptor.of(descriptor);
 
-        loadAttributes(info);
+        length = loadAttributes(buffer, offset) - offset;
     }
 
-    private void loadAttributes(byte[] info) {
-        int attrSize = Util.bytesToUshort(info[6], info[7]);
+    private int loadAttributes(ByteBuffer buffer, int offset) {
+        int attrSize = Util.readUshort(buffer, offset + 6);
         attributes = new AttributeStructure[attrSize];
-        int offset = 8;
+        offset += 8;
         for (int i = 0; i < attrSize; i++) {
-            String name = parent.getFromPool(info[offset], info[offset + 1]).toString();
+            String name = parent.getPool().utf8At(Util.readUshort(buffer, offset));
             offset += 2;
             //TODO: add support for long arrays
-            long infoLength = Util.bytesToUint(info[offset], info[offset + 1], info[offset + 2], info[offset + 3]);
+            long infoLength = Util.readUint(buffer, offset);
             if (infoLength > Integer.MAX_VALUE) {
                 throw new UnsupportedOperationException("Attribute is too long");
             }
             offset += 4;
-            byte[] finalInfo = new byte[(int)infoLength];
-            System.arraycopy(info, offset, finalInfo, 0, (int)infoLength);
-            offset += infoLength;
             if (name.equalsIgnoreCase("Code")) {
-                attributes[i] = new CodeStructure(this, name, finalInfo);
+                attributes[i] = new CodeStructure(this, name, buffer, offset, (int)infoLength);
             } else {
-                attributes[i] = new AttributeStructure(this.getParent(), name, finalInfo);
+                attributes[i] = new AttributeStructure(this.getParent(), name, buffer, offset, (int)infoLength);
             }
+            offset += infoLength;
         }
+        return offset;
     }
 
     /**
@@ -157,7 +154,27 @@ public class MethodInfo {
      * @return The type parameters associated with this {@link MethodInfo} instance
      */
     public TypeDescriptor[] getParams() {
-        return this.params;
+        return this.parsedDescriptor.getParams();
+    }
+
+    /**
+     * Gets the number of parameters associated with this {@link MethodInfo} instance.
+     *
+     * @return The number of parameters associated with this {@link MethodInfo} instance
+     */
+    public int getParamCount() {
+        return this.parsedDescriptor.getParamCount();
+    }
+
+    /**
+     * Gets the type of the parameter at the given index.
+     *
+     * @param index The index of the parameter
+     * @return The type of the parameter at the given index
+     * @throws IndexOutOfBoundsException If the index is out of range
+     */
+    public TypeDescriptor getParam(int index) {
+        return this.parsedDescriptor.getParam(index);
     }
 
     /**
@@ -166,7 +183,7 @@ public class MethodInfo {
      * @return The return type associated with this {@link MethodInfo} instance
      */
     public TypeDescriptor getReturnType() {
-        return this.returnType;
+        return this.parsedDescriptor.getReturnType();
     }
 
     /**
@@ -178,4 +195,13 @@ public class MethodInfo {
         return this.attributes;
     }
 
+    /**
+     * Gets the length in bytes of this method's info within the class file.
+     *
+     * @return The length in bytes of this method's info
+     */
+    public int getLength() {
+        return this.length;
+    }
+
 }
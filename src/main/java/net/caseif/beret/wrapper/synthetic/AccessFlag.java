@@ -28,7 +28,8 @@
  */
 package net.caseif.beret.wrapper.synthetic;
 
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.Set;
 
 /**
@@ -38,8 +39,13 @@ import java.util.Set;
  */
 public final class AccessFlag {
 
+    private static final ClassFlag[] CLASS_FLAGS = ClassFlag.values();
+    private static final FieldFlag[] FIELD_FLAGS = FieldFlag.values();
+    private static final MethodFlag[] METHOD_FLAGS = MethodFlag.values();
+
     private final AccessTarget target;
-    private final Set<Enum> flags;
+    private final int mask;
+    private volatile Set<? extends Enum<?>> flags;
 
     /**
      * Constructs a new access flag from the given bitmask.
@@ -49,33 +55,21 @@ public final class AccessFlag {
      * @param second The second byte of the bitmask
      */
     public AccessFlag(AccessTarget target, byte first, byte second) {
-        this.target = target;
-        flags = new HashSet<>();
-        if (target == AccessTarget.CLASS) {
-            for (ClassFlag ft : ClassFlag.values()) {
-                if (ft.isFirst && (first & ft.mask) == ft.mask
-                        || !ft.isFirst && (second & ft.mask) == ft.mask) {
-                    flags.add(ft);
-                }
-            }
-        } else if (target == AccessTarget.FIELD) {
-            for (FieldFlag ft : FieldFlag.values()) {
-                if (ft.isFirst && (first & ft.mask) == ft.mask
-                        || !ft.isFirst && (second & ft.mask) == ft.mask) {
-                    flags.add(ft);
-                }
-            }
-        } else if (target == AccessTarget.METHOD) {
-            for (MethodFlag ft : MethodFlag.values()) {
-                if (ft.isFirst && (first & ft.mask) == ft.mask
-                        || !ft.isFirst && (second & ft.mask) == ft.mask) {
-                    flags.add(ft);
-                }
-            }
-        }
+        this(target, (first & 0xFF) << 8 | second & 0xFF);
         //TODO: verify the flag combination is valid
     }
 
+    /**
+     * Constructs a new access flag from the given bitmask.
+     *
+     * @param target The item type this flag applies to
+     * @param mask   The bitmask, as an unsigned 16-bit value
+     */
+    public AccessFlag(AccessTarget target, int mask) {
+        this.target = target;
+        this.mask = mask & 0xFFFF;
+    }
+
     /**
      * Gets the structure type which these flags apply to.
      *
@@ -85,13 +79,96 @@ public final class AccessFlag {
         return this.target;
     }
 
+    /**
+     * Gets the raw bitmask backing this {@link AccessFlag}.
+     *
+     * @return The raw bitmask backing this {@link AccessFlag}
+     */
+    public int getMask() {
+        return this.mask;
+    }
+
+    /**
+     * Returns whether the given class flag is set by this {@link AccessFlag}.
+     *
+     * @param flag The flag to test for
+     * @return Whether the given flag is set
+     */
+    public boolean has(ClassFlag flag) {
+        return target == AccessTarget.CLASS && (mask & flag.bit) == flag.bit;
+    }
+
+    /**
+     * Returns whether the given field flag is set by this {@link AccessFlag}.
+     *
+     * @param flag The flag to test for
+     * @return Whether the given flag is set
+     */
+    public boolean has(FieldFlag flag) {
+        return target == AccessTarget.FIELD && (mask & flag.bit) == flag.bit;
+    }
+
+    /**
+     * Returns whether the given method flag is set by this {@link AccessFlag}.
+     *
+     * @param flag The flag to test for
+     * @return Whether the given flag is set
+     */
+    public boolean has(MethodFlag flag) {
+        return target == AccessTarget.METHOD && (mask & flag.bit) == flag.bit;
+    }
+
     /**
      * Gets all access flags set by this {@link AccessFlag}.
      *
+     * <p>The returned set is unmodifiable and is created upon the first call
+     * to this method. Where only individual flags are of interest, the
+     * {@code has} methods avoid creating it altogether.</p>
+     *
      * @return All access flags set by this {@link AccessFlag}
      */
-    public Set<? extends Enum> getFlags() {
-        return this.flags;
+    public Set<? extends Enum<?>> getFlags() {
+        Set<? extends Enum<?>> flags = this.flags;
+        if (flags == null) {
+            // racing threads build equal sets, so whichever is published last is as good as any
+            flags = Collections.unmodifiableSet(buildFlags());
+            this.flags = flags;
+        }
+        return flags;
+    }
+
+    private Set<? extends Enum<?>> buildFlags() {
+        switch (target) {
+            case CLASS: {
+                EnumSet<ClassFlag> set = EnumSet.noneOf(ClassFlag.class);
+                for (ClassFlag ft : CLASS_FLAGS) {
+                    if (has(ft)) {
+                        set.add(ft);
+                    }
+                }
+                return set;
+            }
+            case FIELD: {
+                EnumSet<FieldFlag> set = EnumSet.noneOf(FieldFlag.class);
+                for (FieldFlag ft : FIELD_FLAGS) {
+                    if (has(ft)) {
+                        set.add(ft);
+                    }
+                }
+                return set;
+            }
+            case METHOD: {
+                EnumSet<MethodFlag> set = EnumSet.noneOf(MethodFlag.class);
+                for (MethodFlag ft : METHOD_FLAGS) {
+                    if (has(ft)) {
+                        set.add(ft);
+                    }
+                }
+                return set;
+            }
+            default:
+                throw new AssertionError("Unhandled access target " + target);
+        }
     }
 
     /**
@@ -118,16 +195,23 @@ public final class AccessFlag {
         ACC_SYNTHETIC((byte)0x10, true, false),
         ACC_ANNOTATION((byte)0x20, true, false);
 
-        private byte mask;
-        private boolean isFirst;
-        private boolean inSource;
+        private final int bit;
+        private final boolean inSource;
 
         ClassFlag(byte mask, boolean isFirst, boolean inSource) {
-            this.mask = mask;
-            this.isFirst = isFirst;
+            this.bit = isFirst ? (mask & 0xFF) << 8 : mask & 0xFF;
             this.inSource = inSource;
         }
 
+        /**
+         * Returns the bit denoting this flag within a 16-bit access mask.
+         *
+         * @return The bit denoting this flag
+         */
+        public int getBit() {
+            return bit;
+        }
+
         public boolean isPresentInSource() {
             return inSource;
         }
@@ -155,16 +239,23 @@ public final class AccessFlag {
         ACC_ENUM((byte)0x40, true, false),
         ACC_SYNTHETIC((byte)0x10, true, false);
 
-        private byte mask;
-        private boolean isFirst;
-        private boolean inSource;
+        private final int bit;
+        private final boolean inSource;
 
         FieldFlag(byte mask, boolean isFirst, boolean inSource) {
-            this.mask = mask;
-            this.isFirst = isFirst;
+            this.bit = isFirst ? (mask & 0xFF) << 8 : mask & 0xFF;
             this.inSource = inSource;
         }
 
+        /**
+         * Returns the bit denoting this flag within a 16-bit access mask.
+         *
+         * @return The bit denoting this flag
+         */
+        public int getBit() {
+            return bit;
+        }
+
         public boolean isPresentInSource() {
             return inSource;
         }
@@ -195,16 +286,23 @@ public final class AccessFlag {
         ACC_VARARGS((byte)0x80, false, false),
         ACC_SYNTHETIC((byte)0x10, true, false);
 
-        private byte mask;
-        private boolean isFirst;
-        private boolean inSource;
+        private final int bit;
+        private final boolean inSource;
 
         MethodFlag(byte mask, boolean isFirst, boolean inSource) {
-            this.mask = mask;
-            this.isFirst = isFirst;
+            this.bit = isFirst ? (mask & 0xFF) << 8 : mask & 0xFF;
             this.inSource = inSource;
         }
 
+        /**
+         * Returns the bit denoting this flag within a 16-bit access mask.
+         *
+         * @return The bit denoting this flag
+         */
+        public int getBit() {
+            return bit;
+        }
+
         public boolean isPresentInSource() {
             return inSource;
         }
@@ -51,7 +51,8 @@ public class ExceptionHandler {
      *                     active
      * @param end          The index within the method's code array at which this {@link ExceptionHandler} ends
      * @param handlerStart The index within the method's code array at which this {@link ExceptionHandler} begins
-     * @param catchType    The class representing the exception this {@link ExceptionHandler} is designated to catch
+     * @param catchType    The class representing the exception this {@link ExceptionHandler} is designated to catch,
+     *                     or <code>null</code> if it catches all exceptions
      */
     public ExceptionHandler(MethodInfo parent, int start, int end, int handlerStart, String catchType) {
         if (end <= start) {
@@ -42,7 +42,7 @@ public class Instruction {
     private byte[] extra;
 
     public Instruction(Opcode opcode, int byteOffset, byte... extraBytes) {
-        assert opcode.getAdditionalBytes() == extraBytes.length;
+        assert opcode.getAdditionalBytes() == -1 || opcode.getAdditionalBytes() == extraBytes.length;
         this.opcode = opcode;
         this.byteOffset = byteOffset;
         this.extra = extraBytes;
@@ -59,6 +59,9 @@ public class AccessFlagTest {
         AccessFlag flag = new AccessFlag(AccessFlag.AccessTarget.CLASS, first, second);
         assert flag.getFlags().containsAll(Arrays.asList(expected)); // check it has all the flags we expect
         assert Arrays.asList(expected).containsAll(flag.getFlags()); // check it doesn't have any unexpected flags
+        for (AccessFlag.ClassFlag ft : AccessFlag.ClassFlag.values()) {
+            assert flag.has(ft) == Arrays.asList(expected).contains(ft); // check the bit tests agree with the set
+        }
     }
 
 }
@@ -0,0 +1,71 @@
+/*
+ * New BSD License (BSD-new)
+ *
+ * Copyright (c) 2015 Maxim Roncacé
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     - Neither the name of the copyright holder nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.caseif.beret;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+
+public class ArchiveManifestTest {
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Path file = Files.createTempFile("beret-manifest", null);
+        try {
+            ArchiveManifest manifest = new ArchiveManifest("decompile");
+            manifest.record(entry("a/A.class", 1234, 10));
+            manifest.record(entry("a/B\tC.class", 5678, 20));
+            manifest.save(file);
+
+            ArchiveManifest loaded = ArchiveManifest.load(file, "decompile");
+            assert loaded.getEntryNames().size() == 2;
+            assert loaded.isUnchanged(entry("a/A.class", 1234, 10));
+            assert loaded.isUnchanged(entry("a/B\tC.class", 5678, 20));
+            assert !loaded.isUnchanged(entry("a/A.class", 1235, 10));
+            assert !loaded.isUnchanged(entry("a/A.class", 1234, 11));
+            assert !loaded.isUnchanged(entry("a/D.class", 1234, 10));
+
+            assert ArchiveManifest.load(file, "dump").getEntryNames().isEmpty();
+        } finally {
+            Files.delete(file);
+        }
+        assert ArchiveManifest.load(file, "decompile").getEntryNames().isEmpty();
+    }
+
+    private static ZipEntry entry(String name, long crc, long size) {
+        ZipEntry entry = new ZipEntry(name);
+        entry.setCrc(crc);
+        entry.setSize(size);
+        return entry;
+    }
+
+}
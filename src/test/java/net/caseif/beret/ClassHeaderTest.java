@@ -0,0 +1,114 @@
+/*
+ * New BSD License (BSD-new)
+ *
+ * Copyright (c) 2015 Maxim Roncacé
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     - Neither the name of the copyright holder nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.caseif.beret;
+
+import net.caseif.beret.wrapper.ClassHeader;
+import net.caseif.beret.wrapper.ClassInfo;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+
+/**
+ * Tests scanning only the header of a class file.
+ *
+ * @author Max Roncacé
+ */
+public class ClassHeaderTest {
+
+    @Test
+    public void testHeaderFields() throws IOException {
+        byte[] bytes = readClass(ArrayList.class);
+        ClassHeader header = new ClassHeader(bytes);
+        assert header.getName().equals("java/util/ArrayList");
+        assert header.getPackage().equals("java.util");
+        assert header.getBaseName().equals("ArrayList");
+        assert header.getSuperName().equals("java/util/AbstractList");
+        assert header.getMajorVersion() >= 52;
+
+        Class<?>[] interfaces = ArrayList.class.getInterfaces();
+        assert header.getInterfaces().length == interfaces.length;
+        for (int i = 0; i < interfaces.length; i++) {
+            assert header.getInterfaces()[i].equals(interfaces[i].getName().replace('.', '/'));
+        }
+        int modifiers = Modifier.PUBLIC | Modifier.FINAL | Modifier.INTERFACE | Modifier.ABSTRACT;
+        assert (header.getAccessModifiers().getMask() & modifiers) == (ArrayList.class.getModifiers() & modifiers);
+
+        // the field count immediately follows the header
+        ClassInfo info = new ClassInfo(bytes);
+        assert Util.readUshort(info.getBuffer(), header.getEndOffset()) == info.getFields().length;
+        assert info.getHeader().getEndOffset() == header.getEndOffset();
+    }
+
+    @Test
+    public void testHeaderOnly() throws IOException {
+        byte[] bytes = readClass(ArrayList.class);
+        int endOffset = new ClassHeader(bytes).getEndOffset();
+
+        // nothing beyond the header may be read, so a class cut off where its fields begin must still scan
+        byte[] padded = new byte[endOffset + 3];
+        System.arraycopy(bytes, 0, padded, 3, endOffset);
+        ClassHeader header = new ClassHeader(padded, 3, endOffset);
+        assert header.getName().equals("java/util/ArrayList");
+        assert header.getEndOffset() == endOffset;
+
+        try {
+            new ClassInfo(padded, 3, endOffset);
+            assert false;
+        } catch (IndexOutOfBoundsException expected) {
+        }
+    }
+
+    @Test
+    public void testBadMagic() {
+        try {
+            new ClassHeader(new byte[] {(byte)0xCA, (byte)0xFE, (byte)0xD0, (byte)0x0D, 0, 0, 0, 52});
+            assert false;
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    private static byte[] readClass(Class<?> clazz) throws IOException {
+        String resource = "/" + clazz.getName().replace('.', '/') + ".class";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream stream = clazz.getResourceAsStream(resource)) {
+            byte[] chunk = new byte[4096];
+            int read;
+            while ((read = stream.read(chunk)) != -1) {
+                out.write(chunk, 0, read);
+            }
+        }
+        return out.toByteArray();
+    }
+
+}
@@ -0,0 +1,162 @@
+/*
+ * New BSD License (BSD-new)
+ *
+ * Copyright (c) 2015 Maxim Roncacé
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     - Neither the name of the copyright holder nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.caseif.beret;
+
+import net.caseif.beret.wrapper.ClassInfo;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Tests loading the same class through each of {@link ClassInfo}'s
+ * constructors.
+ *
+ * @author Max Roncacé
+ */
+public class ClassInfoTest {
+
+    @Test
+    public void testArray() throws IOException {
+        byte[] bytes = readClass(Util.class);
+        ClassInfo info = new ClassInfo(bytes);
+        assert info.getName().equals("net/caseif/beret/Util");
+        assert info.getBytes() == bytes;
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testDeprecatedLoaders() throws IOException {
+        ClassInfo info = new ClassInfo(readClass(Util.class));
+        String expected = dump(info);
+        // kept for compatibility; everything is already loaded, so they must leave the class as it was
+        info.loadClassInfo();
+        info.loadFields();
+        info.loadMethods();
+        assert dump(info).equals(expected);
+    }
+
+    @Test
+    public void testArrayRange() throws IOException {
+        byte[] bytes = readClass(Util.class);
+        String expected = dump(new ClassInfo(bytes));
+
+        byte[] padded = new byte[bytes.length + 16];
+        Arrays.fill(padded, (byte)0xFF);
+        System.arraycopy(bytes, 0, padded, 7, bytes.length);
+        ClassInfo info = new ClassInfo(padded, 7, bytes.length);
+        assert dump(info).equals(expected);
+        assert Arrays.equals(info.getBytes(), bytes);
+        assert info.getBytes() == info.getBytes() : "Bytes of a ranged class were copied more than once";
+
+        try {
+            new ClassInfo(padded, 20, padded.length);
+            assert false;
+        } catch (IndexOutOfBoundsException expectedEx) {
+        }
+    }
+
+    @Test
+    public void testStream() throws IOException {
+        byte[] bytes = readClass(Util.class);
+        String expected = dump(new ClassInfo(bytes));
+
+        // a stream which cannot report its length leaves the read buffer oversized
+        InputStream stream = new ByteArrayInputStream(bytes) {
+            @Override
+            public synchronized int available() {
+                return 0;
+            }
+        };
+        ClassInfo info = new ClassInfo(stream);
+        assert dump(info).equals(expected);
+        assert Arrays.equals(info.getBytes(), bytes);
+        assert info.getBytes() == info.getBytes() : "Bytes of a streamed class were copied more than once";
+    }
+
+    @Test
+    public void testDirectBuffer() throws IOException {
+        byte[] bytes = readClass(Util.class);
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes).flip();
+        ClassInfo info = new ClassInfo(direct);
+        assert dump(info).equals(dump(new ClassInfo(bytes)));
+        assert Arrays.equals(info.getBytes(), bytes);
+        assert direct.position() == 0 && direct.limit() == bytes.length;
+    }
+
+    @Test
+    public void testDumpMatchesGolden() throws IOException {
+        ClassInfo info = new ClassInfo(readResource("/fixture/Fixture.class"));
+        String expected = new String(readResource("/fixture/Fixture.dump.txt"), StandardCharsets.UTF_8);
+        assert dump(info).equals(expected) : "Dump of fixture differs from golden output";
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        info.dump(stream);
+        assert new String(stream.toByteArray(), StandardCharsets.UTF_8).equals(expected)
+                : "Dump of fixture to a stream differs from golden output";
+    }
+
+    private static byte[] readClass(Class<?> clazz) throws IOException {
+        return readResource("/" + clazz.getName().replace('.', '/') + ".class");
+    }
+
+    /**
+     * Reads the given resource in its entirety.
+     *
+     * @param resource The absolute name of the resource to read
+     * @return The content of the resource
+     * @throws IOException If an exception occurs while reading the resource
+     */
+    static byte[] readResource(String resource) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream stream = ClassInfoTest.class.getResourceAsStream(resource)) {
+            assert stream != null : "Missing resource " + resource;
+            byte[] chunk = new byte[4096];
+            int read;
+            while ((read = stream.read(chunk)) != -1) {
+                out.write(chunk, 0, read);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static String dump(ClassInfo info) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        info.dump(sb);
+        return sb.toString();
+    }
+
+}
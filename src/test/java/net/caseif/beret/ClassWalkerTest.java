@@ -0,0 +1,128 @@
+/*
+ * New BSD License (BSD-new)
+ *
+ * Copyright (c) 2015 Maxim Roncacé
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     - Neither the name of the copyright holder nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.caseif.beret;
+
+import net.caseif.beret.structures.AttributeStructure;
+import net.caseif.beret.structures.CodeStructure;
+import net.caseif.beret.structures.constant.ConstantStructure;
+import net.caseif.beret.visitor.ClassVisitor;
+import net.caseif.beret.visitor.ClassWalker;
+import net.caseif.beret.visitor.CodeVisitor;
+import net.caseif.beret.visitor.MethodVisitor;
+import net.caseif.beret.wrapper.ClassInfo;
+import net.caseif.beret.wrapper.MethodInfo;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Tests that walking a class visits the same content as parsing it.
+ *
+ * @author Max Roncacé
+ */
+public class ClassWalkerTest {
+
+    @Test
+    public void testWalkMatchesParse() throws IOException {
+        byte[] bytes = readClass(ConstantStructure.class); // contains a tableswitch
+
+        int expected = 0;
+        for (MethodInfo method : new ClassInfo(bytes).getMethods()) {
+            for (AttributeStructure attr : method.getAttributes()) {
+                if (attr instanceof CodeStructure) {
+                    expected += ((CodeStructure)attr).getInstructions().size();
+                }
+            }
+        }
+
+        final int[] count = new int[1];
+        boolean completed = ClassWalker.walk(bytes, new ClassVisitor() {
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String descriptor) {
+                return new MethodVisitor() {
+                    @Override
+                    public CodeVisitor visitCode(int maxStack, int maxLocals, int codeLength) {
+                        return new CodeVisitor() {
+                            @Override
+                            public boolean visitInstruction(int offset, Opcode opcode, ByteBuffer buffer,
+                                                            int operandOffset, int operandLength) {
+                                assert opcode != Opcode.UNKNOWN;
+                                ++count[0];
+                                return true;
+                            }
+                        };
+                    }
+                };
+            }
+        });
+        assert completed;
+        assert count[0] == expected : "Walked " + count[0] + " instructions, expected " + expected;
+    }
+
+    @Test
+    public void testAbort() throws IOException {
+        final int[] count = new int[1];
+        boolean completed = ClassWalker.walk(readClass(ConstantStructure.class), new ClassVisitor() {
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String descriptor) {
+                ++count[0];
+                return new MethodVisitor() {
+                    @Override
+                    public CodeVisitor visitCode(int maxStack, int maxLocals, int codeLength) {
+                        return new CodeVisitor() {
+                            @Override
+                            public boolean visitInstruction(int offset, Opcode opcode, ByteBuffer buffer,
+                                                            int operandOffset, int operandLength) {
+                                return false;
+                            }
+                        };
+                    }
+                };
+            }
+
+            @Override
+            public void visitEnd() {
+                assert false : "visitEnd called after abort";
+            }
+        });
+        assert !completed;
+        assert count[0] == 1;
+    }
+
+    private static byte[] readClass(Class<?> clazz) throws IOException {
+        String resource = "/" + clazz.getName().replace('.', '/') + ".class";
+        try (InputStream stream = clazz.getResourceAsStream(resource)) {
+            return new ClassInfo(stream).getBytes();
+        }
+    }
+
+}
@@ -0,0 +1,177 @@
+/*
+ * New BSD License (BSD-new)
+ *
+ * Copyright (c) 2015 Maxim Roncacé
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     - Neither the name of the copyright holder nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.caseif.beret;
+
+import net.caseif.beret.structures.AttributeStructure;
+import net.caseif.beret.structures.CodeStructure;
+import net.caseif.beret.wrapper.ClassInfo;
+import net.caseif.beret.wrapper.MethodInfo;
+import net.caseif.beret.wrapper.synthetic.ExceptionHandler;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Tests decoding of the exception table and attributes of a Code attribute.
+ *
+ * @author Max Roncacé
+ */
+public class CodeStructureTest {
+
+    @Test
+    public void testExceptionTable() throws IOException {
+        ClassInfo info = new ClassInfo(generateClass());
+        MethodInfo method = info.getMethods()[0];
+        assert method.getName().equals("run");
+        CodeStructure code = null;
+        for (AttributeStructure attr : method.getAttributes()) {
+            if (attr instanceof CodeStructure) {
+                code = (CodeStructure)attr;
+            }
+        }
+        assert code != null;
+        assert code.getCode().length == 10;
+
+        // each entry is eight bytes long, so every entry after the first must be read from its own offset
+        ExceptionHandler[] handlers = code.getExceptionHandlers();
+        assert handlers.length == 3;
+        assertHandler(handlers[0], 0, 3, 3, "java/io/IOException");
+        assertHandler(handlers[1], 0, 3, 5, "java/lang/RuntimeException");
+        assertHandler(handlers[2], 0, 7, 7, null); // a catch type of 0 catches everything, as finally blocks do
+        for (ExceptionHandler handler : handlers) {
+            assert handler.getParent() == method;
+        }
+
+        // the attributes following the table must be found where it ends
+        assert code.getAttributes().length == 1;
+        assert code.getAttributes()[0].getName().equals("Custom");
+        assert code.getAttributes()[0].getLength() == 2;
+    }
+
+    private static void assertHandler(ExceptionHandler handler, int start, int end, int handlerStart,
+            String catchType) {
+        assert handler.getStartIndex() == start;
+        assert handler.getEndIndex() == end;
+        assert handler.getHandlerStartIndex() == handlerStart;
+        assert catchType == null ? handler.getCatchType() == null : catchType.equals(handler.getCatchType())
+                : "Expected catch type " + catchType + " but found " + handler.getCatchType();
+    }
+
+    /**
+     * Generates a class file containing a single method with several
+     * exception handlers, the last of which catches all exceptions.
+     *
+     * @return The bytes of the generated class file
+     * @throws IOException If an exception occurs while generating the class
+     */
+    private static byte[] generateClass() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0xCAFEBABE);
+        out.writeShort(0); // minor version
+        out.writeShort(52); // major version
+
+        out.writeShort(13); // constant pool count
+        writeUtf8(out, "Handlers"); // #1
+        writeClass(out, 1); // #2
+        writeUtf8(out, "java/lang/Object"); // #3
+        writeClass(out, 3); // #4
+        writeUtf8(out, "run"); // #5
+        writeUtf8(out, "()V"); // #6
+        writeUtf8(out, "Code"); // #7
+        writeUtf8(out, "java/io/IOException"); // #8
+        writeClass(out, 8); // #9
+        writeUtf8(out, "java/lang/RuntimeException"); // #10
+        writeClass(out, 10); // #11
+        writeUtf8(out, "Custom"); // #12
+
+        out.writeShort(0x0021); // public super
+        out.writeShort(2); // this class
+        out.writeShort(4); // superclass
+        out.writeShort(0); // interfaces
+        out.writeShort(0); // fields
+
+        out.writeShort(1); // methods
+        out.writeShort(0x0001); // public
+        out.writeShort(5); // name
+        out.writeShort(6); // descriptor
+        out.writeShort(1); // attribute count
+
+        byte[] code = new byte[] {
+                Opcode.NOP.getByteCode(), // 0
+                Opcode.NOP.getByteCode(), // 1
+                Opcode.RETURN.getByteCode(), // 2
+                Opcode.ASTORE_1.getByteCode(), // 3: IOException handler
+                Opcode.RETURN.getByteCode(), // 4
+                Opcode.ASTORE_1.getByteCode(), // 5: RuntimeException handler
+                Opcode.RETURN.getByteCode(), // 6
+                Opcode.ASTORE_1.getByteCode(), // 7: catch-all handler
+                Opcode.ALOAD_1.getByteCode(), // 8
+                Opcode.ATHROW.getByteCode() // 9
+        };
+        int[][] table = new int[][] {
+                {0, 3, 3, 9},
+                {0, 3, 5, 11},
+                {0, 7, 7, 0}
+        };
+        out.writeShort(7); // Code
+        out.writeInt(2 + 2 + 4 + code.length + 2 + table.length * 8 + 2 + 6 + 2); // attribute length
+        out.writeShort(1); // max stack
+        out.writeShort(2); // max locals
+        out.writeInt(code.length);
+        out.write(code);
+        out.writeShort(table.length);
+        for (int[] entry : table) {
+            for (int value : entry) {
+                out.writeShort(value);
+            }
+        }
+        out.writeShort(1); // attribute count
+        out.writeShort(12); // Custom
+        out.writeInt(2);
+        out.writeShort(0xBEEF);
+
+        out.writeShort(0); // class attributes
+        return bytes.toByteArray();
+    }
+
+    private static void writeUtf8(DataOutputStream out, String value) throws IOException {
+        out.writeByte(1);
+        out.writeUTF(value);
+    }
+
+    private static void writeClass(DataOutputStream out, int nameIndex) throws IOException {
+        out.writeByte(7);
+        out.writeShort(nameIndex);
+    }
+
+}
@@ -0,0 +1,158 @@
+/*
+ * New BSD License (BSD-new)
+ *
+ * Copyright (c) 2015 Maxim Roncacé
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     - Neither the name of the copyright holder nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.caseif.beret;
+
+import net.caseif.beret.structures.AttributeStructure;
+import net.caseif.beret.structures.CodeStructure;
+import net.caseif.beret.structures.constant.ConstantStructure;
+import net.caseif.beret.wrapper.ClassInfo;
+import net.caseif.beret.wrapper.FieldInfo;
+import net.caseif.beret.wrapper.MethodInfo;
+import net.caseif.beret.wrapper.synthetic.AccessFlag;
+import net.caseif.beret.wrapper.synthetic.Instruction;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Stress tests parsing and decompiling a corpus of classes from many threads
+ * at once.
+ *
+ * @author Max Roncacé
+ */
+public class ConcurrentParseTest {
+
+    private static final Class<?>[] CORPUS = new Class<?>[] {
+            AccessFlag.class, AttributeStructure.class, Beret.class, BytecodeAgent.class, ClassInfo.class,
+            CodeStructure.class, ConstantStructure.class, DecompileAgent.class, FieldInfo.class, Instruction.class,
+            MethodInfo.class, Opcode.class, TypeDescriptor.class, Util.class
+    };
+
+    private static final int THREADS = 8;
+    private static final int PASSES = 25;
+
+    @Test
+    public void testConcurrentParsing() throws Exception {
+        final List<byte[]> corpus = new ArrayList<>();
+        final List<String> expected = new ArrayList<>();
+        for (Class<?> clazz : CORPUS) {
+            byte[] bytes = readClass(clazz);
+            corpus.add(bytes);
+            expected.add(describe(new ClassInfo(bytes)));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<List<String>>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                final int rotation = t;
+                futures.add(executor.submit(() -> {
+                    List<String> results = new ArrayList<>();
+                    for (int pass = 0; pass < PASSES; pass++) {
+                        for (int i = 0; i < corpus.size(); i++) {
+                            // stagger the order so that threads parse different classes at the same time
+                            int index = (i + rotation + pass) % corpus.size();
+                            results.add(index + ":" + describe(new ClassInfo(corpus.get(index))));
+                        }
+                    }
+                    return results;
+                }));
+            }
+            for (Future<List<String>> future : futures) {
+                for (String result : future.get()) {
+                    int index = Integer.parseInt(result.substring(0, result.indexOf(':')));
+                    assert result.substring(result.indexOf(':') + 1).equals(expected.get(index))
+                            : "Concurrent parse of " + CORPUS[index].getName() + " differs from sequential parse";
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testParallelDecompilation() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (Class<?> clazz : CORPUS) {
+                ClassInfo info = new ClassInfo(readClass(clazz));
+                assert new DecompileAgent(info, executor).decompile().equals(new DecompileAgent(info).decompile())
+                        : "Parallel decompilation of " + clazz.getName() + " differs from sequential decompilation";
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static byte[] readClass(Class<?> clazz) throws IOException {
+        String resource = "/" + clazz.getName().replace('.', '/') + ".class";
+        try (InputStream stream = clazz.getResourceAsStream(resource)) {
+            return new ClassInfo(stream).getBytes();
+        }
+    }
+
+    /**
+     * Builds a textual description of the parsed structure of the given
+     * class.
+     *
+     * @param info The class to describe
+     * @return A description of the given class
+     */
+    private static String describe(ClassInfo info) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(info.getName()).append(" extends ").append(info.getSuperName()).append('\n');
+        for (FieldInfo field : info.getFields()) {
+            sb.append(field.getName()).append(' ').append(field.getDescriptor()).append('\n');
+        }
+        for (MethodInfo method : info.getMethods()) {
+            sb.append(method.getName()).append(method.getDescriptor()).append('\n');
+            for (AttributeStructure attr : method.getAttributes()) {
+                sb.append(' ').append(attr.getName()).append(' ').append(attr.getLength());
+                if (attr instanceof CodeStructure) {
+                    for (Instruction instr : ((CodeStructure)attr).getCode()) {
+                        sb.append(' ').append(instr.getByteOffset()).append(instr.getOpcode());
+                    }
+                }
+                sb.append('\n');
+            }
+        }
+        for (AttributeStructure attr : info.getAttributes()) {
+            sb.append(attr.getName()).append(' ').append(attr.getLength()).append('\n');
+        }
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,180 @@
+/*
+ * New BSD License (BSD-new)
+ *
+ * Copyright (c) 2015 Maxim Roncacé
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     - Neither the name of the copyright holder nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.caseif.beret;
+
+import net.caseif.beret.analysis.ControlFlowGraph;
+import net.caseif.beret.analysis.DominatorTree;
+import net.caseif.beret.analysis.LoopForest;
+import net.caseif.beret.structures.InstructionStream;
+import net.caseif.beret.wrapper.synthetic.ExceptionHandler;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Tests construction and analysis of control-flow graphs.
+ *
+ * @author Max Roncacé
+ */
+public class ControlFlowGraphTest {
+
+    @Test
+    public void testBlocksAndEdges() throws IOException {
+        ControlFlowGraph graph = new ControlFlowGraph(loop(9), new ExceptionHandler[] {
+                new ExceptionHandler(null, 4, 7, 11, null)
+        });
+        assert graph.getBlockCount() == 6;
+        int[] starts = {0, 1, 4, 7, 10, 11};
+        for (int b = 0; b < starts.length; b++) {
+            assert graph.getBlockStart(b) == starts[b];
+        }
+        assert graph.getBlockEnd(5) == 13;
+        assert graph.getBlockAt(5) == 2;
+        assert graph.getBlockAt(12) == 5;
+        assert graph.getBlockAt(13) == -1;
+
+        assertSuccessors(graph, 0, 1);
+        assertSuccessors(graph, 1, 4, 2);
+        assertSuccessors(graph, 2, 3);
+        assertSuccessors(graph, 3, 1);
+        assertSuccessors(graph, 4);
+        assertSuccessors(graph, 5);
+        assert graph.getPredecessorCount(1) == 2;
+        assert graph.getPredecessorCount(5) == 0;
+
+        assert graph.getExceptionalSuccessorCount(2) == 1 && graph.getExceptionalSuccessor(2, 0) == 5;
+        assert graph.getExceptionalSuccessorCount(3) == 0;
+        assert graph.getExceptionalPredecessorCount(5) == 1 && graph.getExceptionalPredecessor(5, 0) == 2;
+    }
+
+    @Test
+    public void testDominatorsAndLoops() throws IOException {
+        ControlFlowGraph graph = new ControlFlowGraph(loop(9), new ExceptionHandler[] {
+                new ExceptionHandler(null, 4, 7, 11, null)
+        });
+        DominatorTree dominators = DominatorTree.dominatorsOf(graph);
+        int[] idoms = {-1, 0, 1, 2, 1, 2};
+        for (int b = 0; b < idoms.length; b++) {
+            assert dominators.getImmediateDominator(b) == idoms[b];
+        }
+        assert dominators.dominates(1, 5) && !dominators.dominates(3, 5) && dominators.dominates(4, 4);
+
+        // the handler offers a second way out of the loop body, so only the back edge has a post-dominator
+        DominatorTree postDominators = DominatorTree.postDominatorsOf(graph);
+        int[] ipdoms = {1, -1, -1, 1, -1, -1};
+        for (int b = 0; b < ipdoms.length; b++) {
+            assert postDominators.getImmediateDominator(b) == ipdoms[b];
+        }
+        assert postDominators.dominates(1, 3) && !postDominators.dominates(4, 2);
+
+        LoopForest loops = new LoopForest(dominators);
+        assert loops.getLoopCount() == 1;
+        assert loops.getHeader(0) == 1 && loops.getParent(0) == -1 && loops.getDepth(0) == 1;
+        assert loops.isHeader(1) && !loops.isHeader(2);
+        for (int b = 0; b < graph.getBlockCount(); b++) {
+            assert loops.contains(0, b) == (b >= 1 && b <= 3);
+        }
+    }
+
+    @Test
+    public void testReturnInsideTry() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(Opcode.ICONST_0.getByteCode()); // 0
+        out.writeByte(Opcode.IRETURN.getByteCode()); // 1
+        out.writeByte(Opcode.ASTORE_1.getByteCode()); // 2
+        out.writeByte(Opcode.ICONST_1.getByteCode()); // 3
+        out.writeByte(Opcode.IRETURN.getByteCode()); // 4
+        byte[] code = bytes.toByteArray();
+        ControlFlowGraph graph = new ControlFlowGraph(new InstructionStream(null, ByteBuffer.wrap(code), 0, code.length),
+                new ExceptionHandler[] {
+                        new ExceptionHandler(null, 0, 2, 2, null)
+                }
+        );
+        assert graph.getBlockCount() == 2;
+        assert graph.getSuccessorCount(0) == 0;
+        assert graph.getExceptionalSuccessorCount(0) == 1;
+
+        // the protected return leaves the method without passing through the handler
+        DominatorTree postDominators = DominatorTree.postDominatorsOf(graph);
+        assert postDominators.getImmediateDominator(0) == -1;
+        assert postDominators.getImmediateDominator(1) == -1;
+        assert !postDominators.dominates(1, 0);
+        assert postDominators.isReachable(0);
+
+        DominatorTree dominators = DominatorTree.dominatorsOf(graph);
+        assert dominators.getImmediateDominator(1) == 0;
+    }
+
+    @Test
+    public void testMisalignedTarget() throws IOException {
+        try {
+            new ControlFlowGraph(loop(1), new ExceptionHandler[0]); // branches into the middle of the ifeq
+            assert false;
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    private static void assertSuccessors(ControlFlowGraph graph, int block, int... expected) {
+        assert graph.getSuccessorCount(block) == expected.length;
+        for (int i = 0; i < expected.length; i++) {
+            assert graph.getSuccessor(block, i) == expected[i];
+        }
+    }
+
+    /**
+     * Assembles a loop which decrements a local until it reaches zero,
+     * followed by an exception handler.
+     *
+     * @param exitOffset The relative offset of the branch out of the loop
+     * @return The assembled code
+     */
+    private static InstructionStream loop(int exitOffset) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(Opcode.ILOAD_0.getByteCode()); // 0
+        out.writeByte(Opcode.IFEQ.getByteCode()); // 1
+        out.writeShort(exitOffset);
+        out.writeByte(Opcode.IINC.getByteCode()); // 4
+        out.writeByte(0);
+        out.writeByte(-1);
+        out.writeByte(Opcode.GOTO.getByteCode()); // 7
+        out.writeShort(-6);
+        out.writeByte(Opcode.RETURN.getByteCode()); // 10
+        out.writeByte(Opcode.ASTORE_1.getByteCode()); // 11
+        out.writeByte(Opcode.RETURN.getByteCode()); // 12
+        byte[] code = bytes.toByteArray();
+        return new InstructionStream(null, ByteBuffer.wrap(code), 0, code.length);
+    }
+
+}
@@ -0,0 +1,80 @@
+/*
+ * New BSD License (BSD-new)
+ *
+ * Copyright (c) 2015 Maxim Roncacé
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     - Neither the name of the copyright holder nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.caseif.beret;
+
+import net.caseif.beret.wrapper.ClassInfo;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Tests the output of a {@link DecompileAgent} against golden output.
+ *
+ * @author Max Roncacé
+ */
+public class DecompileAgentTest {
+
+    @Test
+    public void testDecompileMatchesGolden() throws IOException {
+        ClassInfo info = new ClassInfo(ClassInfoTest.readResource("/fixture/Fixture.class"));
+        String expected = new String(ClassInfoTest.readResource("/fixture/Fixture.decompiled.txt"),
+                StandardCharsets.UTF_8);
+        assert new DecompileAgent(info).decompile().equals(expected) : "Decompiled fixture differs from golden output";
+
+        StringBuilder sb = new StringBuilder();
+        new DecompileAgent(info).decompile(sb);
+        assert sb.toString().equals(expected) : "Streamed decompilation of fixture differs from golden output";
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            assert new DecompileAgent(info, executor).decompile().equals(expected)
+                    : "Parallel decompilation of fixture differs from golden output";
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testImportsAreSorted() throws IOException {
+        ClassInfo info = new ClassInfo(ClassInfoTest.readResource("/fixture/Fixture.class"));
+        String previous = "";
+        for (String line : new DecompileAgent(info).decompile().split("\n")) {
+            if (line.startsWith("import ")) {
+                assert line.compareTo(previous) > 0 : line + " follows " + previous;
+                previous = line;
+            }
+        }
+        assert !previous.isEmpty();
+    }
+
+}
@@ -0,0 +1,96 @@
+/*
+ * New BSD License (BSD-new)
+ *
+ * Copyright (c) 2015 Maxim Roncacé
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     - Neither the name of the copyright holder nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.caseif.beret;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+public class DecompileCacheTest {
+
+    @Test
+    public void testBuildId() {
+        // the tests run from a directory of compiled classes, which is hashed in its entirety
+        String build = Beret.getBuildId();
+        assert build != null && build.startsWith(Beret.VERSION + "+");
+        assert build.length() == Beret.VERSION.length() + 1 + 64;
+        assert Beret.getBuildId() == build;
+    }
+
+    @Test
+    public void testStoreAndEvict() throws IOException {
+        Path dir = Files.createTempDirectory("beret-cache");
+        Path output = Files.createTempFile("beret-output", ".java");
+        try {
+            DecompileCache cache = new DecompileCache(dir, 280);
+            String first = DecompileCache.getKey(ByteBuffer.wrap(new byte[] {1}), "decompile");
+            String second = DecompileCache.getKey(ByteBuffer.wrap(new byte[] {2}), "decompile");
+            String third = DecompileCache.getKey(ByteBuffer.wrap(new byte[] {3}), "decompile");
+            assert !first.equals(DecompileCache.getKey(ByteBuffer.wrap(new byte[] {1}), "dump"));
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            assert !cache.copyTo(first, out);
+
+            Files.write(output, repeat('a', 100));
+            cache.store(first, output);
+            assert cache.copyTo(first, out);
+            assert out.toString("UTF-8").equals(new String(repeat('a', 100), StandardCharsets.UTF_8));
+
+            Files.write(output, repeat('b', 100));
+            cache.store(second, output);
+            // make the first entry the most recently used so that the second is evicted in its place
+            Files.setLastModifiedTime(dir.resolve(second.substring(0, 2)).resolve(second), FileTime.fromMillis(0));
+            Files.write(output, repeat('c', 100));
+            cache.store(third, output);
+
+            assert cache.getSize() == 200;
+            assert cache.copyTo(first, new ByteArrayOutputStream());
+            assert !cache.copyTo(second, new ByteArrayOutputStream());
+            assert cache.copyTo(third, new ByteArrayOutputStream());
+        } finally {
+            Files.delete(output);
+            Files.walk(dir).sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private static byte[] repeat(char c, int count) {
+        byte[] bytes = new byte[count];
+        for (int i = 0; i < count; i++) {
+            bytes[i] = (byte)c;
+        }
+        return bytes;
+    }
+
+}
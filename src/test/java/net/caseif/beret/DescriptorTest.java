@@ -0,0 +1,74 @@
+/*
+ * New BSD License (BSD-new)
+ *
+ * Copyright (c) 2015 Maxim Roncacé
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     - Neither the name of the copyright holder nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.caseif.beret;
+
+import org.junit.Test;
+
+public class DescriptorTest {
+
+    @Test
+    public void testTypeDescriptors() {
+        assert TypeDescriptor.of("I").toString().equals("int");
+        assert TypeDescriptor.of("[[J").toString().equals("long[][]");
+        assert TypeDescriptor.of("Ljava/lang/String;").getRequiredImport() == null;
+        assert TypeDescriptor.of("Ljava/lang/invoke/MethodHandle;").getRequiredImport()
+                .equals("java.lang.invoke.MethodHandle");
+        assert TypeDescriptor.of("[Ljava/util/Map$Entry;").toString().equals("Map$Entry[]");
+        assert TypeDescriptor.of("I") == TypeDescriptor.of("I");
+        try {
+            new TypeDescriptor("Q");
+            assert false;
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void testMethodDescriptors() {
+        MethodDescriptor desc = MethodDescriptor.of("(I[[Ljava/util/List;ZLjava/lang/Object;)[B");
+        assert desc.getParams().length == 4;
+        assert desc.getParams()[0].toString().equals("int");
+        assert desc.getParams()[1].toString().equals("List[][]");
+        assert desc.getParams()[2].toString().equals("boolean");
+        assert desc.getParams()[3].toString().equals("Object");
+        assert desc.getReturnType().toString().equals("byte[]");
+        assert MethodDescriptor.of("()V").getParams().length == 0;
+
+        // callers must not be able to corrupt the cached descriptor
+        desc.getParams()[0] = null;
+        assert desc.getParam(0).toString().equals("int");
+        assert MethodDescriptor.of(desc.getHandle()).getParamCount() == 4;
+        assert desc == MethodDescriptor.of("(I[[Ljava/util/List;ZLjava/lang/Object;)[B");
+        try {
+            new MethodDescriptor("(Ljava/lang/String)V");
+            assert false;
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+}
@@ -0,0 +1,113 @@
+/*
+ * New BSD License (BSD-new)
+ *
+ * Copyright (c) 2015 Maxim Roncacé
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     - Neither the name of the copyright holder nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.caseif.beret;
+
+import net.caseif.beret.structures.InstructionCursor;
+import net.caseif.beret.structures.InstructionStream;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Tests decoding of variable-length instructions.
+ *
+ * @author Max Roncacé
+ */
+public class InstructionStreamTest {
+
+    @Test
+    public void testVariableLengthInstructions() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(0xFF); // junk preceding the code, so that padding must be relative to the code start
+        out.writeByte(Opcode.ILOAD_0.getByteCode()); // 0
+        out.writeByte(Opcode.TABLESWITCH.getByteCode()); // 1
+        out.writeShort(0); // padding to offset 4
+        out.writeInt(43); // default -> 44
+        out.writeInt(5); // low
+        out.writeInt(6); // high
+        out.writeInt(43); // 5 -> 44
+        out.writeInt(49); // 6 -> 50
+        out.writeByte(Opcode.LOOKUPSWITCH.getByteCode()); // 24
+        out.writeByte(0); // padding to offset 28 (3 bytes)
+        out.writeShort(0);
+        out.writeInt(20); // default -> 44
+        out.writeInt(1); // npairs
+        out.writeInt(-7);
+        out.writeInt(26); // -7 -> 50
+        out.writeByte(Opcode.WIDE.getByteCode()); // 44
+        out.writeByte(Opcode.IINC.getByteCode());
+        out.writeShort(300);
+        out.writeShort(-2);
+        out.writeByte(Opcode.WIDE.getByteCode()); // 50
+        out.writeByte(Opcode.ILOAD.getByteCode());
+        out.writeShort(256);
+        out.writeByte(Opcode.RETURN.getByteCode()); // 54
+        byte[] code = bytes.toByteArray();
+
+        InstructionStream stream = new InstructionStream(null, ByteBuffer.wrap(code), 1, code.length - 1);
+        assert stream.size() == 6;
+        assert stream.getOffset(5) == 54;
+        assert stream.getOpcode(5) == Opcode.RETURN;
+
+        InstructionCursor cursor = stream.cursor();
+        assert cursor.next() && cursor.getOpcode() == Opcode.ILOAD_0;
+
+        assert cursor.next() && cursor.getOpcode() == Opcode.TABLESWITCH;
+        assert cursor.getSwitchDefaultTarget() == 44;
+        assert cursor.getSwitchCaseCount() == 2;
+        assert cursor.getSwitchCaseKey(1) == 6;
+        assert cursor.getSwitchCaseTarget(0) == 44;
+        assert cursor.getSwitchCaseTarget(1) == 50;
+
+        assert cursor.next() && cursor.getOpcode() == Opcode.LOOKUPSWITCH;
+        assert cursor.getOffset() == 24;
+        assert cursor.getSwitchDefaultTarget() == 44;
+        assert cursor.getSwitchCaseCount() == 1;
+        assert cursor.getSwitchCaseKey(0) == -7;
+        assert cursor.getSwitchCaseTarget(0) == 50;
+
+        assert cursor.next() && cursor.getOpcode() == Opcode.WIDE;
+        assert cursor.getOffset() == 44;
+        assert cursor.getWideOpcode() == Opcode.IINC;
+        assert cursor.getWideLocalIndex() == 300;
+        assert cursor.getWideIncrement() == -2;
+
+        assert cursor.next() && cursor.getWideOpcode() == Opcode.ILOAD;
+        assert cursor.getWideLocalIndex() == 256;
+
+        assert cursor.next() && cursor.getOpcode() == Opcode.RETURN;
+        assert !cursor.next();
+    }
+
+}
@@ -0,0 +1,82 @@
+/*
+ * New BSD License (BSD-new)
+ *
+ * Copyright (c) 2015 Maxim Roncacé
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     - Neither the name of the copyright holder nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.caseif.beret;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Tests reading the entries of an archive in parallel.
+ *
+ * @author Max Roncacé
+ */
+public class JarAnalyzerTest {
+
+    @Test
+    public void testErrorsAreReported() throws IOException {
+        Path jar = Files.createTempFile("beret", ".jar");
+        try {
+            try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(jar))) {
+                for (String name : new String[] {"a/Good.class", "a/Failing.class", "a/Asserting.class",
+                        "a/Ignored.txt"}) {
+                    out.putNextEntry(new ZipEntry(name));
+                    out.write(0xCA);
+                    out.closeEntry();
+                }
+            }
+
+            Set<String> consumed = ConcurrentHashMap.newKeySet();
+            Map<String, Throwable> failures = new ConcurrentHashMap<>();
+            JarAnalyzer.readAll(jar, 2, entry -> true, (entry, bytes) -> {
+                consumed.add(entry.getName());
+                if (entry.getName().equals("a/Failing.class")) {
+                    throw new IllegalStateException("failing");
+                } else if (entry.getName().equals("a/Asserting.class")) {
+                    throw new AssertionError("asserting"); // errors must not escape unreported
+                }
+            }, failures::put);
+
+            assert consumed.size() == 3 && !consumed.contains("a/Ignored.txt");
+            assert failures.size() == 2;
+            assert failures.get("a/Failing.class") instanceof IllegalStateException;
+            assert failures.get("a/Asserting.class") instanceof AssertionError;
+        } finally {
+            Files.delete(jar);
+        }
+    }
+
+}
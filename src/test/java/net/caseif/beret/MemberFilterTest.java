@@ -0,0 +1,196 @@
+/*
+ * New BSD License (BSD-new)
+ *
+ * Copyright (c) 2015 Maxim Roncacé
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     - Neither the name of the copyright holder nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.caseif.beret;
+
+import net.caseif.beret.structures.AttributeStructure;
+import net.caseif.beret.wrapper.ClassInfo;
+import net.caseif.beret.wrapper.MemberFilter;
+import net.caseif.beret.wrapper.synthetic.AccessFlag;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests loading only the members of a class accepted by a
+ * {@link MemberFilter}.
+ *
+ * @author Max Roncacé
+ */
+public class MemberFilterTest {
+
+    @Test
+    public void testPublicApi() throws IOException {
+        byte[] bytes = generateClass();
+        ClassInfo info = new ClassInfo(bytes, MemberFilter.PUBLIC_API);
+        assert info.getFields().length == 1;
+        assert info.getFields()[0].getName().equals("count");
+        assert info.getMethods().length == 1;
+        assert info.getMethods()[0].getName().equals("run");
+        assert info.getMethods()[0].getDescriptor().equals("()V");
+
+        // the members after those skipped must be read from exactly where they begin
+        assertMarked(info.getFields()[0].getAttributes(), 0, 12);
+        assertMarked(info.getMethods()[0].getAttributes(), 1, 15);
+        assert info.getAttributes().length == 1;
+        assert info.getAttributes()[0].getName().equals("SourceFile");
+        byte[] sourceFile = info.getAttributes()[0].getContent();
+        assert sourceFile.length == 2 && sourceFile[0] == 0 && sourceFile[1] == 11;
+    }
+
+    @Test
+    public void testRejectedMembersAreNotLoaded() throws IOException {
+        byte[] bytes = generateClass();
+        // the rejected members have malformed descriptors, which would fail to parse were they loaded
+        try {
+            new ClassInfo(bytes);
+            assert false;
+        } catch (IllegalArgumentException expected) {
+        }
+
+        List<String> offered = new ArrayList<>();
+        ClassInfo info = new ClassInfo(bytes, (target, access, name, descriptor) -> {
+            offered.add(target + " " + name + descriptor);
+            return !name.startsWith("bad");
+        });
+        assert offered.size() == 5 : offered;
+        assert offered.get(0).equals(AccessFlag.AccessTarget.FIELD + " countI");
+        assert offered.get(1).equals(AccessFlag.AccessTarget.FIELD + " badFieldQ");
+        assert offered.get(2).equals(AccessFlag.AccessTarget.METHOD + " badMethod(Q)V");
+        assert info.getFields().length == 1;
+        assert info.getMethods().length == 2;
+        assert info.getMethods()[0].getName().equals("run");
+        assert info.getMethods()[1].getName().equals("helper");
+        assertMarked(info.getFields()[0].getAttributes(), 0, 12);
+        assertMarked(info.getMethods()[0].getAttributes(), 1, 15);
+        assertMarked(info.getMethods()[1].getAttributes(), 1, 16);
+        assert info.getMethods()[1].getAccess().has(AccessFlag.MethodFlag.ACC_SYNTHETIC);
+    }
+
+    /**
+     * Asserts that a member has the given number of attributes, each holding
+     * the index of the member's name as written by {@link #writeMember}.
+     */
+    private static void assertMarked(AttributeStructure[] attributes, int count, int nameIndex) {
+        assert attributes.length == count : "Expected " + count + " attributes but found " + attributes.length;
+        for (AttributeStructure attr : attributes) {
+            assert attr.getName().equals("Custom");
+            assert attr.getLength() == 1;
+            assert attr.getContent()[0] == nameIndex : "Attribute of member #" + nameIndex + " read from wrong offset";
+        }
+    }
+
+    /**
+     * Generates a class file with a mix of public, private and synthetic
+     * members. Every member named with the prefix "bad" has a malformed
+     * descriptor.
+     *
+     * @return The bytes of the generated class file
+     * @throws IOException If an exception occurs while generating the class
+     */
+    private static byte[] generateClass() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0xCAFEBABE);
+        out.writeShort(0); // minor version
+        out.writeShort(52); // major version
+
+        out.writeShort(19); // constant pool count
+        writeUtf8(out, "Filtered"); // #1
+        writeClass(out, 1); // #2
+        writeUtf8(out, "java/lang/Object"); // #3
+        writeClass(out, 3); // #4
+        writeUtf8(out, "I"); // #5
+        writeUtf8(out, "()V"); // #6
+        writeUtf8(out, "Q"); // #7
+        writeUtf8(out, "(Q)V"); // #8
+        writeUtf8(out, "Custom"); // #9
+        writeUtf8(out, "SourceFile"); // #10
+        writeUtf8(out, "Filtered.java"); // #11
+        writeUtf8(out, "count"); // #12
+        writeUtf8(out, "badField"); // #13
+        writeUtf8(out, "badMethod"); // #14
+        writeUtf8(out, "run"); // #15
+        writeUtf8(out, "helper"); // #16
+        out.writeByte(5); // #17: a long, which occupies two slots
+        out.writeLong(0x123456789L);
+
+        out.writeShort(0x0021); // public super
+        out.writeShort(2); // this class
+        out.writeShort(4); // superclass
+        out.writeShort(0); // interfaces
+
+        out.writeShort(2); // fields
+        writeMember(out, 0x0001, 12, 5); // public int count
+        writeMember(out, 0x0002, 13, 7, 10); // private, with an attribute which must be skipped
+
+        out.writeShort(3); // methods
+        writeMember(out, 0x0002, 14, 8, 9, 9); // private, with two attributes which must be skipped
+        writeMember(out, 0x0001, 15, 6, 9); // public void run()
+        writeMember(out, 0x1004, 16, 6, 9); // protected synthetic void helper()
+
+        out.writeShort(1); // class attributes
+        out.writeShort(10); // SourceFile
+        out.writeInt(2);
+        out.writeShort(11);
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Writes a member whose attributes each hold a single byte identifying
+     * the member.
+     */
+    private static void writeMember(DataOutputStream out, int access, int name, int descriptor, int... attributes)
+            throws IOException {
+        out.writeShort(access);
+        out.writeShort(name);
+        out.writeShort(descriptor);
+        out.writeShort(attributes.length);
+        for (int attribute : attributes) {
+            out.writeShort(attribute);
+            out.writeInt(1);
+            out.writeByte(name);
+        }
+    }
+
+    private static void writeUtf8(DataOutputStream out, String value) throws IOException {
+        out.writeByte(1);
+        out.writeUTF(value);
+    }
+
+    private static void writeClass(DataOutputStream out, int nameIndex) throws IOException {
+        out.writeByte(7);
+        out.writeShort(nameIndex);
+    }
+
+}
@@ -0,0 +1,217 @@
+/*
+ * New BSD License (BSD-new)
+ *
+ * Copyright (c) 2015 Maxim Roncacé
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     - Neither the name of the copyright holder nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.caseif.beret;
+
+import net.caseif.beret.wrapper.ClassInfo;
+import net.caseif.beret.wrapper.FieldInfo;
+import net.caseif.beret.wrapper.MethodInfo;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Tests parsing of classes with large numbers of members, and that the cost
+ * of parsing them grows linearly with their number.
+ *
+ * <p>Rather than timing the parse, which is at the mercy of the machine
+ * running the test, the bytes allocated by the parsing thread are measured.
+ * Copying the remainder of the class for each member, as was once done,
+ * makes the allocation per member grow with the size of the class.</p>
+ *
+ * @author Max Roncacé
+ */
+public class MemberScalingTest {
+
+    private static final int MEMBER_COUNT = 8000;
+
+    private static final int SMALL_COUNT = 1000;
+    private static final int LARGE_COUNT = 8 * SMALL_COUNT;
+
+    /**
+     * The factor by which the allocation per member may differ between the
+     * small and the large class, leaving room for the slowly growing names of
+     * the generated members.
+     */
+    private static final double TOLERANCE = 1.25;
+
+    private static final int RUNS = 5;
+
+    /**
+     * The length of each generated field: its access flags, name, descriptor
+     * and attribute count.
+     */
+    private static final int FIELD_LENGTH = 8;
+    /**
+     * The length of each generated method: the same as a field, plus a Code
+     * attribute header and its 13-byte body.
+     */
+    private static final int METHOD_LENGTH = 8 + 6 + 13;
+
+    @Test
+    public void testManyMembers() throws IOException {
+        byte[] bytes = generateClass(MEMBER_COUNT);
+        ClassInfo info = new ClassInfo(bytes);
+        assert info.getFields().length == MEMBER_COUNT;
+        assert info.getMethods().length == MEMBER_COUNT;
+        assert info.getMethods()[MEMBER_COUNT - 1].getName().equals("m" + (MEMBER_COUNT - 1));
+
+        // every member must be parsed from exactly where the previous one ended
+        int offset = info.getHeader().getEndOffset() + 2; // field count
+        for (FieldInfo field : info.getFields()) {
+            assert field.getLength() == FIELD_LENGTH;
+            offset += field.getLength();
+        }
+        offset += 2; // method count
+        for (MethodInfo method : info.getMethods()) {
+            assert method.getLength() == METHOD_LENGTH;
+            offset += method.getLength();
+        }
+        offset += 2; // class attribute count
+        assert offset == bytes.length;
+    }
+
+    @Test
+    public void testLinearAllocation() throws IOException {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)
+                || !((com.sun.management.ThreadMXBean)threads).isThreadAllocatedMemorySupported()) {
+            return; // allocation cannot be measured on this VM
+        }
+        com.sun.management.ThreadMXBean allocation = (com.sun.management.ThreadMXBean)threads;
+        allocation.setThreadAllocatedMemoryEnabled(true);
+
+        byte[] empty = generateClass(0);
+        byte[] small = generateClass(SMALL_COUNT);
+        byte[] large = generateClass(LARGE_COUNT);
+        long base = measureAllocation(allocation, empty);
+        double smallPerMember = (double)(measureAllocation(allocation, small) - base) / SMALL_COUNT;
+        double largePerMember = (double)(measureAllocation(allocation, large) - base) / LARGE_COUNT;
+        assert largePerMember <= smallPerMember * TOLERANCE
+                : "Allocation per member grew from " + smallPerMember + " to " + largePerMember + " bytes";
+    }
+
+    /**
+     * Measures the fewest bytes allocated by the current thread over several
+     * parses of the given class, the first of which warms up any caches.
+     *
+     * @param allocation The bean to query allocation through
+     * @param bytes      The class file to parse
+     * @return The fewest bytes allocated by any parse of the class
+     */
+    private static long measureAllocation(com.sun.management.ThreadMXBean allocation, byte[] bytes) {
+        long thread = Thread.currentThread().getId();
+        long least = Long.MAX_VALUE;
+        for (int i = 0; i <= RUNS; i++) {
+            long before = allocation.getThreadAllocatedBytes(thread);
+            ClassInfo info = new ClassInfo(bytes);
+            long allocated = allocation.getThreadAllocatedBytes(thread) - before;
+            assert info.getMethods().length == info.getFields().length;
+            if (i > 0) {
+                least = Math.min(least, allocated);
+            }
+        }
+        return least;
+    }
+
+    /**
+     * Generates a class file containing the given number of fields and the
+     * given number of methods.
+     *
+     * @param memberCount The number of fields and of methods to generate
+     * @return The bytes of the generated class file
+     * @throws IOException If an exception occurs while generating the class
+     */
+    private static byte[] generateClass(int memberCount) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0xCAFEBABE);
+        out.writeShort(0); // minor version
+        out.writeShort(52); // major version
+
+        out.writeShort(8 + memberCount); // constant pool count
+        writeUtf8(out, "Generated"); // #1
+        writeClass(out, 1); // #2
+        writeUtf8(out, "java/lang/Object"); // #3
+        writeClass(out, 3); // #4
+        writeUtf8(out, "()V"); // #5
+        writeUtf8(out, "Code"); // #6
+        writeUtf8(out, "I"); // #7
+        for (int i = 0; i < memberCount; i++) {
+            writeUtf8(out, "m" + i); // #8 onward
+        }
+
+        out.writeShort(0x0021); // public super
+        out.writeShort(2); // this class
+        out.writeShort(4); // superclass
+        out.writeShort(0); // interfaces
+
+        out.writeShort(memberCount);
+        for (int i = 0; i < memberCount; i++) {
+            out.writeShort(0x0002); // private
+            out.writeShort(8 + i); // name
+            out.writeShort(7); // descriptor
+            out.writeShort(0); // attributes
+        }
+
+        out.writeShort(memberCount);
+        for (int i = 0; i < memberCount; i++) {
+            out.writeShort(0x0001); // public
+            out.writeShort(8 + i); // name
+            out.writeShort(5); // descriptor
+            out.writeShort(1); // attributes
+            out.writeShort(6); // Code
+            out.writeInt(13); // attribute length
+            out.writeShort(0); // max stack
+            out.writeShort(1); // max locals
+            out.writeInt(1); // code length
+            out.writeByte(Opcode.RETURN.getByteCode());
+            out.writeShort(0); // exception table
+            out.writeShort(0); // attributes
+        }
+
+        out.writeShort(0); // attributes
+        return bytes.toByteArray();
+    }
+
+    private static void writeUtf8(DataOutputStream out, String value) throws IOException {
+        out.writeByte(0x01);
+        out.writeUTF(value);
+    }
+
+    private static void writeClass(DataOutputStream out, int nameIndex) throws IOException {
+        out.writeByte(0x07);
+        out.writeShort(nameIndex);
+    }
+
+}
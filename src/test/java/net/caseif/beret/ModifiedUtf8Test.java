@@ -0,0 +1,75 @@
+/*
+ * New BSD License (BSD-new)
+ *
+ * Copyright (c) 2015 Maxim Roncacé
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     - Neither the name of the copyright holder nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.caseif.beret;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Tests decoding of modified UTF-8.
+ *
+ * @author Max Roncacé
+ */
+public class ModifiedUtf8Test {
+
+    @Test
+    public void testDecoding() throws IOException {
+        String[] values = new String[] {
+                "java/lang/Object", "", "café", "nul\u0000byte", "€", "clef 𝄞", "été"
+        };
+        for (String value : values) {
+            // DataOutputStream writes the same modified UTF-8 as the class file format
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            new DataOutputStream(bytes).writeUTF(value);
+            byte[] encoded = bytes.toByteArray();
+            ByteBuffer heap = ByteBuffer.wrap(encoded);
+            ByteBuffer direct = ByteBuffer.allocateDirect(encoded.length);
+            direct.put(encoded);
+            assert Util.decodeModifiedUtf8(heap, 2, encoded.length - 2).equals(value) : "Failed to decode " + value;
+            assert Util.decodeModifiedUtf8(direct, 2, encoded.length - 2).equals(value) : "Failed to decode " + value;
+        }
+    }
+
+    @Test
+    public void testMalformed() {
+        byte[][] malformed = new byte[][] {{'a', (byte)0xC3}, {(byte)0xE2, (byte)0x82, 'a'}, {(byte)0xF0, 0, 0, 0}};
+        for (byte[] bytes : malformed) {
+            try {
+                Util.decodeModifiedUtf8(ByteBuffer.wrap(bytes), 0, bytes.length);
+                assert false : "Decoded malformed modified UTF-8";
+            } catch (IllegalArgumentException ignored) {
+            }
+        }
+    }
+
+}
@@ -0,0 +1,121 @@
+/*
+ * New BSD License (BSD-new)
+ *
+ * Copyright (c) 2015 Maxim Roncacé
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     - Neither the name of the copyright holder nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.caseif.beret;
+
+import net.caseif.beret.structures.constant.SymbolTable;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * Tests interning of strings in a {@link SymbolTable}.
+ *
+ * @author Max Roncacé
+ */
+public class SymbolTableTest {
+
+    private static final int LOOKUPS = 1000;
+
+    @Test
+    public void testInterning() {
+        SymbolTable table = new SymbolTable();
+        String[] values = new String[] {"java/lang/Object", "<init>", "()V", "café", "cafe", "", "été"};
+        String[] interned = new String[values.length];
+        for (int i = 0; i < values.length; i++) {
+            interned[i] = intern(table, values[i]);
+            assert interned[i].equals(values[i]) : "Interned " + values[i] + " as " + interned[i];
+        }
+        for (int i = 0; i < values.length; i++) {
+            assert intern(table, values[i]) == interned[i] : values[i] + " was not interned";
+        }
+        assert table.size() == values.length;
+
+        // enough distinct strings to force every segment to grow
+        for (int i = 0; i < 10000; i++) {
+            intern(table, "sym" + i);
+        }
+        assert table.size() == values.length + 10000;
+        assert intern(table, "java/lang/Object") == interned[0];
+    }
+
+    @Test
+    public void testMultiByteSequences() {
+        SymbolTable table = new SymbolTable();
+        // U+0000 is encoded as two bytes in modified UTF-8, despite being an ASCII character
+        byte[] nul = new byte[] {'a', (byte)0xC0, (byte)0x80, 'b'};
+        String interned = table.intern(ByteBuffer.wrap(nul), 0, nul.length);
+        assert interned.equals("a\0b");
+        assert table.intern(ByteBuffer.wrap(nul.clone()), 0, nul.length) == interned;
+
+        // strings differing only in their multi-byte sequences must not be confused
+        String cafe = intern(table, "café");
+        assert intern(table, "cafè") != cafe;
+        assert intern(table, "café") == cafe;
+        assert table.size() == 3;
+    }
+
+    @Test
+    public void testRepeatLookupDoesNotDecode() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)
+                || !((com.sun.management.ThreadMXBean)threads).isThreadAllocatedMemorySupported()) {
+            return; // allocation cannot be measured on this VM
+        }
+        com.sun.management.ThreadMXBean allocation = (com.sun.management.ThreadMXBean)threads;
+        allocation.setThreadAllocatedMemoryEnabled(true);
+
+        SymbolTable table = new SymbolTable();
+        byte[] bytes = "Lnet/caseif/b\u00E9ret/\u2603;".getBytes(Charset.forName("UTF-8"));
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        String interned = table.intern(buffer, 0, bytes.length);
+        for (int i = 0; i < LOOKUPS; i++) {
+            table.intern(buffer, 0, bytes.length); // warm up
+        }
+
+        // decoding would allocate a new string for every lookup
+        long thread = Thread.currentThread().getId();
+        long before = allocation.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < LOOKUPS; i++) {
+            assert table.intern(buffer, 0, bytes.length) == interned;
+        }
+        long allocated = allocation.getThreadAllocatedBytes(thread) - before;
+        assert allocated < LOOKUPS : LOOKUPS + " lookups of a multi-byte string allocated " + allocated + " bytes";
+    }
+
+    private static String intern(SymbolTable table, String value) {
+        byte[] bytes = ("xx" + value).getBytes(Charset.forName("UTF-8"));
+        // offset the string within the buffer to ensure that offsets are respected
+        return table.intern(ByteBuffer.wrap(bytes), 2, bytes.length - 2);
+    }
+
+}
@@ -0,0 +1,90 @@
+/*
+ * New BSD License (BSD-new)
+ *
+ * Copyright (c) 2015 Maxim Roncacé
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     - Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     - Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     - Neither the name of the copyright holder nor the names of its contributors
+ *       may be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.caseif.beret.fixture;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The source of the fixture class used by the golden output tests.
+ *
+ * <p>This file is not compiled by the build. Fixture.class was compiled from
+ * it with <code>javac --release 8 -encoding UTF-8</code>, so that the tests
+ * do not depend on the compiler building them. The golden outputs alongside
+ * it must be regenerated whenever it is.</p>
+ *
+ * @author Max Roncacé
+ */
+public abstract class Fixture implements Comparable<Fixture>, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String GREETING = "héllo ☃";
+
+    protected int count;
+    private final List<String> names = new ArrayList<>();
+    double ratio = 0.5;
+    int[][] grid;
+
+    public Fixture(int count) {
+        this.count = count;
+    }
+
+    public abstract Map<String, Integer> index(List<String> values, boolean sorted);
+
+    @Override
+    public int compareTo(Fixture other) {
+        return Integer.compare(count, other.count);
+    }
+
+    public String describe(char separator) {
+        StringBuilder sb = new StringBuilder(GREETING);
+        for (int i = 0; i < names.size(); i++) {
+            sb.append(separator).append(names.get(i));
+        }
+        return sb.toString();
+    }
+
+    public int read(String text) {
+        try {
+            return new StringReader(text).read();
+        } catch (IOException ex) {
+            return -1;
+        }
+    }
+
+    static long scale(long value, float factor, double offset) {
+        return (long)(value * factor + offset) << 2;
+    }
+
+}